@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code BatchMatchEvaluator.playMatches} over {@value #MATCHES} matches between random whole-number skills, with and
+ * without the Vector API (the score is matches per second, comparable with {@code TableTennisMatchBenchmark}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchMatchBenchmark {
+    static final int MATCHES = 4096;
+
+    @Param({"true", "false"})
+    public boolean vectorised;
+
+    private Object evaluator;
+    private float[] p1Skills;
+    private float[] p2Skills;
+    private int[] scores;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        SplittableRandom skills = new SplittableRandom(42);
+        this.p1Skills = new float[MATCHES];
+        this.p2Skills = new float[MATCHES];
+        for (int i = 0; i < MATCHES; i++) {
+            this.p1Skills[i] = skills.nextInt(11);
+            this.p2Skills[i] = skills.nextInt(11);
+        }
+        this.scores = new int[MATCHES];
+        this.evaluator = Simulation.newBatchEvaluator(this.vectorised);
+        this.random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MATCHES)
+    public int[] playMatches() {
+        Simulation.playMatches(this.evaluator, this.p1Skills, this.p2Skills, this.scores, MATCHES, this.random);
+        return this.scores;
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GetPlayerData.fetch}, selecting {@code numPlayers} entrants from a synthetic roster of {@code rosterSize} players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetPlayerDataBenchmark {
+    @Param({"4", "64", "1024", "65536"})
+    public int numPlayers;
+
+    @Param({"65536"})
+    public int rosterSize;
+
+    private String roster;
+
+    @Setup
+    public void setup() throws Exception {
+        Path file = Rosters.write(Math.max(this.rosterSize, this.numPlayers), 42);
+        this.roster = file.toString();
+    }
+
+    @Benchmark
+    public ArrayList<Object> fetch() {
+        return Simulation.fetch(this.roster, this.numPlayers);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RatingService.update} between random players, from every thread at once into one shared service (the score is
+ * updates per second; run with {@code -t} to change the number of threads).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class RatingServiceBenchmark {
+    @Param({"1024", "1048576"})
+    public int players;
+
+    private Object ratings;
+
+    @State(Scope.Thread)
+    public static class Pairs {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() {
+        this.ratings = Simulation.newRatingService(this.players);
+    }
+
+    @Benchmark
+    public void update(Pairs pairs) {
+        int winner = pairs.random.nextInt(this.players);
+        int loser = pairs.random.nextInt(this.players - 1);
+        Simulation.updateRatings(this.ratings, winner, loser < winner ? loser : loser + 1);
+    }
+}
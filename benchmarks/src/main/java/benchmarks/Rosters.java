@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic rosters in the same {@code JSON} format as {@code data/players-attributes.json}, so benchmarks can
+ * use more players than the bundled roster holds.
+ */
+final class Rosters {
+    private Rosters() {}
+
+    static Path write(int numPlayers, long seed) throws IOException {
+        Path file = Files.createTempFile("roster-" + numPlayers + "-", ".json");
+        file.toFile().deleteOnExit();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write('[');
+            for (int i = 1; i <= numPlayers; i++) {
+                if (i > 1) {
+                    out.write(",\n");
+                }
+                out.write("{\"id\":" + i
+                        + ",\"first_name\":\"First" + i + "\",\"last_name\":\"Last" + i + "\""
+                        + ",\"serve_power\":" + random.nextInt(1, 11)
+                        + ",\"serve_skill\":" + random.nextInt(1, 11)
+                        + ",\"spin\":" + random.nextInt(1, 11)
+                        + ",\"forehand_power\":" + random.nextInt(1, 11)
+                        + ",\"backhand_power\":" + random.nextInt(1, 11)
+                        + ",\"fitness\":" + random.nextInt(1, 11)
+                        + ",\"age\":" + random.nextInt(16, 50) + "}");
+            }
+            out.write("]\n");
+        }
+        return file;
+    }
+}
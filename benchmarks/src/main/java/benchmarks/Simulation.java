@@ -0,0 +1,176 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Gives the benchmarks access to the simulation classes.
+ * <p>
+ *     The simulation classes are in the default package, which cannot be imported, and JMH does not allow benchmarks in
+ *     the default package. The methods are therefore looked up once and kept in {@code static final} method handles, which
+ *     the JIT compiler treats as constants and inlines like a direct call. Player and match objects are passed as
+ *     {@link Object}.
+ * </p>
+ */
+final class Simulation {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+    private static final Class<?> PLAYER = load("TableTennisPlayer");
+    private static final Class<?> MATCH = load("TableTennisMatch");
+    private static final Class<?> ROUND = load("TableTennisRound");
+    private static final Class<?> TOURNAMENT = load("TableTennisTournament");
+    private static final Class<?> PLAYER_DATA = load("GetPlayerData");
+    private static final Class<?> ENGINE = load("MatchEngine");
+    private static final Class<?> BATCH = load("BatchMatchEvaluator");
+    private static final Class<?> RATINGS = load("RatingService");
+
+    private static final MethodHandle FETCH = findStatic(PLAYER_DATA, "fetch", MethodType.methodType(ArrayList.class, String.class, int.class));
+    private static final MethodHandle PLAY_ROUND = findStatic(ROUND, "playRound", MethodType.methodType(PLAYER, PLAYER, PLAYER, RandomGenerator.class));
+    private static final MethodHandle NEW_MATCH = findConstructor(MATCH, MethodType.methodType(void.class, List.class));
+    private static final MethodHandle SET_RANDOM = findVirtual(MATCH, "setRandom", MethodType.methodType(void.class, RandomGenerator.class));
+    private static final MethodHandle SET_ENGINE = findVirtual(MATCH, "setEngine", MethodType.methodType(void.class, ENGINE));
+    private static final MethodHandle PLAY_MATCH = findVirtual(MATCH, "playMatch", MethodType.methodType(void.class));
+    private static final MethodHandle GET_WINNER = findVirtual(MATCH, "getWinner", MethodType.methodType(PLAYER));
+    private static final MethodHandle NEW_TOURNAMENT = findConstructor(TOURNAMENT, MethodType.methodType(void.class, ArrayList.class, int.class));
+    private static final MethodHandle NEW_BATCH = findConstructor(BATCH, MethodType.methodType(void.class, boolean.class));
+    private static final MethodHandle PLAY_MATCHES = findVirtual(BATCH, "playMatches", MethodType.methodType(void.class, float[].class, float[].class, int[].class, int.class, RandomGenerator.class));
+    private static final MethodHandle NEW_RATINGS = findConstructor(RATINGS, MethodType.methodType(void.class, int.class));
+    private static final MethodHandle UPDATE_RATINGS = findVirtual(RATINGS, "update", MethodType.methodType(void.class, int.class, int.class));
+    private static final MethodHandle START_TOURNAMENT = findVirtual(TOURNAMENT, "startTournament", MethodType.methodType(void.class));
+
+    private Simulation() {}
+
+    /** {@code GetPlayerData.fetch(rosterFile, playerCount)} */
+    @SuppressWarnings("unchecked")
+    static ArrayList<Object> fetch(String rosterFile, int playerCount) {
+        try {
+            return (ArrayList<Object>) (Object) FETCH.invokeExact((Object) rosterFile, playerCount);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code TableTennisRound.playRound(p1, p2, random)} */
+    static Object playRound(Object p1, Object p2, RandomGenerator random) {
+        try {
+            return (Object) PLAY_ROUND.invokeExact(p1, p2, (Object) random);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code <name>MatchEngine.INSTANCE}, e.g. {@code engine("Rally")} */
+    static Object engine(String name) {
+        try {
+            return load(name + "MatchEngine").getField("INSTANCE").get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No match engine: " + name, e);
+        }
+    }
+
+    /** {@code new TableTennisMatch(pair)}, played by the given engine and generator, returning the winner. */
+    static Object playMatch(List<Object> pair, Object engine, RandomGenerator random) {
+        try {
+            Object match = (Object) NEW_MATCH.invokeExact((Object) pair);
+            SET_ENGINE.invokeExact(match, engine);
+            SET_RANDOM.invokeExact(match, (Object) random);
+            PLAY_MATCH.invokeExact(match);
+            return (Object) GET_WINNER.invokeExact(match);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code new TableTennisTournament(players, numTables).startTournament()} */
+    static void playTournament(ArrayList<Object> players, int numTables) {
+        try {
+            Object tournament = (Object) NEW_TOURNAMENT.invokeExact((Object) players, numTables);
+            START_TOURNAMENT.invokeExact(tournament);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code new BatchMatchEvaluator(vectorised)} */
+    static Object newBatchEvaluator(boolean vectorised) {
+        try {
+            return (Object) NEW_BATCH.invokeExact(vectorised);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code evaluator.playMatches(p1Skills, p2Skills, scores, count, random)} */
+    static void playMatches(Object evaluator, float[] p1Skills, float[] p2Skills, int[] scores, int count, RandomGenerator random) {
+        try {
+            PLAY_MATCHES.invokeExact(evaluator, (Object) p1Skills, (Object) p2Skills, (Object) scores, count, (Object) random);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code new RatingService(capacity)} */
+    static Object newRatingService(int capacity) {
+        try {
+            return (Object) NEW_RATINGS.invokeExact(capacity);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /** {@code ratings.update(winner, loser)} */
+    static void updateRatings(Object ratings, int winner, int loser) {
+        try {
+            UPDATE_RATINGS.invokeExact(ratings, winner, loser);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Simulation class not on the classpath: " + name, e);
+        }
+    }
+
+    private static MethodHandle findStatic(Class<?> owner, String name, MethodType type) {
+        try {
+            return LOOKUP.findStatic(owner, name, type).asType(type.erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle findVirtual(Class<?> owner, String name, MethodType type) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(owner, name, type);
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> owner, MethodType type) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(owner, type);
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
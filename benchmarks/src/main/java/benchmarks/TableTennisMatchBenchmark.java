@@ -0,0 +1,62 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code new TableTennisMatch(pair).playMatch()}, cycling through the first-round pairs of a field of {@code numPlayers}
+ * (the pairs are {@code subList} views of the draw), decided by each
+ * {@code MatchEngine}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableTennisMatchBenchmark {
+    @Param({"4", "64", "1024", "65536"})
+    public int numPlayers;
+
+    @Param({"Standard", "Fast", "Rally"})
+    public String engine;
+
+    private List<List<Object>> pairs;
+    private Object matchEngine;
+    private SplittableRandom random;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        Path roster = Rosters.write(this.numPlayers, 42);
+        ArrayList<Object> players = Simulation.fetch(roster.toString(), this.numPlayers);
+        this.pairs = new ArrayList<List<Object>>();
+        for (int i = 0; i < players.size(); i += 2) {
+            this.pairs.add(players.subList(i, i + 2));
+        }
+        this.matchEngine = Simulation.engine(this.engine);
+        this.random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public Object playMatch() {
+        int i = this.next;
+        this.next = (i + 1) % this.pairs.size();
+        return Simulation.playMatch(this.pairs.get(i), this.matchEngine, this.random);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TableTennisRound.playRound}, cycling through the first-round pairs of a field of {@code numPlayers}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableTennisRoundBenchmark {
+    @Param({"4", "64", "1024", "65536"})
+    public int numPlayers;
+
+    private Object[] players;
+    private SplittableRandom random;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        Path roster = Rosters.write(this.numPlayers, 42);
+        ArrayList<Object> fetched = Simulation.fetch(roster.toString(), this.numPlayers);
+        this.players = fetched.toArray();
+        this.random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public Object playRound() {
+        int i = this.next;
+        this.next = (i + 2) % this.players.length;
+        return Simulation.playRound(this.players[i], this.players[i + 1], this.random);
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full knock-out bracket through {@code TableTennisTournament}, built with the number of tables instead of user input
+ * so there is no prompt and no pause between rounds. Console output is discarded while the benchmark runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableTennisTournamentBenchmark {
+    @Param({"4", "64", "1024", "65536"})
+    public int numPlayers;
+
+    private ArrayList<Object> players;
+    private int numTables;
+    private PrintStream console;
+
+    @Setup
+    public void setup() throws Exception {
+        Path roster = Rosters.write(this.numPlayers, 42);
+        this.players = Simulation.fetch(roster.toString(), this.numPlayers);
+        this.numTables = Math.min(8, this.numPlayers / 2);
+        this.console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(this.console);
+    }
+
+    @Benchmark
+    public void playTournament() {
+        Simulation.playTournament(this.players, this.numTables);
+    }
+}
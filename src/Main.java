@@ -1,14 +1,24 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 
 /**
  * The {@code Main} class is used when the program is run and is responsible for creating getting the number of players
  * and tournament creation.
  * <p>
- *    A user will input a number of players to take place in the tournament, which must be an even integer and follow
- *    the pattern {@code 4, 8, 16, 32, 64, 128, ...}. Follwing a valid input, the simulation is begun by the
- *    instantiation of {@link TableTennisTournament}.
+ *    A user will input a number of players to take place in the tournament, which must be a whole number of at least 2
+ *    (if it is not a power of 2, some players are given a bye in the first round). Follwing a valid input, the
+ *    simulation is begun by the instantiation of {@link TableTennisTournament}.
+ * </p>
+ * <p>
+ *    When run with command line arguments (e.g. {@code --players 64 --tables 8 --seed 1}), no input is asked for and the
+ *    simulation is run straight away, without pausing between rounds (see {@link SimulationConfig#USAGE}).
  * </p>
  */
 public class Main {
@@ -32,9 +42,18 @@ public class Main {
      *     A {@code while} loop is used to keep getting the number of players, until a valid input is made and the attribute
      *     {@link Main#numPlayers} is no longer equal to {@code 0}.
      * </p>
-     * @param args default
+     * <p>
+     *     If any arguments are given, they are read into a {@link SimulationConfig} and the simulation is run using
+     *     {@link Main#runSimulation(SimulationConfig)} instead.
+     * </p>
+     * @param args none to run interactively, or the options of {@link SimulationConfig#USAGE}
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            runBatch(args);
+            return;
+        }
+
         System.out.println("Table Tennis Simulation\n");
 
         while (numPlayers == 0) {
@@ -53,15 +72,15 @@ public class Main {
     /**
      * A method used to get a number of players from the user (using {@link Scanner}).
      * <p>
-     *     If the user does input a valid number of players ({@code 4, 8, 16, 32, ...}), then this will be returned
+     *     If the user does input a valid number of players (at least 2), then this will be returned
      *     and the loop in {@link Main#main(String[])} will end. However, if the input is invalid then {@code 0} will
      *     be returned and the loop will continue, running this method again.
      * </p>
-     * @return number of players, either a valid number ({@code 4, 8, 16, 32, ...}) or 0
+     * @return number of players, either a valid number (at least 2) or 0
      * (while loop in {@link Main#main(String[])} will continue).
      */
     private static int numPlayersInput() {
-        System.out.println("Input the number of players (e.g. 4, 8, 16, 32, ...)");
+        System.out.println("Input the number of players (at least 2, e.g. 4, 8, 16, 32, ...)");
         int numInput = 0;
 
         try {
@@ -71,20 +90,224 @@ public class Main {
             System.out.println("Invalid input, must be a whole positive number.\n");
             return 0;
         } finally {
-            if (numInput < 4) {
-                System.out.println("Invalid input, must be a valid number of pairs (4, 8, 16, ...).\n");
+            if (numInput < 2 || numInput > BracketTree.MAX_PLAYERS) {
+                System.out.println("Invalid input, must be a valid number of players (at least 2).\n");
                 numInput = 0; // this is done because you cannot return here
-            } else {
-                float knockoutPairs = (float) (Math.log(numInput) / Math.log(2));
+            }
+        }
 
-                if ((knockoutPairs % 1) != 0) {
-                    System.out.println("Invalid input, must be a valid number of pairs (4, 8, 16, ...).\n");
-                    numInput = 0; // this is done because you cannot return here
+        return numInput;
+    }
+
+    /**
+     * Runs the simulation from command line arguments, without asking for any input. If the arguments are invalid, the
+     * problem and the usage are output and the program exits with status {@code 2}.
+     * @param args the command line arguments.
+     */
+    private static void runBatch(String[] args) {
+        SimulationConfig config;
+        try {
+            if (Arrays.asList(args).contains("--help")) {
+                System.out.println(SimulationConfig.USAGE);
+                return;
+            }
+            config = SimulationConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + "\n");
+            System.out.println(SimulationConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (config.getNumWorkers() > 0) {
+            if (!runSharded(config)) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        ResultSink sink = config.getSink();
+        if (config.getResultsPath() != null) {
+            try {
+                sink = new MultiResultSink(sink, ResultStore.open(config.getResultsPath()));
+            } catch (IOException e) {
+                System.out.println("Unexpected error:\n" + e);
+                System.exit(1);
+                return;
+            }
+        }
+        if (!(sink instanceof QuietResultSink)) { // write the matches on another thread, so the tables never wait
+            sink = new AsyncResultSink(sink);
+        }
+        RatingService ratings = null;
+        if (config.getRatingsPath() != null) {
+            try {
+                Path ratingsFile = Paths.get(config.getRatingsPath());
+                ratings = Files.exists(ratingsFile) ? RatingService.load(ratingsFile, RatingService.DEFAULT_CAPACITY) : new RatingService();
+            } catch (IOException e) {
+                System.out.println("Unexpected error:\n" + e);
+                System.exit(1);
+                return;
+            }
+            sink = new MultiResultSink(sink, ratings); // rated by the tables, so the ratings never wait for the output
+        }
+        GoldenReplay golden = null;
+        GoldenReplay expected = null;
+        if (config.getGoldenPath() != null) {
+            try {
+                Path goldenFile = Paths.get(config.getGoldenPath());
+                if (Files.exists(goldenFile)) {
+                    expected = GoldenReplay.read(goldenFile);
+                    expected.applyTo(config);
+                } else if (config.getSeed() == null) {
+                    config.setSeed(new SplittableRandom().nextLong()); // needed to replay the same matches
                 }
+                golden = new GoldenReplay(config);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Unexpected error:\n" + e);
+                System.exit(1);
+                return;
             }
+            sink = new MultiResultSink(sink, golden);
         }
+        config.setSink(sink);
 
-        return numInput;
+        if (config.getMetricsPeriod() > 0) {
+            SimulationMetrics.INSTANCE.setEnabled(true);
+            SimulationMetrics.register();
+            SimulationMetrics.INSTANCE.startSnapshots(config.getMetricsPeriod(), System.err);
+        }
+
+        TableTennisPlayer winner;
+        try {
+            winner = runSimulation(config);
+        } finally {
+            sink.close();
+        }
+
+        if (ratings != null) {
+            try {
+                ratings.save(Paths.get(config.getRatingsPath()));
+            } catch (IOException e) {
+                System.out.println("Unexpected error:\n" + e);
+            }
+        }
+
+        boolean different = false;
+        if (golden != null && winner != null) {
+            if (expected != null) {
+                different = golden.verify(expected) > 0;
+            } else {
+                try {
+                    golden.write(Paths.get(config.getGoldenPath()));
+                } catch (IOException e) {
+                    System.out.println("Unexpected error:\n" + e);
+                }
+            }
+        }
+
+        if (config.getMetricsPeriod() > 0) {
+            SimulationMetrics.INSTANCE.stopSnapshots();
+            System.err.println(SimulationMetrics.INSTANCE.snapshot());
+        }
+        if (winner == null || different) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a batch of tournaments over the same players on worker processes ({@link ShardCoordinator}), and outputs how
+     * many tournaments each player won, starting with the player who won the most.
+     * @param config the settings of the batch.
+     * @return {@code true} if every tournament was played.
+     */
+    private static boolean runSharded(SimulationConfig config) {
+        ShardCoordinator coordinator = new ShardCoordinator(config); // gives the config a seed if it has none
+        ArrayList<TableTennisPlayer> players = GetPlayerData.fetch(config);
+        if (players == null) {
+            return false;
+        }
+
+        long[] titles = coordinator.run();
+        if (titles == null) {
+            return false;
+        }
+
+        Integer[] order = new Integer[titles.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(titles[b], titles[a]));
+
+        StringBuilder output = new StringBuilder();
+        output.append(config.getNumTournaments()).append(" tournaments played by ").append(config.getNumWorkers()).append(" workers");
+        if (coordinator.getNumFailures() > 0) {
+            output.append(" (").append(coordinator.getNumFailures()).append(" replaced after failing)");
+        }
+        output.append(", seed ").append(config.getSeed()).append(":\n");
+        for (int i : order) {
+            if (titles[i] == 0) {
+                break;
+            }
+            output.append(String.format("%-30s %d (%.2f%%)%n", players.get(i).getFirstName() + " " + players.get(i).getLastName(), titles[i], 100.0 * titles[i] / config.getNumTournaments()));
+        }
+        System.out.print(output);
+        return true;
+    }
+
+    /**
+     * Runs a whole simulation from a {@link SimulationConfig}, without any user input: the players are selected from the
+     * roster, and the tournament is played and output as set in the config.
+     * <p>
+     *     If the config has a checkpoint to resume from, the seed, roster, number of players and match engine are taken
+     *     from the checkpoint, and only the rounds left are played and output.
+     * </p>
+     * @param config the settings of the simulation.
+     * @return the player who won the tournament, or {@code null} if the players could not be fetched or an error was
+     * encountered.
+     */
+    public static TableTennisPlayer runSimulation(SimulationConfig config) {
+        TournamentCheckpoint checkpoint = null;
+        if (config.getResumePath() != null) {
+            try {
+                checkpoint = TournamentCheckpoint.read(Paths.get(config.getResumePath()));
+                checkpoint.applyTo(config);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Unexpected error:\n" + e);
+                return null;
+            }
+            if (config.getCheckpointPath() == null) {
+                config.setCheckpointPath(config.getResumePath());
+            }
+        } else if (config.getCheckpointPath() != null && config.getSeed() == null) {
+            config.setSeed(new SplittableRandom().nextLong()); // needed to carry on with the same results
+        }
+
+        ArrayList<TableTennisPlayer> players = GetPlayerData.fetch(config);
+        if (players == null) {
+            return null;
+        }
+
+        if (config.getGroupSize() > 0) {
+            GroupStageTournament tournament = new GroupStageTournament(players, config);
+            tournament.startTournament();
+            return tournament.getWinner();
+        }
+        if (config.getSwissRounds() > 0) {
+            SwissTournament tournament = new SwissTournament(players, config);
+            tournament.startTournament();
+            return tournament.getWinner();
+        }
+
+        TableTennisTournament tournament;
+        try {
+            tournament = checkpoint == null ? new TableTennisTournament(players, config) : new TableTennisTournament(players, config, checkpoint);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unexpected error:\n" + e);
+            return null;
+        }
+        tournament.startTournament();
+        return tournament.getWinner();
     }
 
     /**
@@ -5,6 +5,10 @@
  * @see TableTennisPlayer
  */
 public abstract class SportPlayer {
+    /**
+     * An integer identifying the player in the roster they were read from, or {@code -1} if not known.
+     */
+    private final int id;
     /**
      * A string containing a players first name.
      */
@@ -18,9 +22,10 @@ public abstract class SportPlayer {
      */
     private final int age;
     /**
-     * The average skill level of this player, determine by the unique attributes for different sport players.
+     * The average skill level of this player, determine by the unique attributes for different sport players. This is
+     * set by each sport player's {@link SportPlayer#calculateAverageSkill()}.
      */
-    private float averageSkill;
+    protected float averageSkill;
 
     /**
      * A basic constructor for setting the different shared attributes of a sports player.
@@ -29,11 +34,32 @@ public abstract class SportPlayer {
      * @param age integer for age.
      */
     public SportPlayer(String firstName, String lastName, int age) {
+        this(-1, firstName, lastName, age);
+    }
+
+    /**
+     * A basic constructor for setting the different shared attributes of a sports player, including the id of the
+     * player in the roster.
+     * @param id integer identifying the player in the roster.
+     * @param firstName string containing first name.
+     * @param lastName string containing last name.
+     * @param age integer for age.
+     */
+    public SportPlayer(int id, String firstName, String lastName, int age) {
+        this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
         this.age = age;
     }
 
+    /**
+     * A simple getter method to return the private attribute {@code id}.
+     * @return players id in the roster, or {@code -1} if not known.
+     */
+    public int getId() {
+        return this.id;
+    }
+
     /**
      * A simple getter method to return the private attribute {@code firstName}.
      * @return players first name.
@@ -59,7 +85,7 @@ public abstract class SportPlayer {
     }
 
     /**
-     * A simple getter method to return the private attribute {@code averageSkill}.
+     * A simple getter method to return the attribute {@code averageSkill}.
      * @return players average skill level
      */
     public float getAverageSkill() {
@@ -0,0 +1,331 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class implements the {@link ResultSink} interface by handing events to a single writer thread, which passes them
+ * on to another sink (e.g. a {@link PrintResultSink}) in batches.
+ * <p>
+ *     Events are put into a ring buffer with a fixed number of slots, which any number of tables can add to at once
+ *     without taking a lock. Each slot has a sequence number saying whether it is free to be written or ready to be read:
+ * </p>
+ * <ul>
+ *     <li>A table claims the next slot by moving the tail forward (compare and set), stores its event and then marks
+ *     the slot as ready.</li>
+ *     <li>The writer reads every ready slot in order, marks each as free again for the next time round the ring, and
+ *     flushes the other sink once there are no more ready slots, so a burst of matches is written in one go.</li>
+ * </ul>
+ * <p>
+ *     If the ring is full, tables wait for the writer to free a slot, so no events are lost and memory use stays fixed.
+ *     The writer parks while the ring is empty.
+ * </p>
+ * @see PrintResultSink
+ */
+public class AsyncResultSink implements ResultSink {
+    /**
+     * The number of slots in the ring if not given.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+    /**
+     * How long the writer parks for while the ring is empty, in nanoseconds.
+     */
+    private static final long IDLE_PARK = 200_000;
+
+    /**
+     * The sink the events are passed on to, only used by the writer.
+     */
+    private final ResultSink sink;
+    /**
+     * The events in the ring.
+     */
+    private final AtomicReferenceArray<Object> slots;
+    /**
+     * The sequence number of each slot. Equal to the position to be written next when free, and to that position plus 1
+     * once written.
+     */
+    private final AtomicLongArray sequences;
+    /**
+     * Used to find the slot of a position ({@code position & mask}), as the number of slots is a power of 2.
+     */
+    private final int mask;
+    /**
+     * The next position to be claimed by a table.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The position up to which the writer has read and passed on every event, and flushed the other sink.
+     */
+    private final AtomicLong flushed = new AtomicLong();
+    /**
+     * The thread passing events on to the other sink.
+     */
+    private final Thread writer;
+    /**
+     * Set once the sink is closed, so the writer stops once the ring is empty.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates the sink with {@link AsyncResultSink#DEFAULT_CAPACITY} slots, and starts the writer.
+     * @param sink the sink to pass the events on to.
+     */
+    public AsyncResultSink(ResultSink sink) {
+        this(sink, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates the sink and starts the writer.
+     * @param sink the sink to pass the events on to.
+     * @param capacity the number of slots in the ring, rounded up to a power of 2.
+     */
+    public AsyncResultSink(ResultSink sink, int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity, must be from 1 to 2^30.");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.sink = sink;
+        this.slots = new AtomicReferenceArray<Object>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+
+        this.writer = new Thread(this::write, "Result writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Adds the start of a round to the ring.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round, which will not be changed.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+        this.publish(new RoundStarted(round, pairings));
+    }
+
+    /**
+     * Adds a match to the ring.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public void matchPlayed(TableTennisMatch match) {
+        this.publish(match);
+    }
+
+    /**
+     * Adds the winner of the tournament to the ring.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public void tournamentWon(TableTennisPlayer winner) {
+        this.publish(winner);
+    }
+
+    /**
+     * Adds the standings of a group stage to the ring.
+     * @param standings the players of each group, from first place to last, which will not be changed.
+     */
+    @Override
+    public void groupsComplete(List<List<TableTennisPlayer>> standings) {
+        this.publish(new GroupsComplete(standings));
+    }
+
+    /**
+     * Adds a bye to the ring.
+     * @param round the round, from 1.
+     * @param player the player given the bye.
+     */
+    @Override
+    public void byeGiven(int round, TableTennisPlayer player) {
+        this.publish(new ByeGiven(round, player));
+    }
+
+    /**
+     * Waits until every event added so far has been passed on to the other sink, and the other sink has been flushed.
+     */
+    @Override
+    public void flush() {
+        long target = this.tail.get();
+        while (this.flushed.get() < target && this.writer.isAlive()) {
+            LockSupport.unpark(this.writer);
+            LockSupport.parkNanos(IDLE_PARK / 4);
+        }
+    }
+
+    /**
+     * Passes on every event left in the ring, then stops the writer and closes the other sink.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.sink.close();
+    }
+
+    /**
+     * Claims the next slot of the ring and stores an event in it, waiting for a slot to be free if the ring is full.
+     * @param event the event.
+     */
+    private void publish(Object event) {
+        if (this.closed) {
+            throw new IllegalStateException("The result sink has been closed.");
+        }
+
+        long position = this.tail.get();
+        while (true) {
+            int slot = (int) position & this.mask;
+            long difference = this.sequences.get(slot) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break; // claimed
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                LockSupport.unpark(this.writer); // the ring is full, so let the writer run
+                Thread.yield();
+                position = this.tail.get();
+            } else {
+                position = this.tail.get(); // claimed by another table
+            }
+        }
+
+        int slot = (int) position & this.mask;
+        this.slots.lazySet(slot, event);
+        this.sequences.set(slot, position + 1); // ready to be read, after the event is visible
+    }
+
+    /**
+     * The work of the writer thread: reads the ready slots in order, passing each event on, and flushes the other sink
+     * whenever the ring is empty.
+     */
+    private void write() {
+        long head = 0;
+        boolean unflushed = false;
+        while (true) {
+            int slot = (int) head & this.mask;
+            if (this.sequences.get(slot) == head + 1) {
+                Object event = this.slots.get(slot);
+                this.slots.lazySet(slot, null);
+                this.sequences.set(slot, head + this.mask + 1); // free for the next time round the ring
+                head++;
+                try {
+                    this.dispatch(event);
+                } catch (RuntimeException e) {
+                    System.out.println("Unexpected error: " + e);
+                }
+                unflushed = true;
+                continue;
+            }
+
+            if (unflushed) {
+                this.sink.flush();
+                unflushed = false;
+            }
+            this.flushed.set(head);
+            if (this.closed && head == this.tail.get()) {
+                return;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK);
+        }
+    }
+
+    /**
+     * Passes an event on to the other sink.
+     * @param event the event, read from the ring.
+     */
+    private void dispatch(Object event) {
+        if (event instanceof TableTennisMatch) {
+            this.sink.matchPlayed((TableTennisMatch) event);
+        } else if (event instanceof RoundStarted) {
+            RoundStarted round = (RoundStarted) event;
+            this.sink.roundStarted(round.round, round.pairings);
+        } else if (event instanceof ByeGiven) {
+            ByeGiven bye = (ByeGiven) event;
+            this.sink.byeGiven(bye.round, bye.player);
+        } else if (event instanceof GroupsComplete) {
+            this.sink.groupsComplete(((GroupsComplete) event).standings);
+        } else {
+            this.sink.tournamentWon((TableTennisPlayer) event);
+        }
+    }
+
+    /**
+     * The start of a round, stored in the ring until it is passed on.
+     */
+    private static class RoundStarted {
+        /**
+         * The round, from 1.
+         */
+        private final int round;
+        /**
+         * The pairs of players facing each other in the round.
+         */
+        private final List<List<TableTennisPlayer>> pairings;
+
+        /**
+         * Creates the event.
+         * @param round the round, from 1.
+         * @param pairings the pairs of players facing each other in the round.
+         */
+        RoundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+            this.round = round;
+            this.pairings = pairings;
+        }
+    }
+
+    /**
+     * A bye given to a player, stored in the ring until it is passed on.
+     */
+    private static class ByeGiven {
+        /**
+         * The round, from 1.
+         */
+        private final int round;
+        /**
+         * The player given the bye.
+         */
+        private final TableTennisPlayer player;
+
+        /**
+         * Creates the event.
+         * @param round the round, from 1.
+         * @param player the player given the bye.
+         */
+        ByeGiven(int round, TableTennisPlayer player) {
+            this.round = round;
+            this.player = player;
+        }
+    }
+
+    /**
+     * The standings of a group stage, stored in the ring until they are passed on.
+     */
+    private static class GroupsComplete {
+        /**
+         * The players of each group, from first place to last.
+         */
+        private final List<List<TableTennisPlayer>> standings;
+
+        /**
+         * Creates the event.
+         * @param standings the players of each group, from first place to last.
+         */
+        GroupsComplete(List<List<TableTennisPlayer>> standings) {
+            this.standings = standings;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class indexes every player of a {@link PlayerStore} by their attributes and skill, so a field can be picked from a
+ * roster of millions of players without looking at every player again (see {@link GetPlayerData#fetch(SimulationConfig)}).
+ * <p>
+ *     The index is built once, in 2 parts:
+ * </p>
+ * <ul>
+ *     <li>A bitmap index for each attribute (the 6 skill attributes and age), with a bit for each player. As the
+ *     attributes only take a few values, the index is range-encoded: there is a bitmap for each value {@code v} of the
+ *     players with the attribute at least {@code v}. Any comparison with a value is then a single bitmap, or the bits
+ *     not in it (e.g. {@code age < 30} is every player not in the bitmap for 30), and a filter is the bitmaps of its
+ *     conditions combined a word (64 players) at a time.</li>
+ *     <li>The players in order of average skill, best first, sorted with {@link Arrays#parallelSort(long[])}. The best
+ *     players matching a filter are found by walking this order and checking the filter's bitmap, which stops once
+ *     enough players have been found.</li>
+ * </ul>
+ * <p>
+ *     A filter is a list of conditions separated by commas, each an attribute ({@code serve_power}, {@code serve_skill},
+ *     {@code spin}, {@code forehand}, {@code backhand}, {@code fitness} or {@code age}), a comparison ({@code >=},
+ *     {@code >}, {@code <=}, {@code <} or {@code =}) and a whole number, e.g. {@code "spin>=8,age<30"}. A player matches
+ *     the filter if they match every condition.
+ * </p>
+ * @see SeededDraw
+ * @see PlayerStore
+ */
+public class AttributeIndex {
+    /**
+     * The column of age, after the 6 skill attributes of {@link PlayerStore}.
+     */
+    private static final int AGE = PlayerStore.NUM_ATTRIBUTES;
+    /**
+     * The names of the columns in a filter, in the order of the columns.
+     */
+    private static final String[] NAMES = {"serve_power", "serve_skill", "spin", "forehand", "backhand", "fitness", "age"};
+    /**
+     * A single condition of a filter.
+     */
+    private static final Pattern CONDITION = Pattern.compile("\\s*([a-z_]+)\\s*(>=|<=|>|<|=)\\s*(-?\\d+)\\s*");
+
+    /**
+     * The players indexed.
+     */
+    private final PlayerStore store;
+    /**
+     * The number of {@code long} words in each bitmap.
+     */
+    private final int numWords;
+    /**
+     * The smallest value of each column.
+     */
+    private final int[] minValues;
+    /**
+     * The bitmaps of each column, where {@code atLeast[column][v - minValues[column]]} has the players with the column at
+     * least {@code v}.
+     */
+    private final long[][][] atLeast;
+    /**
+     * The position of every player in the store, from the highest average skill to the lowest (and in the order of the
+     * store for the same skill).
+     */
+    private final int[] bySkill;
+
+    /**
+     * Builds the index over every player of a store.
+     * @param store the players.
+     */
+    public AttributeIndex(PlayerStore store) {
+        this.store = store;
+        int numPlayers = store.size();
+        this.numWords = (numPlayers + 63) >>> 6;
+        this.minValues = new int[AGE + 1];
+        this.atLeast = new long[AGE + 1][][];
+        for (int column = 0; column <= AGE; column++) {
+            this.indexColumn(column);
+        }
+
+        long[] keys = new long[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            int bits = Float.floatToIntBits(store.getSkill(i)); // in the same order as the skills, as they are not negative
+            keys[i] = ((long) (Integer.MAX_VALUE - bits) << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+        this.bySkill = new int[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            this.bySkill[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Builds the range-encoded bitmaps of a column: first a bitmap of the players with each value, then each is combined
+     * with the bitmaps of the values above it.
+     * @param column the column, from 0 to {@link AttributeIndex#AGE}.
+     */
+    private void indexColumn(int column) {
+        int numPlayers = this.store.size();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < numPlayers; i++) {
+            int value = this.value(i, column);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (numPlayers == 0) {
+            min = 0;
+            max = 0;
+        }
+
+        long[][] bitmaps = new long[max - min + 1][this.numWords];
+        for (int i = 0; i < numPlayers; i++) {
+            bitmaps[this.value(i, column) - min][i >>> 6] |= 1L << i;
+        }
+        for (int value = bitmaps.length - 2; value >= 0; value--) {
+            for (int word = 0; word < this.numWords; word++) {
+                bitmaps[value][word] |= bitmaps[value + 1][word];
+            }
+        }
+        this.minValues[column] = min;
+        this.atLeast[column] = bitmaps;
+    }
+
+    /**
+     * Gets the value of a column for a player.
+     * @param index the position of the player in the store.
+     * @param column the column.
+     * @return the value.
+     */
+    private int value(int index, int column) {
+        return column == AGE ? this.store.getAge(index) : this.store.getAttribute(index, column);
+    }
+
+    /**
+     * A simple getter method to return the players indexed.
+     * @return the store.
+     */
+    public PlayerStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Gets the players matching a filter.
+     * @param filter the conditions, e.g. {@code "spin>=8,age<30"}, or {@code null} for every player.
+     * @return a bitmap with a bit set for each matching player, by position in the store.
+     * @throws IllegalArgumentException if the filter is not valid.
+     */
+    public long[] select(String filter) {
+        long[] selected = new long[this.numWords];
+        Arrays.fill(selected, -1L);
+        if (filter != null) {
+            for (String condition : filter.split(",")) {
+                this.apply(selected, condition);
+            }
+        }
+        int extra = this.numWords * 64 - this.store.size();
+        if (extra > 0) {
+            selected[this.numWords - 1] &= -1L >>> extra; // no players past the end
+        }
+        return selected;
+    }
+
+    /**
+     * Removes the players not matching a condition from a bitmap.
+     * @param selected the bitmap.
+     * @param condition the condition, e.g. {@code "age < 30"}.
+     * @throws IllegalArgumentException if the condition is not valid.
+     */
+    private void apply(long[] selected, String condition) {
+        Matcher matcher = CONDITION.matcher(condition);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid filter condition: " + condition.trim());
+        }
+        int column = Arrays.asList(NAMES).indexOf(matcher.group(1));
+        if (column < 0) {
+            throw new IllegalArgumentException("Invalid filter attribute, must be one of " + String.join(", ", NAMES) + ": " + matcher.group(1));
+        }
+        int value = Integer.parseInt(matcher.group(3));
+
+        switch (matcher.group(2)) {
+            case ">=": this.and(selected, column, value, false); break;
+            case ">": this.and(selected, column, value + 1, false); break;
+            case "<": this.and(selected, column, value, true); break;
+            case "<=": this.and(selected, column, value + 1, true); break;
+            default: // =
+                this.and(selected, column, value, false);
+                this.and(selected, column, value + 1, true);
+        }
+    }
+
+    /**
+     * Keeps only the players in a bitmap with a column at least (or less than) a value.
+     * @param selected the bitmap.
+     * @param column the column.
+     * @param value the value.
+     * @param below {@code true} to keep the players with the column less than the value instead.
+     */
+    private void and(long[] selected, int column, int value, boolean below) {
+        long[][] bitmaps = this.atLeast[column];
+        int offset = value - this.minValues[column];
+        if (offset <= 0) { // every player is at least the value
+            if (below) {
+                Arrays.fill(selected, 0L);
+            }
+            return;
+        }
+        if (offset >= bitmaps.length) { // no player is at least the value
+            if (!below) {
+                Arrays.fill(selected, 0L);
+            }
+            return;
+        }
+
+        long[] bitmap = bitmaps[offset];
+        for (int word = 0; word < this.numWords; word++) {
+            selected[word] &= below ? ~bitmap[word] : bitmap[word];
+        }
+    }
+
+    /**
+     * Counts the players in a bitmap.
+     * @param selected the bitmap.
+     * @return the number of players.
+     */
+    public static int count(long[] selected) {
+        int count = 0;
+        for (long word : selected) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the players in a bitmap with the highest average skill, by walking the players in order of skill.
+     * @param selected the bitmap.
+     * @param count the number of players wanted.
+     * @return the positions of the players in the store, best first, or fewer if not enough players are in the bitmap.
+     */
+    public int[] best(long[] selected, int count) {
+        int[] best = new int[count];
+        int found = 0;
+        for (int i = 0; i < this.bySkill.length && found < count; i++) {
+            int player = this.bySkill[i];
+            if ((selected[player >>> 6] & (1L << player)) != 0) {
+                best[found++] = player;
+            }
+        }
+        return found == count ? best : Arrays.copyOf(best, found);
+    }
+
+    /**
+     * Picks players in a bitmap at random (reservoir sampling over the bits set), in a random order.
+     * @param selected the bitmap.
+     * @param count the number of players wanted.
+     * @param random the generator used to pick the players.
+     * @return the positions of the players in the store, or fewer if not enough players are in the bitmap.
+     */
+    public int[] sample(long[] selected, int count, RandomGenerator random) {
+        int[] picked = new int[count];
+        long seen = 0;
+        for (int word = 0; word < selected.length; word++) {
+            long bits = selected[word];
+            while (bits != 0) {
+                int player = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (seen < count) {
+                    picked[(int) seen] = player;
+                } else {
+                    long position = random.nextLong(seen + 1);
+                    if (position < count) {
+                        picked[(int) position] = player;
+                    }
+                }
+                seen++;
+            }
+        }
+        if (seen < count) {
+            return Arrays.copyOf(picked, (int) seen);
+        }
+
+        for (int i = count - 1; i > 0; i--) { // the reservoir keeps players close to the order of the store
+            int randInt = random.nextInt(i + 1);
+            int temp = picked[i];
+            picked[i] = picked[randInt];
+            picked[randInt] = temp;
+        }
+        return picked;
+    }
+}
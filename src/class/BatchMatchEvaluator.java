@@ -0,0 +1,205 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * This class decides a large batch of matches at once, from arrays of the players' average skills, instead of creating
+ * and playing a {@link TableTennisMatch} for each one. It is used when the same kind of match is played millions of
+ * times, such as by a {@link MonteCarloSimulation}.
+ * <p>
+ *     The matches are decided in chunks of {@value #CHUNK}. For each chunk:
+ * </p>
+ * <ul>
+ *     <li>The chance of player 1 winning a round is looked up for each match, from the exact chances worked out by
+ *     {@link FastMatchEngine}, as a 31-bit threshold.</li>
+ *     <li>A random number is drawn for every round of every match ({@value #MAX_ROUNDS} each, the most a match can
+ *     take), 2 from each {@code nextLong()}.</li>
+ *     <li>All of the matches are then played in lockstep, a round at a time: a round is won by player 1 if its random
+ *     number is below the threshold, and only counts while neither player has won {@value MatchScore#ROUNDS_TO_WIN}
+ *     rounds.</li>
+ * </ul>
+ * <p>
+ *     The rounds of a match are independent and each has the same chance as a round of {@link TableTennisRound}, so the
+ *     scores have the same distribution as {@link StandardMatchEngine}. The lockstep rounds have no branches, and when the
+ *     {@code jdk.incubator.vector} module is available (the JVM is started with
+ *     {@code --add-modules jdk.incubator.vector}) they are played by {@link VectorMatchKernel}, deciding as many matches
+ *     at once as fit in the CPU's vector registers (16 with AVX-512). Otherwise the same rounds are played a match at a
+ *     time, giving the same scores from the same random numbers. Matches between players whose skill is not a whole
+ *     number from 0 to 10 are played by {@link StandardMatchEngine}.
+ * </p>
+ * <p>
+ *     An evaluator keeps its thresholds and random numbers between chunks, so it should only be used by one thread at a
+ *     time.
+ * </p>
+ * @see VectorMatchKernel
+ * @see FastMatchEngine
+ */
+public class BatchMatchEvaluator {
+    /**
+     * The most rounds a match can take.
+     */
+    public static final int MAX_ROUNDS = 2 * MatchScore.ROUNDS_TO_WIN - 1;
+    /**
+     * The number of matches decided together.
+     */
+    public static final int CHUNK = 1024;
+    /**
+     * The name of the module needed by {@link VectorMatchKernel}.
+     */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    /**
+     * A chance of 1, as a 31-bit threshold.
+     */
+    private static final double ONE = 0x1p31;
+    /**
+     * The threshold for a match which is not decided by its rounds, as its players are not in the tables.
+     */
+    private static final int NOT_IN_TABLE = -1;
+    /**
+     * The threshold for player 1 winning a round, {@code [p1Skill * 11 + p2Skill]}.
+     */
+    private static final int[] THRESHOLDS = new int[(FastMatchEngine.MAX_SKILL + 1) * (FastMatchEngine.MAX_SKILL + 1)];
+
+    static {
+        for (int s1 = 0; s1 <= FastMatchEngine.MAX_SKILL; s1++) {
+            for (int s2 = 0; s2 <= FastMatchEngine.MAX_SKILL; s2++) {
+                double chance = FastMatchEngine.getRoundProbability(s1, s2);
+                THRESHOLDS[s1 * (FastMatchEngine.MAX_SKILL + 1) + s2] = (int) Math.min(Math.round(chance * ONE), Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * Whether the rounds are played by {@link VectorMatchKernel}.
+     */
+    private final boolean vectorised;
+    /**
+     * The threshold of each match in the chunk.
+     */
+    private final int[] thresholds = new int[CHUNK];
+    /**
+     * The random number for each round of each match in the chunk, {@code [round * CHUNK + match]}.
+     */
+    private final int[] randoms = new int[MAX_ROUNDS * CHUNK];
+
+    /**
+     * Creates an evaluator, which uses {@link VectorMatchKernel} if it is available.
+     */
+    public BatchMatchEvaluator() {
+        this(true);
+    }
+
+    /**
+     * Creates an evaluator.
+     * @param vectorised {@code true} to use {@link VectorMatchKernel} if it is available, {@code false} to always play
+     *                   the rounds a match at a time.
+     */
+    public BatchMatchEvaluator(boolean vectorised) {
+        this.vectorised = vectorised && isVectorAvailable();
+    }
+
+    /**
+     * Checks whether the {@code jdk.incubator.vector} module has been added to the JVM, so {@link VectorMatchKernel} can
+     * be used.
+     * @return {@code true} if the module is available.
+     */
+    public static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * A simple getter method to return whether the rounds are played by {@link VectorMatchKernel}.
+     * @return {@code true} if the rounds are vectorised.
+     */
+    public boolean isVectorised() {
+        return this.vectorised;
+    }
+
+    /**
+     * Decides a batch of matches.
+     * @param p1Skills Player 1's average skill in each match.
+     * @param p2Skills Player 2's average skill in each match.
+     * @param scores the array to store the score of each match in (see {@link MatchScore}).
+     * @param count the number of matches, from the start of the arrays.
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     */
+    public void playMatches(float[] p1Skills, float[] p2Skills, int[] scores, int count, RandomGenerator random) {
+        if (count > p1Skills.length || count > p2Skills.length || count > scores.length) {
+            throw new IllegalArgumentException("Invalid count, must not be more than the length of the arrays.");
+        }
+
+        for (int start = 0; start < count; start += CHUNK) {
+            int size = Math.min(CHUNK, count - start);
+            this.playChunk(p1Skills, p2Skills, scores, start, size, random);
+        }
+    }
+
+    /**
+     * Decides a chunk of matches.
+     * @param p1Skills Player 1's average skill in each match.
+     * @param p2Skills Player 2's average skill in each match.
+     * @param scores the array to store the score of each match in.
+     * @param start the first match of the chunk.
+     * @param size the number of matches in the chunk.
+     * @param random the generator to take random numbers from.
+     */
+    private void playChunk(float[] p1Skills, float[] p2Skills, int[] scores, int start, int size, RandomGenerator random) {
+        boolean allInTable = true;
+        for (int i = 0; i < size; i++) {
+            float p1Skill = p1Skills[start + i];
+            float p2Skill = p2Skills[start + i];
+            if (FastMatchEngine.inTable(p1Skill) && FastMatchEngine.inTable(p2Skill)) {
+                this.thresholds[i] = THRESHOLDS[(int) p1Skill * (FastMatchEngine.MAX_SKILL + 1) + (int) p2Skill];
+            } else {
+                this.thresholds[i] = NOT_IN_TABLE;
+                allInTable = false;
+            }
+        }
+
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            int offset = round * CHUNK;
+            for (int i = 0; i < size; i += 2) {
+                long bits = random.nextLong();
+                this.randoms[offset + i] = (int) bits >>> 1;
+                this.randoms[offset + i + 1] = (int) (bits >>> 33); // past the end of the chunk if the size is odd
+            }
+        }
+
+        if (this.vectorised) {
+            VectorMatchKernel.playRounds(this.thresholds, this.randoms, scores, start, size);
+        } else {
+            playRounds(this.thresholds, this.randoms, scores, start, 0, size);
+        }
+
+        if (!allInTable) {
+            for (int i = 0; i < size; i++) {
+                if (this.thresholds[i] == NOT_IN_TABLE) {
+                    scores[start + i] = TableTennisMatch.playScore(p1Skills[start + i], p2Skills[start + i], random);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays the rounds of the matches in a chunk one match at a time, the same as {@link VectorMatchKernel} plays them
+     * together. Also used by {@link VectorMatchKernel} for the matches left over once the rest fill whole vectors.
+     * @param thresholds the threshold of each match in the chunk.
+     * @param randoms the random number for each round of each match, {@code [round * CHUNK + match]}.
+     * @param scores the array to store the scores in.
+     * @param start where the chunk starts in the scores.
+     * @param from the first match in the chunk to play.
+     * @param to the match after the last one to play.
+     */
+    static void playRounds(int[] thresholds, int[] randoms, int[] scores, int start, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int threshold = thresholds[i];
+            int p1Wins = 0;
+            int p2Wins = 0;
+            for (int round = 0; round < MAX_ROUNDS; round++) {
+                int open = (((MatchScore.ROUNDS_TO_WIN - 1 - p1Wins) | (MatchScore.ROUNDS_TO_WIN - 1 - p2Wins)) >>> 31) ^ 1;
+                int won = (randoms[round * CHUNK + i] - threshold) >>> 31; // 1 if below the threshold
+                p1Wins += open & won;
+                p2Wins += open & (won ^ 1);
+            }
+            scores[start + i] = MatchScore.of(p1Wins, p2Wins);
+        }
+    }
+}
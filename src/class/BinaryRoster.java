@@ -0,0 +1,314 @@
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is used to read players from a compact binary roster file, which can be created from a {@code JSON} roster
+ * using {@link BinaryRoster#convert(String, String)}.
+ * <p>
+ *     The file is made up of 3 parts:
+ * </p>
+ * <ul>
+ *     <li>A header ({@value #HEADER_SIZE} bytes) - the file type, version, number of players and where the names start.</li>
+ *     <li>A record for each player ({@value #RECORD_SIZE} bytes) - the id, where the names of the player are, the age
+ *     and the 6 skill attributes, each attribute taking a single byte.</li>
+ *     <li>A string table - the first and last name of each player, each stored as its length followed by its
+ *     {@code UTF-8} bytes.</li>
+ * </ul>
+ * <p>
+ *     When opened the file is memory-mapped, and nothing is read until a player is needed. A {@link TableTennisPlayer}
+ *     is only created when a player is asked for by position in the file, so opening a roster of millions of players
+ *     is almost instant and takes almost no memory.
+ * </p>
+ * @see GetPlayerData
+ */
+public class BinaryRoster {
+    /**
+     * The file extension used for binary rosters.
+     */
+    public static final String EXTENSION = ".ttr";
+    /**
+     * The first 4 bytes of every binary roster ({@code "TTRS"}).
+     */
+    private static final int MAGIC = 0x54545253;
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the header at the start of the file.
+     */
+    private static final int HEADER_SIZE = 32;
+    /**
+     * The size of each player record.
+     */
+    private static final int RECORD_SIZE = 16;
+
+    /**
+     * The records of all players.
+     */
+    private final MappedByteBuffer records;
+    /**
+     * The names of all players.
+     */
+    private final MappedByteBuffer strings;
+    /**
+     * The number of players in the roster.
+     */
+    private final int numPlayers;
+
+    /**
+     * Creates the roster from the mapped parts of the file, used by {@link BinaryRoster#open(String)}.
+     * @param records the player records.
+     * @param strings the string table.
+     * @param numPlayers the number of players.
+     */
+    private BinaryRoster(MappedByteBuffer records, MappedByteBuffer strings, int numPlayers) {
+        this.records = records;
+        this.strings = strings;
+        this.numPlayers = numPlayers;
+    }
+
+    /**
+     * Opens a binary roster by memory-mapping the file.
+     * @param rosterFile the path to the binary roster.
+     * @return the roster.
+     * @throws IOException if the file could not be read, or is not a binary roster.
+     */
+    public static BinaryRoster open(String rosterFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(rosterFile), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the whole header has been read
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(rosterFile + " is not a binary roster.");
+            }
+            int numPlayers = header.getInt();
+            header.getInt(); // unused
+            long stringsStart = header.getLong();
+
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) numPlayers * RECORD_SIZE);
+            MappedByteBuffer strings = channel.map(FileChannel.MapMode.READ_ONLY, stringsStart, channel.size() - stringsStart);
+            return new BinaryRoster(records, strings, numPlayers);
+        }
+    }
+
+    /**
+     * Converts a {@code JSON} roster to a binary roster, reading the players one at a time so the {@code JSON} roster can
+     * be any size.
+     * <p>
+     *     The records are written straight to the binary roster, and the names to a temporary file which is added to the
+     *     end once all players have been read. The header is written last, once the number of players is known.
+     * </p>
+     * @param jsonFile the path to the {@code JSON} roster.
+     * @param rosterFile the path of the binary roster to create.
+     * @return the number of players written.
+     * @throws IOException if either file could not be read or written, or a player does not fit the binary format.
+     */
+    public static int convert(String jsonFile, String rosterFile) throws IOException {
+        Path stringsFile = Files.createTempFile("roster-names", ".tmp");
+        int numPlayers = 0;
+
+        try {
+            try (JsonReader jsonReader = new JsonReader(new BufferedReader(new FileReader(jsonFile)));
+                 DataOutputStream records = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rosterFile)));
+                 DataOutputStream strings = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stringsFile)))) {
+                records.write(new byte[HEADER_SIZE]); // filled in once the number of players is known
+
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    ReadPlayerData p = GetPlayerData.readPlayer(jsonReader);
+
+                    records.writeInt(p.id);
+                    records.writeInt(strings.size());
+                    records.writeByte(toByte(p.age));
+                    records.writeByte(toByte(p.serve_power));
+                    records.writeByte(toByte(p.serve_skill));
+                    records.writeByte(toByte(p.spin));
+                    records.writeByte(toByte(p.forehand_power));
+                    records.writeByte(toByte(p.backhand_power));
+                    records.writeByte(toByte(p.fitness));
+                    records.writeByte(0); // padding
+
+                    writeString(strings, p.first_name);
+                    writeString(strings, p.last_name);
+                    if (strings.size() == Integer.MAX_VALUE) { // the size stops counting once it reaches the maximum
+                        throw new IOException("Too many names for a binary roster.");
+                    }
+                    numPlayers++;
+                }
+                jsonReader.endArray();
+            }
+
+            try (FileChannel roster = FileChannel.open(Paths.get(rosterFile), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel names = FileChannel.open(stringsFile, StandardOpenOption.READ)) {
+                long copied = 0;
+                while (copied < names.size()) {
+                    copied += names.transferTo(copied, names.size() - copied, roster);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(stringsFile);
+        }
+
+        try (RandomAccessFile roster = new RandomAccessFile(rosterFile, "rw")) {
+            roster.writeInt(MAGIC);
+            roster.writeInt(VERSION);
+            roster.writeInt(numPlayers);
+            roster.writeInt(0);
+            roster.writeLong(HEADER_SIZE + (long) numPlayers * RECORD_SIZE);
+        }
+
+        return numPlayers;
+    }
+
+    /**
+     * Checks an attribute fits in a single byte, as stored in a record.
+     * @param value the attribute.
+     * @return the attribute as a byte.
+     * @throws IOException if the attribute does not fit.
+     */
+    private static int toByte(int value) throws IOException {
+        if (value < 0 || value > Byte.MAX_VALUE) {
+            throw new IOException("Attribute out of range for a binary roster: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Writes a name to the string table, as its length followed by its {@code UTF-8} bytes.
+     * @param strings the string table.
+     * @param value the name, which may be {@code null} (stored as empty).
+     * @throws IOException if the name could not be written.
+     */
+    private static void writeString(DataOutputStream strings, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        strings.writeShort(Math.min(bytes.length, 0xFFFF));
+        strings.write(bytes, 0, Math.min(bytes.length, 0xFFFF));
+    }
+
+    /**
+     * A simple getter method to return the number of players in the roster.
+     * @return the number of players.
+     */
+    public int size() {
+        return this.numPlayers;
+    }
+
+    /**
+     * Gets the id of a player, as given in the {@code JSON} roster.
+     * @param index the position of the player in the roster, from 0.
+     * @return the id.
+     */
+    public int getId(int index) {
+        return this.records.getInt(recordStart(index));
+    }
+
+    /**
+     * Gets one of the values stored as a byte in a player's record, without creating the player.
+     * @param index the position of the player in the roster, from 0.
+     * @param attribute 0 for age, then 1 to 6 for serve power, serve skill, spin, forehand, backhand and fitness.
+     * @return the value.
+     */
+    public int getAttribute(int index, int attribute) {
+        return this.records.get(recordStart(index) + 8 + attribute);
+    }
+
+    /**
+     * Creates the player at a position in the roster, reading the record and the names from the file.
+     * @param index the position of the player in the roster, from 0.
+     * @return the player.
+     */
+    public TableTennisPlayer getPlayer(int index) {
+        int record = recordStart(index);
+        int nameOffset = this.records.getInt(record + 4);
+        String firstName = this.readString(nameOffset);
+        String lastName = this.readString(nameOffset + 2 + (this.strings.getShort(nameOffset) & 0xFFFF));
+
+        return new TableTennisPlayer(this.records.getInt(record), firstName, lastName,
+                this.records.get(record + 8), this.records.get(record + 9), this.records.get(record + 10), this.records.get(record + 11),
+                this.records.get(record + 12), this.records.get(record + 13), this.records.get(record + 14));
+    }
+
+    /**
+     * Selects a number of different players at random, in a random order, the same as {@link GetPlayerData#fetch(int)}.
+     * <p>
+     *     Positions are picked using Floyd's algorithm, which picks {@code playerCount} different positions without
+     *     looking at the rest of the roster, so only the selected players are ever read.
+     * </p>
+     * @param playerCount the number of players to select.
+     * @param random the generator used to select the players.
+     * @return the players, or {@code null} if the roster does not contain enough players.
+     */
+    public ArrayList<TableTennisPlayer> draw(int playerCount, RandomGenerator random) {
+        if (playerCount > this.numPlayers) {
+            System.out.println("Not enough players in the roster, found " + this.numPlayers + ".");
+            return null;
+        }
+
+        HashSet<Integer> picked = new HashSet<Integer>();
+        int[] order = new int[playerCount];
+        int count = 0;
+        for (int j = this.numPlayers - playerCount; j < this.numPlayers; j++) {
+            int position = random.nextInt(j + 1);
+            if (!picked.add(position)) {
+                position = j; // already picked, and j cannot have been picked yet
+                picked.add(position);
+            }
+            order[count++] = position;
+        }
+
+        for (int i = playerCount - 1; i > 0; i--) { // Floyd's algorithm does not pick in a random order
+            int randInt = random.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[randInt];
+            order[randInt] = temp;
+        }
+
+        ArrayList<TableTennisPlayer> players = new ArrayList<TableTennisPlayer>(playerCount);
+        for (int position : order) {
+            players.add(this.getPlayer(position));
+        }
+        return players;
+    }
+
+    /**
+     * Gets where a player's record starts.
+     * @param index the position of the player in the roster, from 0.
+     * @return the position of the record in {@link BinaryRoster#records}.
+     */
+    private static int recordStart(int index) {
+        return index * RECORD_SIZE;
+    }
+
+    /**
+     * Reads a name from the string table.
+     * @param offset where the name starts in the string table.
+     * @return the name.
+     */
+    private String readString(int offset) {
+        int length = this.strings.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        this.strings.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,306 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class works out the exact chance of each player reaching each round of a knock-out draw, and of winning it,
+ * instead of estimating it from many tournaments ({@link MonteCarloSimulation}).
+ * <p>
+ *     The players are kept in the order given (the same draw {@link TableTennisTournament#drawPlayers()} would make), in
+ *     a {@link BracketTree}, so byes are handled in the same way as a tournament. The chance of a player reaching the
+ *     round after a match is the chance of them reaching the match, times the chance of them beating whoever they meet
+ *     there: the sum, over every player who could come from the other half of the match, of that player reaching the
+ *     match times the chance of beating them ({@link FastMatchEngine#getMatchProbability(int, int)}, the exact chance of
+ *     the {@link TableTennisMatch} model, which depends on which of the 2 is player 1). This is worked out from the
+ *     first round up to the final, for every match of the bracket.
+ * </p>
+ * <p>
+ *     As the chance of winning a match only depends on the players' average skill, a whole number from 0 to 10, the
+ *     players from the other half are added up by skill first, so each player only needs 11 chances rather than one for
+ *     every possible opponent, and the whole bracket takes {@code O(n log n)} steps. The 2 halves of a match do not
+ *     depend on each other, so the large parts of the bracket are worked out at the same time on a
+ *     {@link ForkJoinPool}.
+ * </p>
+ * @see MonteCarloResult
+ * @see FastMatchEngine
+ */
+public class BracketProbability {
+    /**
+     * The number of players in a part of the bracket below which it is worked out by a single task.
+     */
+    private static final int PLAYERS_PER_TASK = 1024;
+    /**
+     * The number of different average skills.
+     */
+    private static final int NUM_SKILLS = FastMatchEngine.MAX_SKILL + 1;
+
+    /**
+     * The players taking part, in the order of the draw.
+     */
+    private final PlayerStore players;
+    /**
+     * The bracket of the draw.
+     */
+    private final BracketTree bracket;
+    /**
+     * The number of knock-out rounds.
+     */
+    private final int numRounds;
+    /**
+     * The average skill of each player, as a whole number.
+     */
+    private final int[] skills;
+    /**
+     * The first player (in the order of the draw) below each node of the bracket.
+     */
+    private final int[] firstPlayers;
+    /**
+     * The player after the last player below each node of the bracket.
+     */
+    private final int[] endPlayers;
+    /**
+     * The chance of each player reaching each round, stored as {@code chances[player * (numRounds + 1) + (round - 1)]}.
+     */
+    private final double[] chances;
+
+    /**
+     * Works out the chances on the common {@link ForkJoinPool}, which uses all the cores of the machine.
+     * @param players {@link ArrayList} of players taking part, in the order of the draw.
+     */
+    public BracketProbability(ArrayList<TableTennisPlayer> players) {
+        this(PlayerStore.of(players), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Works out the chances for players in a {@link PlayerStore}, on a given {@link ForkJoinPool}. The order of the store
+     * is the order of the draw.
+     * <p>
+     *     There must be at least 2 players, and every player's average skill must be a whole number from 0 to 10.
+     * </p>
+     * @param players the players taking part, in the order of the draw.
+     * @param pool the pool to work out the chances on.
+     */
+    public BracketProbability(PlayerStore players, ForkJoinPool pool) {
+        if (players.size() < 2) {
+            throw new IllegalArgumentException("Invalid number of players, must be at least 2.");
+        }
+        this.skills = new int[players.size()];
+        for (int p = 0; p < players.size(); p++) {
+            if (!FastMatchEngine.inTable(players.getSkill(p))) {
+                throw new IllegalArgumentException("Invalid average skill, must be a whole number from 0 to 10: " + players.getSkill(p));
+            }
+            this.skills[p] = (int) players.getSkill(p);
+        }
+
+        this.players = players;
+        this.bracket = new BracketTree(players.size());
+        this.numRounds = this.bracket.getNumRounds();
+        this.chances = new double[players.size() * (this.numRounds + 1)];
+
+        int size = this.bracket.getSize();
+        this.firstPlayers = new int[2 * size];
+        this.endPlayers = new int[2 * size];
+        for (int leaf = size; leaf < 2 * size; leaf++) {
+            int player = this.bracket.getPlayer(leaf);
+            this.firstPlayers[leaf] = player == BracketTree.BYE ? players.size() : player;
+            this.endPlayers[leaf] = player == BracketTree.BYE ? 0 : player + 1;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            this.firstPlayers[node] = Math.min(this.firstPlayers[2 * node], this.firstPlayers[2 * node + 1]);
+            this.endPlayers[node] = Math.max(this.endPlayers[2 * node], this.endPlayers[2 * node + 1]);
+        }
+
+        pool.invoke(new NodeTask(1));
+    }
+
+    /**
+     * A simple getter method to return the number of players taking part.
+     * @return the number of players.
+     */
+    public int getNumPlayers() {
+        return this.players.size();
+    }
+
+    /**
+     * A simple getter method to return a player taking part.
+     * @param player the position of the player in the draw.
+     * @return the player object.
+     */
+    public TableTennisPlayer getPlayer(int player) {
+        return this.players.view(player);
+    }
+
+    /**
+     * A simple getter method to return the number of knock-out rounds.
+     * @return the number of rounds.
+     */
+    public int getNumRounds() {
+        return this.numRounds;
+    }
+
+    /**
+     * Gets the chance of a player reaching a round.
+     * @param player the position of the player in the draw.
+     * @param round the round, from 1 (first round) to {@code numRounds + 1} (won the tournament).
+     * @return the probability, between 0 and 1.
+     */
+    public double getReachProbability(int player, int round) {
+        return this.chances[player * (this.numRounds + 1) + (round - 1)];
+    }
+
+    /**
+     * Gets the chance of a player reaching the final.
+     * @param player the position of the player in the draw.
+     * @return the probability, between 0 and 1.
+     */
+    public double getFinalProbability(int player) {
+        return this.getReachProbability(player, this.numRounds);
+    }
+
+    /**
+     * Gets the chance of a player winning the tournament.
+     * @param player the position of the player in the draw.
+     * @return the probability, between 0 and 1.
+     */
+    public double getTitleProbability(int player) {
+        return this.getReachProbability(player, this.numRounds + 1);
+    }
+
+    /**
+     * Works out the chance of every player below a node reaching the round after it, once the chances of the players
+     * below both of its halves are known.
+     * <p>
+     *     A leaf is a player, who reaches the first round. A node with a bye below it (only in the first round) sends its
+     *     player through with the same chance.
+     * </p>
+     * @param node the node of the bracket.
+     */
+    private void combine(int node) {
+        int size = this.bracket.getSize();
+        if (node >= size) {
+            int player = this.bracket.getPlayer(node);
+            if (player != BracketTree.BYE) {
+                this.chances[player * (this.numRounds + 1)] = 1.0;
+            }
+            return;
+        }
+
+        int round = this.bracket.getRound(node); // the round of the match, which its winner goes through from
+        int first = 2 * node;
+        int second = 2 * node + 1;
+        double[] firstSkills = this.skillChances(first, round);
+        double[] secondSkills = this.skillChances(second, round);
+
+        double[] firstWins = new double[NUM_SKILLS]; // the chance of each skill from the first half beating the second half
+        double[] secondWins = new double[NUM_SKILLS];
+        for (int s1 = 0; s1 < NUM_SKILLS; s1++) {
+            for (int s2 = 0; s2 < NUM_SKILLS; s2++) {
+                double p1Wins = FastMatchEngine.getMatchProbability(s1, s2);
+                firstWins[s1] += secondSkills[s2] * p1Wins;
+                secondWins[s2] += firstSkills[s1] * (1 - p1Wins);
+            }
+        }
+        if (this.firstPlayers[second] >= this.endPlayers[second]) { // a bye
+            Arrays.fill(firstWins, 1.0);
+        }
+
+        for (int p = this.firstPlayers[first]; p < this.endPlayers[first]; p++) {
+            int at = p * (this.numRounds + 1) + round;
+            this.chances[at] = this.chances[at - 1] * firstWins[this.skills[p]];
+        }
+        for (int p = this.firstPlayers[second]; p < this.endPlayers[second]; p++) {
+            int at = p * (this.numRounds + 1) + round;
+            this.chances[at] = this.chances[at - 1] * secondWins[this.skills[p]];
+        }
+    }
+
+    /**
+     * Adds up the chances of the players below a node reaching a round by their skill.
+     * @param node the node.
+     * @param round the round.
+     * @return the chance of a player of each skill from below the node reaching the round.
+     */
+    private double[] skillChances(int node, int round) {
+        double[] skillChances = new double[NUM_SKILLS];
+        for (int p = this.firstPlayers[node]; p < this.endPlayers[node]; p++) {
+            skillChances[this.skills[p]] += this.chances[p * (this.numRounds + 1) + (round - 1)];
+        }
+        return skillChances;
+    }
+
+    /**
+     * Used to output the chances, with a line for each player showing the chance of winning the tournament, reaching
+     * the final and reaching each round.
+     * @return the string containing the chances, to be output.
+     */
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        output.append("Exact chances for ").append(this.players.size()).append(" players\n");
+
+        for (int p = 0; p < this.players.size(); p++) {
+            TableTennisPlayer player = this.players.view(p);
+            output.append(player.getFirstName()).append(" ").append(player.getLastName());
+            output.append(String.format(": title %.4f, final %.4f, rounds [", this.getTitleProbability(p), this.getFinalProbability(p)));
+            for (int round = 1; round <= this.numRounds; round++) {
+                if (round > 1) {
+                    output.append(", ");
+                }
+                output.append(String.format("%.4f", this.getReachProbability(p, round)));
+            }
+            output.append("]\n");
+        }
+
+        return output.toString();
+    }
+
+    /**
+     * A task working out the chances below a node of the bracket, working out both halves at the same time when there
+     * are enough players below it, and then combining them.
+     */
+    @SuppressWarnings("serial") // only ever run on a pool, never serialized, so it needs no serialVersionUID
+    private class NodeTask extends RecursiveAction {
+        /**
+         * The node of the bracket.
+         */
+        private final int node;
+
+        /**
+         * Creates a task for the players below a node.
+         * @param node the node of the bracket.
+         */
+        NodeTask(int node) {
+            this.node = node;
+        }
+
+        /**
+         * Works out the chances of the players below the node, splitting into 2 tasks if there are enough of them.
+         */
+        @Override
+        protected void compute() {
+            if (endPlayers[this.node] - firstPlayers[this.node] <= PLAYERS_PER_TASK) {
+                this.computeHere(this.node);
+                return;
+            }
+
+            NodeTask first = new NodeTask(2 * this.node);
+            first.fork();
+            new NodeTask(2 * this.node + 1).compute();
+            first.join();
+            combine(this.node);
+        }
+
+        /**
+         * Works out the chances of the players below a node on this task, from the leaves up.
+         * @param node the node.
+         */
+        private void computeHere(int node) {
+            if (node < bracket.getSize()) {
+                this.computeHere(2 * node);
+                this.computeHere(2 * node + 1);
+            }
+            combine(node);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * This class holds a knock-out bracket for any number of players (at least 2), as an implicit binary tree in a single
+ * {@code int[]}, so a bracket of millions of players takes a few bytes per player and nothing is created as it is played.
+ * <p>
+ *     The tree is laid out like a binary heap. The players are the leaves, in the second half of the array, and every
+ *     other node is a match whose 2 players come from the nodes below it:
+ * </p>
+ * <ul>
+ *     <li>Node 1 is the final, and its winner is the winner of the tournament.</li>
+ *     <li>The players of match {@code m} are the winners of nodes {@code 2m} and {@code 2m + 1}, and its winner goes to
+ *     node {@code m / 2}.</li>
+ *     <li>The matches of round {@code r} are the nodes from {@code size >> r} up to {@code size >> (r - 1)}, where
+ *     {@code size} is the number of players rounded up to a power of 2.</li>
+ * </ul>
+ * <p>
+ *     Each node holds the index of a player (in the order of the draw), so the players themselves can be kept in any list
+ *     or {@link PlayerStore}. A match is filled in with its winner once it has been played
+ *     ({@link BracketTree#setWinner(int, int)}).
+ * </p>
+ * <p>
+ *     If the number of players is not a power of 2, the leaves left over are byes. Each bye is paired with a player in
+ *     the first round, and that player goes through to the second round without playing. The byes are given to the last
+ *     players in the draw, so the first round matches are the first nodes of the round followed by the byes. If the
+ *     number of players is a power of 2, there are no byes and players next to each other in the draw face each other,
+ *     the same as {@link TableTennisTournament#drawPlayers()}.
+ * </p>
+ * <p>
+ *     Matches may be filled in by different threads, as long as each match is only filled in once its 2 players are known
+ *     (e.g. after waiting for the matches below it), as nodes are never shared between matches.
+ * </p>
+ * @see TableTennisTournament
+ * @see MonteCarloSimulation
+ */
+public class BracketTree {
+    /**
+     * A leaf without a player.
+     */
+    public static final int BYE = -1;
+    /**
+     * A match which has not been played yet.
+     */
+    public static final int UNDECIDED = -2;
+    /**
+     * The most players a bracket can hold, as the array holds 2 nodes for every player.
+     */
+    public static final int MAX_PLAYERS = 1 << 29;
+
+    /**
+     * The number of players taking part.
+     */
+    private final int numPlayers;
+    /**
+     * The number of leaves, the number of players rounded up to a power of 2.
+     */
+    private final int size;
+    /**
+     * The number of knock-out rounds.
+     */
+    private final int numRounds;
+    /**
+     * The number of byes, all paired with a player in the first round.
+     */
+    private final int numByes;
+    /**
+     * The nodes of the tree, where node 0 is not used, the matches are from 1 to {@code size - 1} and the players (or
+     * byes) are from {@code size} to {@code 2 * size - 1}.
+     */
+    private final int[] nodes;
+
+    /**
+     * Creates the bracket for players {@code 0} to {@code numPlayers - 1}, in the order of the draw, with byes for the
+     * last players if the number of players is not a power of 2.
+     * @param numPlayers the number of players, at least 2.
+     * @throws IllegalArgumentException if there are fewer than 2 players, or more than {@link BracketTree#MAX_PLAYERS}.
+     */
+    public BracketTree(int numPlayers) {
+        if (numPlayers < 2 || numPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Invalid number of players, must be from 2 to 2^29.");
+        }
+        this.numPlayers = numPlayers;
+        this.numRounds = 32 - Integer.numberOfLeadingZeros(numPlayers - 1);
+        this.size = 1 << this.numRounds;
+        this.numByes = this.size - numPlayers;
+        this.nodes = new int[2 * this.size];
+
+        int fullMatches = this.size / 2 - this.numByes;
+        for (int player = 0; player < 2 * fullMatches; player++) {
+            this.nodes[this.size + player] = player;
+        }
+        for (int bye = 0; bye < this.numByes; bye++) {
+            int player = 2 * fullMatches + bye;
+            int match = this.size / 2 + fullMatches + bye;
+            this.nodes[2 * match] = player;
+            this.nodes[2 * match + 1] = BYE;
+            this.nodes[match] = player; // through to the second round
+        }
+        for (int match = 1; match < this.size / 2 + fullMatches; match++) {
+            this.nodes[match] = UNDECIDED;
+        }
+    }
+
+    /**
+     * Creates a copy of a bracket, e.g. for another thread to play the same draw.
+     * @param bracket the bracket to copy.
+     */
+    public BracketTree(BracketTree bracket) {
+        this.numPlayers = bracket.numPlayers;
+        this.size = bracket.size;
+        this.numRounds = bracket.numRounds;
+        this.numByes = bracket.numByes;
+        this.nodes = bracket.nodes.clone();
+    }
+
+    /**
+     * A simple getter method to return the number of players.
+     * @return the number of players.
+     */
+    public int getNumPlayers() {
+        return this.numPlayers;
+    }
+
+    /**
+     * A simple getter method to return the number of knock-out rounds.
+     * @return the number of rounds (e.g. 3 for 5 to 8 players).
+     */
+    public int getNumRounds() {
+        return this.numRounds;
+    }
+
+    /**
+     * A simple getter method to return the number of leaves, which is also the node after the last match.
+     * @return the number of players rounded up to a power of 2.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * A simple getter method to return the number of byes.
+     * @return the number of byes, 0 if the number of players is a power of 2.
+     */
+    public int getNumByes() {
+        return this.numByes;
+    }
+
+    /**
+     * Gets the first match of a round.
+     * @param round the round, from 1.
+     * @return the node of the match.
+     */
+    public int firstMatch(int round) {
+        return this.size >>> round;
+    }
+
+    /**
+     * Gets the number of matches played in a round, which start at {@link BracketTree#firstMatch(int)}. This does not
+     * include the byes in the first round, which follow the matches.
+     * @param round the round, from 1.
+     * @return the number of matches.
+     */
+    public int numMatches(int round) {
+        if (round == 1) {
+            return this.size / 2 - this.numByes;
+        }
+        return this.size >>> round;
+    }
+
+    /**
+     * Gets the round a match is played in.
+     * @param match the node of the match.
+     * @return the round, from 1.
+     */
+    public int getRound(int match) {
+        return this.numRounds - (31 - Integer.numberOfLeadingZeros(match));
+    }
+
+    /**
+     * Gets player 1 of a match, the winner of the node below it on the left.
+     * @param match the node of the match.
+     * @return the index of the player, or {@link BracketTree#UNDECIDED} if they are not known yet.
+     */
+    public int getFirst(int match) {
+        return this.nodes[2 * match];
+    }
+
+    /**
+     * Gets player 2 of a match, the winner of the node below it on the right.
+     * @param match the node of the match.
+     * @return the index of the player, {@link BracketTree#UNDECIDED} if they are not known yet, or
+     * {@link BracketTree#BYE}.
+     */
+    public int getSecond(int match) {
+        return this.nodes[2 * match + 1];
+    }
+
+    /**
+     * Gets the winner of a match, or the player at a leaf.
+     * @param node the node.
+     * @return the index of the player, {@link BracketTree#UNDECIDED} if the match has not been played, or
+     * {@link BracketTree#BYE}.
+     */
+    public int getPlayer(int node) {
+        return this.nodes[node];
+    }
+
+    /**
+     * Fills in the winner of a match, so they are a player of the match above it.
+     * @param match the node of the match.
+     * @param player the index of the player who won, which must be one of the players of the match.
+     * @throws IllegalArgumentException if the player is not in the match.
+     */
+    public void setWinner(int match, int player) {
+        if (player < 0 || (player != this.nodes[2 * match] && player != this.nodes[2 * match + 1])) {
+            throw new IllegalArgumentException("Invalid winner, must be a player of the match: " + player);
+        }
+        this.nodes[match] = player;
+    }
+
+    /**
+     * Gets the winner of the tournament, the winner of the final.
+     * @return the index of the player, or {@link BracketTree#UNDECIDED} if the final has not been played.
+     */
+    public int getWinner() {
+        return this.nodes[1];
+    }
+
+    /**
+     * Copies the matches (nodes {@code 0} to {@code size - 1}) into an array, e.g. to keep many brackets for the same draw
+     * one after another. The byes are already filled in, and every other match is {@link BracketTree#UNDECIDED}.
+     * @param destination the array to copy to.
+     * @param offset where to copy to in the array.
+     */
+    public void copyMatches(int[] destination, int offset) {
+        System.arraycopy(this.nodes, 0, destination, offset, this.size);
+    }
+
+    /**
+     * Fills in the matches (nodes {@code 0} to {@code size - 1}) from an array, as copied by
+     * {@link BracketTree#copyMatches(int[], int)} from a bracket of the same draw, e.g. to carry on from a
+     * {@link TournamentCheckpoint}.
+     * @param source the array to copy from.
+     * @param offset where to copy from in the array.
+     */
+    public void restoreMatches(int[] source, int offset) {
+        System.arraycopy(source, offset, this.nodes, 0, this.size);
+    }
+}
@@ -0,0 +1,302 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * This class implements the {@link MatchEngine} interface by deciding a match with a single random number, instead of
+ * playing every round.
+ * <p>
+ *     A round only depends on the average skill of the 2 players, and the average skill is always a whole number
+ *     ({@link TableTennisPlayer#calculateAverageSkill()} uses integer division) from 0 to 10. So the chance of player 1
+ *     winning a round, and the chance of every possible match score, can be worked out exactly for each of the 121
+ *     pairs of skills. This is done once, when the class is loaded:
+ * </p>
+ * <ul>
+ *     <li>{@link TableTennisRound} draws {@code nextInt(10) + nextFloat()} as a {@code float}. Every possible value of
+ *     this is counted, including those rounded up to the next whole number by {@code float} addition, giving the exact
+ *     chance of the number being each whole number or lying between 2 whole numbers.</li>
+ *     <li>The round's rejection loop is then followed exactly: a draw is accepted with the chance worked out above, and
+ *     if the first 9 draws are all rejected the round is decided by a coin flip.</li>
+ *     <li>The chance of each match score (6-0 to 6-5, and 0-6 to 5-6) follows from the round chance, and is stored as
+ *     a cumulative distribution.</li>
+ * </ul>
+ * <p>
+ *     Playing a match is then a single {@code nextDouble()} looked up in the cumulative distribution, which gives the
+ *     same distribution of scores as {@link StandardMatchEngine}. Players whose skill is not a whole number from 0 to 10
+ *     are played by {@link StandardMatchEngine}.
+ * </p>
+ * @see TableTennisRound
+ * @see StandardMatchEngine
+ */
+public class FastMatchEngine implements MatchEngine {
+    /**
+     * A shared engine, which can be used by any number of threads as it has no attributes.
+     */
+    public static final FastMatchEngine INSTANCE = new FastMatchEngine();
+    /**
+     * The highest average skill in the tables.
+     */
+    public static final int MAX_SKILL = 10;
+    /**
+     * The number of different skills in the tables (0 to {@link FastMatchEngine#MAX_SKILL}).
+     */
+    private static final int NUM_SKILLS = MAX_SKILL + 1;
+    /**
+     * The number of possible match scores.
+     */
+    private static final int NUM_SCORES = 2 * MatchScore.ROUNDS_TO_WIN;
+    /**
+     * The number of values {@code nextFloat()} can return.
+     */
+    private static final int FLOAT_VALUES = 1 << 24;
+
+    /**
+     * The chance of the round's random number being exactly each whole number, from 0 to 10.
+     */
+    private static final double[] EXACTLY = new double[NUM_SKILLS];
+    /**
+     * The chance of the round's random number being between each whole number and the next (not including either),
+     * from 0 to 9.
+     */
+    private static final double[] BETWEEN = new double[MAX_SKILL];
+    /**
+     * The chance of player 1 winning a round, {@code [p1Skill * 11 + p2Skill]}.
+     */
+    private static final double[] ROUND_TABLE = new double[NUM_SKILLS * NUM_SKILLS];
+    /**
+     * The chance of player 1 winning a match, {@code [p1Skill * 11 + p2Skill]}.
+     */
+    private static final double[] MATCH_TABLE = new double[NUM_SKILLS * NUM_SKILLS];
+    /**
+     * The cumulative chance of each match score, {@code [(p1Skill * 11 + p2Skill) * 12 + outcome]}.
+     */
+    private static final double[] SCORE_CDF = new double[NUM_SKILLS * NUM_SKILLS * NUM_SCORES];
+    /**
+     * The score of each outcome in {@link FastMatchEngine#SCORE_CDF}.
+     */
+    private static final int[] SCORES = new int[NUM_SCORES];
+
+    static {
+        countRandomNumbers();
+        for (int s1 = 0; s1 <= MAX_SKILL; s1++) {
+            for (int s2 = 0; s2 <= MAX_SKILL; s2++) {
+                int pair = s1 * NUM_SKILLS + s2;
+                ROUND_TABLE[pair] = roundProbability(s1, s2);
+                MATCH_TABLE[pair] = scoreDistribution(ROUND_TABLE[pair], SCORE_CDF, pair * NUM_SCORES);
+            }
+        }
+        for (int k = 0; k < MatchScore.ROUNDS_TO_WIN; k++) {
+            SCORES[k] = MatchScore.of(MatchScore.ROUNDS_TO_WIN, k);
+            SCORES[MatchScore.ROUNDS_TO_WIN + k] = MatchScore.of(k, MatchScore.ROUNDS_TO_WIN);
+        }
+    }
+
+    /**
+     * Counts how often {@code randomInt + randomFloat} (as calculated by {@link TableTennisRound}) is exactly each whole
+     * number, and how often it is between whole numbers.
+     * <p>
+     *     For each {@code randomInt}, the sum only changes in one direction as {@code randomFloat} grows, so the values
+     *     which round down to {@code randomInt} and the values which round up to {@code randomInt + 1} are found with a
+     *     binary search, using the same {@code float} addition as the round.
+     * </p>
+     */
+    private static void countRandomNumbers() {
+        double total = 10.0 * FLOAT_VALUES;
+        for (int k = 0; k < MAX_SKILL; k++) {
+            long roundedDown = firstAbove(k, k); // values of nextFloat() where the sum is exactly k
+            long roundedUp = FLOAT_VALUES - firstAbove(k, Math.nextDown((float) (k + 1))); // exactly k + 1
+            EXACTLY[k] += roundedDown / total;
+            EXACTLY[k + 1] += roundedUp / total;
+            BETWEEN[k] = (FLOAT_VALUES - roundedDown - roundedUp) / total;
+        }
+    }
+
+    /**
+     * Finds the first value of {@code nextFloat()} (as a number of {@code 2^-24} steps) where {@code randomInt + randomFloat}
+     * is greater than a limit.
+     * @param randomInt the whole part of the random number.
+     * @param limit the limit.
+     * @return the number of values where the sum is not greater than the limit.
+     */
+    private static long firstAbove(int randomInt, float limit) {
+        int low = 0;
+        int high = FLOAT_VALUES;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            float randomFloat = middle * 0x1.0p-24f;
+            float randomNum = randomInt + randomFloat;
+            if (randomNum > limit) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The chance of the round's random number being from {@code min} to {@code max} (including both).
+     * @param min the lowest whole number.
+     * @param max the highest whole number.
+     * @return the chance.
+     */
+    private static double chanceFromTo(int min, int max) {
+        double chance = 0;
+        for (int m = Math.max(min, 0); m <= Math.min(max, MAX_SKILL); m++) {
+            chance += EXACTLY[m];
+            if (m < max && m < MAX_SKILL) {
+                chance += BETWEEN[m];
+            }
+        }
+        return chance;
+    }
+
+    /**
+     * Works out the exact chance of player 1 winning a round, following the logic of {@link TableTennisRound}.
+     * <p>
+     *     A draw is accepted when it is from {@code p1Skill - 1} to {@code p2Skill + 1}. Accepted draws are won by
+     *     player 1 if they are below {@code p1Skill} (when the skills are the same), or from {@code p1Skill - 1} to
+     *     {@code p1Skill + 1} (when they are different). The round stops at the first accepted draw, unless the first 9
+     *     draws are all rejected, when the round is decided by a coin flip.
+     * </p>
+     * @param p1Skill Player 1's average skill
+     * @param p2Skill Player 2's average skill
+     * @return the chance of player 1 winning the round.
+     */
+    private static double roundProbability(int p1Skill, int p2Skill) {
+        double accepted = chanceFromTo(p1Skill - 1, p2Skill + 1);
+        double acceptedAndWon;
+        if (p1Skill == p2Skill) {
+            // from p1Skill - 1 to just below p1Skill
+            acceptedAndWon = p1Skill > 0 ? EXACTLY[p1Skill - 1] + BETWEEN[p1Skill - 1] : 0;
+        } else {
+            acceptedAndWon = chanceFromTo(p1Skill - 1, Math.min(p1Skill + 1, p2Skill + 1));
+        }
+
+        double rejected = 1 - accepted;
+        double won = 0;
+        double allRejected = 1;
+        for (int attempt = 1; attempt <= 9; attempt++) {
+            won += allRejected * acceptedAndWon;
+            allRejected *= rejected;
+        }
+        return won + allRejected * 0.5;
+    }
+
+    /**
+     * Works out the chance of every match score, given the chance of player 1 winning each round.
+     * <p>
+     *     Player 1 wins 6-k when they win the last round and 5 of the {@code 5 + k} rounds before it, which has a chance of
+     *     {@code C(5 + k, k) * p^6 * (1 - p)^k}. Player 2 wins in the same way.
+     * </p>
+     * @param p the chance of player 1 winning a round.
+     * @param cdf the array to store the cumulative chances in.
+     * @param start where to start storing in the array.
+     * @return the chance of player 1 winning the match.
+     */
+    private static double scoreDistribution(double p, double[] cdf, int start) {
+        double q = 1 - p;
+        double cumulative = 0;
+        double p1Wins = 0;
+        for (int k = 0; k < MatchScore.ROUNDS_TO_WIN; k++) {
+            double chance = binomial(MatchScore.ROUNDS_TO_WIN - 1 + k, k) * Math.pow(p, MatchScore.ROUNDS_TO_WIN) * Math.pow(q, k);
+            cumulative += chance;
+            p1Wins += chance;
+            cdf[start + k] = cumulative;
+        }
+        for (int k = 0; k < MatchScore.ROUNDS_TO_WIN; k++) {
+            double chance = binomial(MatchScore.ROUNDS_TO_WIN - 1 + k, k) * Math.pow(q, MatchScore.ROUNDS_TO_WIN) * Math.pow(p, k);
+            cumulative += chance;
+            cdf[start + MatchScore.ROUNDS_TO_WIN + k] = cumulative;
+        }
+        cdf[start + NUM_SCORES - 1] = 1.0; // makes sure every draw finds a score
+        return p1Wins;
+    }
+
+    /**
+     * The number of ways to choose {@code k} items from {@code n}.
+     * @param n the number of items.
+     * @param k the number to choose.
+     * @return the number of ways.
+     */
+    private static double binomial(int n, int k) {
+        double result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a skill is in the tables, as a whole number from 0 to 10.
+     * @param skill the average skill.
+     * @return {@code true} if the skill can be looked up.
+     */
+    public static boolean inTable(float skill) {
+        return skill >= 0 && skill <= MAX_SKILL && skill == (int) skill;
+    }
+
+    /**
+     * Gets the exact chance of player 1 winning a round.
+     * @param p1Skill Player 1's average skill, from 0 to 10.
+     * @param p2Skill Player 2's average skill, from 0 to 10.
+     * @return the chance.
+     */
+    public static double getRoundProbability(int p1Skill, int p2Skill) {
+        return ROUND_TABLE[p1Skill * NUM_SKILLS + p2Skill];
+    }
+
+    /**
+     * Gets the exact chance of player 1 winning a match.
+     * @param p1Skill Player 1's average skill, from 0 to 10.
+     * @param p2Skill Player 2's average skill, from 0 to 10.
+     * @return the chance.
+     */
+    public static double getMatchProbability(int p1Skill, int p2Skill) {
+        return MATCH_TABLE[p1Skill * NUM_SKILLS + p2Skill];
+    }
+
+    /**
+     * Decides a match between 2 skills with a single random number.
+     * @param p1Skill Player 1's average skill
+     * @param p2Skill Player 2's average skill
+     * @param random the generator to take the random number from.
+     * @return the score of the match.
+     */
+    public static int playSkills(float p1Skill, float p2Skill, RandomGenerator random) {
+        if (!inTable(p1Skill) || !inTable(p2Skill)) {
+            return TableTennisMatch.playScore(p1Skill, p2Skill, random);
+        }
+
+        int start = ((int) p1Skill * NUM_SKILLS + (int) p2Skill) * NUM_SCORES;
+        double draw = random.nextDouble();
+        int outcome = 0;
+        while (draw >= SCORE_CDF[start + outcome]) {
+            outcome++;
+        }
+        return SCORES[outcome];
+    }
+
+    /**
+     * Decides a match with a single random number, using the players' average skill.
+     * @param p1 Player 1 in the match
+     * @param p2 Player 2 in the match
+     * @param random the generator to take random numbers from.
+     * @return the score of the match.
+     */
+    @Override
+    public int playMatch(TableTennisPlayer p1, TableTennisPlayer p2, RandomGenerator random) {
+        return playSkills(p1.getAverageSkill(), p2.getAverageSkill(), random);
+    }
+
+    /**
+     * Decides a match with a single random number, using the players' average skill from the store.
+     * @param store the store containing the players.
+     * @param p1 Player 1's position in the store
+     * @param p2 Player 2's position in the store
+     * @param random the generator to take random numbers from.
+     * @return the score of the match.
+     */
+    @Override
+    public int playMatch(PlayerStore store, int p1, int p2, RandomGenerator random) {
+        return playSkills(store.getSkill(p1), store.getSkill(p2), random);
+    }
+}
@@ -1,86 +1,237 @@
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 
+import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * This class is responsible for getting players from a {@code JSON} file using the library {@link Gson}.
  * <p>
  *     This class will not need to be instantiated, and instead will make use of a static method to fetch the player
- *     data. This static method will make use of the {@link Gson} library to get the player data from the given file and
- *     shuffle the order to ensure it is different each time, using a private method.
+ *     data. This static method will make use of the {@link Gson} library's {@link JsonReader} to read the player data
+ *     from the given file one player at a time, selecting the players at random as it goes (reservoir sampling). Only the
+ *     selected players are kept, so the size of the file does not matter, only the number of players taking part.
+ * </p>
+ * <p>
+ *     Rosters converted to the binary format ({@link BinaryRoster}, files ending {@value BinaryRoster#EXTENSION}) can also
+ *     be fetched from, and will be memory-mapped instead of read.
  * </p>
  * @see ReadPlayerData
  */
 public class GetPlayerData {
     /**
-     * The number of players taking part in the simulated tournament.
+     * The file the players are read from, if no other file is given.
      */
-    private static int numPlayers;
+    public static final String DEFAULT_ROSTER = "data/players-attributes.json";
+
     /**
-     * An {@link ArrayList} of players, that will be filled as players are created from the {@code JSON} file.
+     * The roster last indexed by {@link GetPlayerData#index(String)}.
      */
-    private static ArrayList<TableTennisPlayer> players = new ArrayList<TableTennisPlayer>();
+    private static String indexedRoster = null;
+    /**
+     * The index of the roster last indexed, kept so it is only built once.
+     */
+    private static AttributeIndex index = null;
 
     /**
      * This static method will be called to get the players from a {@code JSON} file.
      * <br>
      * This method will do the following:
      * <ul>
-     *      <li>Get the player data from the {@code JSON} file.</li>
+     *      <li>Read the player data from the {@code JSON} file, selecting players at random.</li>
+     *      <li>Shuffle the order of the selected players.</li>
      *      <li>Create a {@link SportPlayer} object with the data.</li>
-     *      <li>Shuffle the list order.</li>
      *      <li>Return the players.</li>
      * </ul>
      * @param playerCount number of players to take part in the tournament.
      * @return all the player objects created from fetched data.
      */
     public static ArrayList<TableTennisPlayer> fetch(int playerCount) {
-        numPlayers = playerCount;
+        return fetch(DEFAULT_ROSTER, playerCount);
+    }
 
-        String josnFIle = "data/players-attributes.json";
-        Gson gson = new Gson();
+    /**
+     * This static method works the same as {@link GetPlayerData#fetch(int)}, but reads the players from the given
+     * {@code JSON} file.
+     * @param rosterFile the path to the {@code JSON} file containing the players.
+     * @param playerCount number of players to take part in the tournament.
+     * @return all the player objects created from fetched data, or {@code null} if the file could not be read or
+     * does not contain enough players.
+     */
+    public static ArrayList<TableTennisPlayer> fetch(String rosterFile, int playerCount) {
+        return fetch(rosterFile, playerCount, new SplittableRandom());
+    }
 
-        JsonReader jsonReader = null;
-        try {
-            FileReader fileReader = new FileReader(josnFIle);
-            jsonReader = new JsonReader(fileReader);
+    /**
+     * This static method works the same as {@link GetPlayerData#fetch(String, int)}, but selects and shuffles the
+     * players using the given random generator (e.g. a seeded one, so the same players are selected each time).
+     * @param rosterFile the path to the {@code JSON} file containing the players.
+     * @param playerCount number of players to take part in the tournament.
+     * @param random the generator used to select and shuffle the players.
+     * @return all the player objects created from fetched data, or {@code null} if the file could not be read or
+     * does not contain enough players.
+     */
+    public static ArrayList<TableTennisPlayer> fetch(String rosterFile, int playerCount, RandomGenerator random) {
+        if (rosterFile.endsWith(BinaryRoster.EXTENSION)) {
+            try {
+                return BinaryRoster.open(rosterFile).draw(playerCount, random);
+            } catch (IOException e) {
+                System.out.println("Unexpected error:\n" + e);
+                return null;
+            }
+        }
+
+        ReadPlayerData[] selected = new ReadPlayerData[playerCount];
+        long numRead = 0;
+
+        try (JsonReader jsonReader = new JsonReader(new BufferedReader(new FileReader(rosterFile)))) {
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                if (numRead < playerCount) {
+                    selected[(int) numRead] = readPlayer(jsonReader);
+                } else {
+                    long position = random.nextLong(numRead + 1); // keep this player with a chance of playerCount / (numRead + 1)
+                    if (position < playerCount) {
+                        selected[(int) position] = readPlayer(jsonReader);
+                    } else {
+                        jsonReader.skipValue(); // not selected, so the player is never created
+                    }
+                }
+                numRead++;
+            }
+            jsonReader.endArray();
         } catch (Exception e) {
             System.out.println("Unexpected error:\n" + e);
             return null;
         }
 
-        ReadPlayerData[] playerData = gson.fromJson(jsonReader, ReadPlayerData[].class);
+        if (numRead < playerCount) {
+            System.out.println("Not enough players in " + rosterFile + ", found " + numRead + ".");
+            return null;
+        }
 
-        shuffleAndSelect(playerData);
+        return shuffleAndCreate(selected, random);
+    }
 
-        return players;
+    /**
+     * This static method fetches the players set in a {@link SimulationConfig}, in the order of the draw.
+     * <p>
+     *     Without a filter or seeding, the players are selected at random from the roster, the same as
+     *     {@link GetPlayerData#fetch(String, int, RandomGenerator)}. Otherwise the roster is indexed
+     *     ({@link AttributeIndex}, built the first time the roster is used) and the players are picked from those matching
+     *     the filter: the best players by average skill, placed in the draw by seed ({@link SeededDraw}), if the draw is
+     *     seeded, or players at random if not.
+     * </p>
+     * @param config the settings, including the roster, number of players, filter and seeding.
+     * @return the players in the order of the draw, or {@code null} if the roster could not be read, the filter is not
+     * valid, or not enough players match the filter.
+     */
+    public static ArrayList<TableTennisPlayer> fetch(SimulationConfig config) {
+        if (config.getFilter() == null && !config.isSeeded()) {
+            return fetch(config.getRosterPath(), config.getNumPlayers(), config.createRandom());
+        }
+
+        AttributeIndex index;
+        long[] selected;
+        try {
+            index = index(config.getRosterPath());
+            selected = index.select(config.getFilter());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Unexpected error:\n" + e);
+            return null;
+        }
+        int[] picked = config.isSeeded() ? index.best(selected, config.getNumPlayers()) : index.sample(selected, config.getNumPlayers(), config.createRandom());
+        if (picked.length < config.getNumPlayers()) {
+            System.out.println("Not enough players in " + config.getRosterPath() + " matching the filter, found " + picked.length + ".");
+            return null;
+        }
+
+        ArrayList<TableTennisPlayer> players = new ArrayList<TableTennisPlayer>(picked.length);
+        for (int player : picked) {
+            players.add(index.getStore().view(player));
+        }
+        return config.isSeeded() ? SeededDraw.arrange(players) : players;
     }
 
     /**
-     * This method takes an array and randomises the order of the elements.
+     * Gets the index of every player in a roster, building it the first time the roster is used.
+     * @param rosterFile the path to a {@code JSON} or binary roster.
+     * @return the index.
+     * @throws IOException if the roster could not be read.
+     */
+    static synchronized AttributeIndex index(String rosterFile) throws IOException {
+        if (!rosterFile.equals(indexedRoster)) {
+            PlayerStore store;
+            if (rosterFile.endsWith(BinaryRoster.EXTENSION)) {
+                store = PlayerStore.of(BinaryRoster.open(rosterFile));
+            } else {
+                store = PlayerStore.read(rosterFile);
+            }
+            index = new AttributeIndex(store);
+            indexedRoster = rosterFile;
+        }
+        return index;
+    }
+
+    /**
+     * Reads the next player object from the {@code JSON} file, one field at a time. Any unknown fields are skipped.
+     * @param jsonReader the reader, positioned at the start of a player object.
+     * @return the player data.
+     * @throws IOException if the file could not be read, or the player is not a valid object.
+     */
+    static ReadPlayerData readPlayer(JsonReader jsonReader) throws IOException {
+        ReadPlayerData p = new ReadPlayerData();
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "id": p.id = jsonReader.nextInt(); break;
+                case "first_name": p.first_name = jsonReader.nextString(); break;
+                case "last_name": p.last_name = jsonReader.nextString(); break;
+                case "serve_power": p.serve_power = jsonReader.nextInt(); break;
+                case "serve_skill": p.serve_skill = jsonReader.nextInt(); break;
+                case "spin": p.spin = jsonReader.nextInt(); break;
+                case "forehand_power": p.forehand_power = jsonReader.nextInt(); break;
+                case "backhand_power": p.backhand_power = jsonReader.nextInt(); break;
+                case "fitness": p.fitness = jsonReader.nextInt(); break;
+                case "age": p.age = jsonReader.nextInt(); break;
+                default: jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return p;
+    }
+
+    /**
+     * This method takes the selected players and randomises their order, before creating the player objects.
      * <p>
-     *     This is done by loop over the array and generating a random number which will then be the new location for
+     *     This is needed because players kept by the reservoir stay close to the position they were read in. The order is
+     *     randomised by looping over the array and generating a random number which will then be the new location for
      *     the current element. This new location will currently have an element, so they are switched around.
      * </p>
      * @param playerArr the array to be shuffled.
+     * @param random the generator used to shuffle the players.
+     * @return the players.
      */
-    private static void shuffleAndSelect(ReadPlayerData[] playerArr) {
-        Random rand = new Random();
+    private static ArrayList<TableTennisPlayer> shuffleAndCreate(ReadPlayerData[] playerArr, RandomGenerator random) {
         int len = playerArr.length;
         for (int i = len-1; i > 0; i--) {
-            int randInt = rand.nextInt(i); // select a random location
+            int randInt = random.nextInt(i + 1); // select a random location
             ReadPlayerData temp = playerArr[i]; // store what is in current position
             playerArr[i] = playerArr[randInt]; // swap positions
             playerArr[randInt] = temp;
         }
 
-        for (int x = 0; x < numPlayers; x++) {
-            ReadPlayerData p = playerArr[x];
-
-            TableTennisPlayer newPlayer = new TableTennisPlayer(p.first_name, p.last_name, p.age, p.serve_power, p.serve_skill, p.spin, p.forehand_power, p.backhand_power, p.fitness);
+        ArrayList<TableTennisPlayer> players = new ArrayList<TableTennisPlayer>(len);
+        for (ReadPlayerData p : playerArr) {
+            TableTennisPlayer newPlayer = new TableTennisPlayer(p.id, p.first_name, p.last_name, p.age, p.serve_power, p.serve_skill, p.spin, p.forehand_power, p.backhand_power, p.fitness);
             players.add(newPlayer);
         }
+
+        return players;
     }
 }
@@ -0,0 +1,378 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class records the outcome of every match of a seeded tournament, so the same seed can be played again later (or
+ * with a different number of tables, table mode, or in dataflow mode) and checked to give exactly the same matches.
+ * <p>
+ *     As a sink ({@link ResultSink}), it records the round, slot, players and score of every match given to it by the
+ *     tables. The outcomes are written to a golden file ({@link GoldenReplay#write(Path)}) as text, one match per line
+ *     in the order of the bracket, after a line with the seed, number of players, match engine, draw ({@code seeded} or
+ *     {@code random}), filter ({@code -} for none) and roster the tournament was played with:
+ * </p>
+ * <pre>
+ *     TTGR 42 8 standard seeded spin&gt;=8,age&lt;30 players.json
+ *     1 0 17 3 6-4
+ *     1 1 8 22 5-6
+ *     ...
+ * </pre>
+ * <p>
+ *     A golden file is played again by reading it ({@link GoldenReplay#read(Path)}), setting a config to the same
+ *     settings ({@link GoldenReplay#applyTo(SimulationConfig)}), and checking the matches recorded by a new replay
+ *     against it ({@link GoldenReplay#verify(GoldenReplay)}). As every match is played with its own generator
+ *     ({@link MatchStreams}), any difference is a change in the simulation, not in how the matches were scheduled.
+ * </p>
+ * @see SimulationConfig#setGoldenPath(String)
+ */
+public class GoldenReplay implements ResultSink {
+    /**
+     * The first word of a golden file.
+     */
+    private static final String MAGIC = "TTGR";
+    /**
+     * The most differences output by {@link GoldenReplay#verify(GoldenReplay)}.
+     */
+    private static final int MAX_SHOWN = 10;
+    /**
+     * The filter in the header when the players were not filtered.
+     */
+    private static final String NO_FILTER = "-";
+    /**
+     * The number of fields in the header.
+     */
+    private static final int HEADER_FIELDS = 7;
+
+    /**
+     * The seed the players were selected and the matches were played with.
+     */
+    private final long seed;
+    /**
+     * The number of players taking part.
+     */
+    private final int numPlayers;
+    /**
+     * The name of the match engine ({@link SimulationConfig#engineName(MatchEngine)}).
+     */
+    private final String engineName;
+    /**
+     * The roster file the players were selected from.
+     */
+    private final String rosterPath;
+    /**
+     * The conditions the players were selected with, without any spaces, or {@code null} if not filtered.
+     */
+    private final String filter;
+    /**
+     * Whether the best players were selected and seeded in the draw.
+     */
+    private final boolean seeded;
+    /**
+     * The outcome of each match, as pairs of longs: the round, slot and score ({@link GoldenReplay#outcome(int, int, int)})
+     * followed by the ids of the players ({@link GoldenReplay#players(int, int)}).
+     */
+    private final ArrayList<long[]> matches = new ArrayList<long[]>();
+
+    /**
+     * Creates an empty replay for a tournament played with the settings of a config.
+     * @param config the settings of the tournament, which must have a seed.
+     * @throws IllegalArgumentException if the config has no seed, or its engine cannot be given on the command line.
+     */
+    public GoldenReplay(SimulationConfig config) {
+        this(seedOf(config), config.getNumPlayers(), SimulationConfig.engineName(config.getEngine()), config.getRosterPath(),
+                compact(config.getFilter()), config.isSeeded());
+    }
+
+    /**
+     * Creates an empty replay.
+     * @param seed the seed the players were selected and the matches were played with.
+     * @param numPlayers the number of players.
+     * @param engineName the name of the match engine.
+     * @param rosterPath the roster file the players were selected from.
+     * @param filter the conditions the players were selected with, without any spaces, or {@code null}.
+     * @param seeded whether the best players were selected and seeded in the draw.
+     */
+    private GoldenReplay(long seed, int numPlayers, String engineName, String rosterPath, String filter, boolean seeded) {
+        this.seed = seed;
+        this.numPlayers = numPlayers;
+        this.engineName = engineName;
+        this.rosterPath = rosterPath;
+        this.filter = filter;
+        this.seeded = seeded;
+    }
+
+    /**
+     * Removes the spaces from a filter, so it can be written as a single field of the header. The spaces of a filter
+     * have no meaning ({@link AttributeIndex#select(String)}).
+     * @param filter the filter, or {@code null}.
+     * @return the filter without spaces, or {@code null}.
+     */
+    private static String compact(String filter) {
+        return filter == null ? null : filter.replaceAll("\\s+", "");
+    }
+
+    /**
+     * Gets the seed of a config, which a replay must have.
+     * @param config the config.
+     * @return the seed.
+     * @throws IllegalArgumentException if the config has no seed.
+     */
+    private static long seedOf(SimulationConfig config) {
+        if (config.getSeed() == null) {
+            throw new IllegalArgumentException("Invalid options, a golden replay must have a seed.");
+        }
+        return config.getSeed();
+    }
+
+    /**
+     * Reads a golden file written by {@link GoldenReplay#write(Path)}.
+     * @param file the file to read.
+     * @return the replay.
+     * @throws IOException if the file could not be read, or is not a golden file.
+     */
+    public static GoldenReplay read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] header = String.valueOf(reader.readLine()).split(" ", HEADER_FIELDS);
+            if (header.length != HEADER_FIELDS || !header[0].equals(MAGIC)
+                    || !(header[4].equals("seeded") || header[4].equals("random"))) {
+                throw new IOException(file + " is not a golden file.");
+            }
+
+            GoldenReplay replay;
+            try {
+                replay = new GoldenReplay(Long.parseLong(header[1]), Integer.parseInt(header[2]), header[3], header[6],
+                        header[5].equals(NO_FILTER) ? null : header[5], header[4].equals("seeded"));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(" ");
+                    String[] rounds = fields[fields.length - 1].split("-");
+                    if (fields.length != 5 || rounds.length != 2) {
+                        throw new IOException(file + " has an invalid match: " + line);
+                    }
+                    int score = MatchScore.of(Integer.parseInt(rounds[0]), Integer.parseInt(rounds[1]));
+                    replay.matches.add(new long[] {
+                            outcome(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), score),
+                            players(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]))});
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(file + " is not a golden file.", e);
+            }
+            return replay;
+        }
+    }
+
+    /**
+     * Writes the matches recorded, in the order of the bracket, to a temporary file which then replaces the file.
+     * @param file the file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write(MAGIC + " " + this.seed + " " + this.numPlayers + " " + this.engineName + " "
+                        + (this.seeded ? "seeded" : "random") + " " + (this.filter == null ? NO_FILTER : this.filter) + " " + this.rosterPath);
+                writer.newLine();
+                for (long[] match : this.sortedMatches()) {
+                    writer.write(toString(match));
+                    writer.newLine();
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Sets the seed, roster, number of players, match engine, filter and seeding of a config to the ones the replay was
+     * played with, so the same tournament is played again.
+     * <p>
+     *     Any of these given on the command line must be the same as in the replay, as the replay would otherwise be
+     *     checked against a different tournament (e.g. with a different engine) and could never show the difference.
+     * </p>
+     * @param config the config.
+     * @throws IllegalArgumentException if the engine is unknown, or an option given is different to the replay.
+     */
+    public void applyTo(SimulationConfig config) {
+        StringBuilder conflicts = new StringBuilder();
+        if (config.isGiven("--seed") && config.getSeed() != this.seed) {
+            conflicts.append("\n  --seed ").append(config.getSeed()).append(", recorded ").append(this.seed);
+        }
+        if (config.isGiven("--players") && config.getNumPlayers() != this.numPlayers) {
+            conflicts.append("\n  --players ").append(config.getNumPlayers()).append(", recorded ").append(this.numPlayers);
+        }
+        if (config.isGiven("--engine") && !SimulationConfig.engineName(config.getEngine()).equals(this.engineName)) {
+            conflicts.append("\n  --engine ").append(SimulationConfig.engineName(config.getEngine())).append(", recorded ").append(this.engineName);
+        }
+        if (config.isGiven("--roster") && !config.getRosterPath().equals(this.rosterPath)) {
+            conflicts.append("\n  --roster ").append(config.getRosterPath()).append(", recorded ").append(this.rosterPath);
+        }
+        if (config.isGiven("--filter") && !compact(config.getFilter()).equals(this.filter)) {
+            conflicts.append("\n  --filter ").append(config.getFilter()).append(", recorded ").append(this.filter == null ? "none" : this.filter);
+        }
+        if (config.isGiven("--seeded") && !this.seeded) {
+            conflicts.append("\n  --seeded, recorded a random draw");
+        }
+        if (conflicts.length() > 0) {
+            throw new IllegalArgumentException("Invalid options, different to the golden file:" + conflicts);
+        }
+
+        config.setSeed(this.seed);
+        config.setRosterPath(this.rosterPath);
+        config.setNumPlayers(this.numPlayers);
+        config.setEngine(SimulationConfig.parseEngine(this.engineName));
+        config.setFilter(this.filter);
+        config.setSeeded(this.seeded);
+    }
+
+    /**
+     * Checks the matches recorded are the same as the matches of another replay, with the same players and scores in
+     * every slot of the bracket, and outputs the first differences found.
+     * @param expected the replay to check against, e.g. read from a golden file.
+     * @return the number of matches which are different, missing or not expected.
+     */
+    public int verify(GoldenReplay expected) {
+        List<long[]> actual = this.sortedMatches();
+        List<long[]> golden = expected.sortedMatches();
+        int differences = 0;
+        int i = 0;
+        int j = 0;
+        while (i < actual.size() || j < golden.size()) {
+            long[] played = i < actual.size() ? actual.get(i) : null;
+            long[] wanted = j < golden.size() ? golden.get(j) : null;
+            long compare = played == null ? 1 : wanted == null ? -1 : Long.compare(position(played), position(wanted));
+
+            String difference = null;
+            if (compare < 0) {
+                difference = "not expected: " + toString(played);
+                i++;
+            } else if (compare > 0) {
+                difference = "missing:      " + toString(wanted);
+                j++;
+            } else {
+                if (played[0] != wanted[0] || played[1] != wanted[1]) {
+                    difference = "expected:     " + toString(wanted) + "\n  played:       " + toString(played);
+                }
+                i++;
+                j++;
+            }
+
+            if (difference != null) {
+                differences++;
+                if (differences <= MAX_SHOWN) {
+                    System.out.println("  " + difference);
+                }
+            }
+        }
+
+        if (differences == 0) {
+            System.out.println("Golden replay matches: " + golden.size() + " matches, seed " + expected.seed + ".");
+        } else {
+            System.out.println("Golden replay differs: " + differences + " of " + golden.size() + " matches, seed " + expected.seed + ".");
+        }
+        return differences;
+    }
+
+    /**
+     * A simple getter method to return the number of matches recorded.
+     * @return the number of matches.
+     */
+    public int getNumMatches() {
+        synchronized (this.matches) {
+            return this.matches.size();
+        }
+    }
+
+    /**
+     * Not used, as the pairings can be worked out from the matches.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+    }
+
+    /**
+     * Records the outcome of a match, in the slot of the bracket it was played in.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public void matchPlayed(TableTennisMatch match) {
+        int p1 = ((TableTennisPlayer) match.players.get(0)).getId();
+        int p2 = ((TableTennisPlayer) match.players.get(1)).getId();
+        long[] outcome = {outcome(match.getRound(), match.getSlot(), match.getScore()), players(p1, p2)};
+        synchronized (this.matches) {
+            this.matches.add(outcome);
+        }
+    }
+
+    /**
+     * Not used, as the winner is the winner of the last match.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public void tournamentWon(TableTennisPlayer winner) {
+    }
+
+    /**
+     * Gets a copy of the matches recorded, in the order of the bracket.
+     * @return the matches, by round and then slot.
+     */
+    private List<long[]> sortedMatches() {
+        ArrayList<long[]> sorted;
+        synchronized (this.matches) {
+            sorted = new ArrayList<long[]>(this.matches);
+        }
+        sorted.sort(Comparator.comparingLong(GoldenReplay::position));
+        return sorted;
+    }
+
+    /**
+     * Packs the round, slot and score of a match into a single {@code long}, which sorts in the order of the bracket.
+     * @param round the round, from 1.
+     * @param slot the slot in the round, from 0.
+     * @param score the score ({@link MatchScore}).
+     * @return the packed outcome.
+     */
+    private static long outcome(int round, int slot, int score) {
+        return ((long) round << 48) | ((slot & 0xffffffffL) << 16) | (score & 0xffff);
+    }
+
+    /**
+     * Packs the ids of the 2 players of a match into a single {@code long}.
+     * @param p1 the id of player 1.
+     * @param p2 the id of player 2.
+     * @return the packed ids.
+     */
+    private static long players(int p1, int p2) {
+        return ((long) p1 << 32) | (p2 & 0xffffffffL);
+    }
+
+    /**
+     * Gets the round and slot of a recorded match, without its score.
+     * @param match the match.
+     * @return the position in the bracket.
+     */
+    private static long position(long[] match) {
+        return match[0] >>> 16;
+    }
+
+    /**
+     * Used to output a recorded match as a line of a golden file, e.g. {@code "1 0 17 3 6-4"}.
+     * @param match the match.
+     * @return the round, slot, ids of the players and score.
+     */
+    private static String toString(long[] match) {
+        return (match[0] >>> 48) + " " + ((match[0] >>> 16) & 0xffffffffL) + " " + (int) (match[1] >>> 32) + " "
+                + (int) match[1] + " " + MatchScore.toString((int) (match[0] & 0xffff));
+    }
+}
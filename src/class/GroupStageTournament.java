@@ -0,0 +1,401 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a tournament played in 2 stages: a group stage, where the players are split into round-robin groups and
+ * every player plays everyone else in their group, followed by a knock-out stage ({@link TableTennisTournament}) between
+ * the best players of each group.
+ * <p>
+ *     The players are dealt into groups in the order of the draw (player {@code i} goes to group {@code i % numGroups}),
+ *     so the groups are within 1 player of the same size. The fixtures of each group are made with the circle method: one
+ *     player stays still while the others rotate around them, giving {@code n - 1} matchdays for {@code n} players (or
+ *     {@code n} matchdays for an odd number, with a different player resting each matchday), where every player plays
+ *     once on each matchday they are not resting.
+ * </p>
+ * <p>
+ *     The group stage is played a matchday at a time: every match of the matchday, from every group, is given to the
+ *     {@link TablePool} at once, and the next matchday starts once they have all been played. As a player has at most 1
+ *     match on each matchday, no player is ever booked on 2 tables at the same time. The matchdays are given to the
+ *     {@link ResultSink} as rounds, from 1.
+ * </p>
+ * <p>
+ *     Each player's record (wins, rounds won and rounds lost) is packed into a single {@code long} in an
+ *     {@link AtomicLongArray}, so the tables add each result to the standings with a single atomic add per player, without
+ *     a lock. Players are ranked by wins, then the difference between rounds won and lost, then rounds won, and then by
+ *     their place in the draw.
+ * </p>
+ * <p>
+ *     The best {@value #DEFAULT_QUALIFIERS} players of each group (unless set by
+ *     {@link GroupStageTournament#setQualifiers(int)}) go through to the knock-out stage. The knock-out draw pairs players
+ *     from different groups in the first round (e.g. the winner of group 1 with the runner-up of group 2), and the
+ *     knock-out stage is played with the same settings as the group stage.
+ * </p>
+ * <p>
+ *     If the config has a seed, each group stage match is given its own generator worked out from the seed, its
+ *     matchday and its slot in the matchday ({@link MatchStreams}, with minus the matchday as the round so the streams
+ *     are never the same as the knock-out stage's).
+ * </p>
+ * @see SimulationConfig#setGroupSize(long)
+ * @see TableTennisTournament
+ */
+public class GroupStageTournament implements Tournament {
+    /**
+     * The most players a group can have.
+     */
+    public static final int MAX_GROUP_SIZE = 1 << 16;
+    /**
+     * The number of players from each group who go through to the knock-out stage, unless set.
+     */
+    public static final int DEFAULT_QUALIFIERS = 2;
+    /**
+     * The number of bits for each count in a player's record, enough for {@link GroupStageTournament#MAX_GROUP_SIZE}
+     * matches of 11 rounds.
+     */
+    private static final int FIELD_BITS = 21;
+    /**
+     * The bits of a single count in a player's record.
+     */
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+    /**
+     * A player with no match.
+     */
+    private static final int REST = -1;
+
+    /**
+     * The players taking part, in the order of the draw.
+     */
+    private final ArrayList<TableTennisPlayer> allPlayers;
+    /**
+     * The settings of the tournament, also used for the knock-out stage.
+     */
+    private final SimulationConfig config;
+    /**
+     * The most players in a group.
+     */
+    private final int groupSize;
+    /**
+     * The number of players from each group who go through to the knock-out stage.
+     */
+    private int qualifiers = DEFAULT_QUALIFIERS;
+    /**
+     * The index of each player in each group, in the order of the draw.
+     */
+    private int[][] groups;
+    /**
+     * The matches of each matchday, from every group, as the indexes of player 1 and player 2 one after another.
+     */
+    private int[][] matchdays;
+    /**
+     * The record of each player in the group stage: wins, rounds won and rounds lost, each {@value #FIELD_BITS} bits.
+     */
+    private AtomicLongArray records;
+    /**
+     * The players of each group from first place to last, once the group stage is complete.
+     */
+    private List<List<TableTennisPlayer>> standings = null;
+    /**
+     * The player who won the tournament, once it is complete.
+     */
+    private TableTennisPlayer winner = null;
+
+    /**
+     * Creates the tournament and draws the groups, taking every setting from a {@link SimulationConfig}.
+     * @param players {@link ArrayList} of players taking part, in the order of the draw.
+     * @param config the settings of the tournament, with a group size set ({@link SimulationConfig#setGroupSize(long)}).
+     * @throws IllegalArgumentException if there are fewer than 2 players, or the config has no group size.
+     */
+    public GroupStageTournament(ArrayList<TableTennisPlayer> players, SimulationConfig config) {
+        if (players.size() < 2) {
+            throw new IllegalArgumentException("Invalid number of players, must be at least 2.");
+        }
+        if (config.getGroupSize() < 2) {
+            throw new IllegalArgumentException("Invalid group size, must be at least 2.");
+        }
+        this.allPlayers = players;
+        this.config = config;
+        this.groupSize = config.getGroupSize();
+        this.drawPlayers();
+    }
+
+    /**
+     * A method to set the number of players from each group who go through to the knock-out stage. If a group has fewer
+     * players, they all go through.
+     * @param qualifiers the number of players, at least 1.
+     */
+    public void setQualifiers(int qualifiers) {
+        if (qualifiers < 1) {
+            throw new IllegalArgumentException("Invalid number of qualifiers, must be at least 1.");
+        }
+        this.qualifiers = qualifiers;
+    }
+
+    /**
+     * A simple getter method to return the number of groups.
+     * @return the number of groups.
+     */
+    public int getNumGroups() {
+        return this.groups.length;
+    }
+
+    /**
+     * A simple getter method to return the number of matchdays in the group stage.
+     * @return the number of matchdays.
+     */
+    public int getNumMatchdays() {
+        return this.matchdays.length;
+    }
+
+    /**
+     * A simple getter method to return the standings of the group stage.
+     * @return the players of each group from first place to last, or {@code null} if the group stage is not complete.
+     */
+    public List<List<TableTennisPlayer>> getStandings() {
+        return this.standings;
+    }
+
+    /**
+     * A simple getter method to return the winner of the tournament.
+     * @return the player who won, or {@code null} if the tournament has not been completed.
+     */
+    public TableTennisPlayer getWinner() {
+        return this.winner;
+    }
+
+    /**
+     * This method is used to deal the players into groups, and make the fixtures of every matchday with the circle
+     * method.
+     */
+    @Override
+    public void drawPlayers() {
+        int numPlayers = this.allPlayers.size();
+        int numGroups = (numPlayers + this.groupSize - 1) / this.groupSize;
+        this.groups = new int[numGroups][];
+        for (int group = 0; group < numGroups; group++) {
+            this.groups[group] = new int[(numPlayers - group + numGroups - 1) / numGroups];
+            for (int i = 0; i < this.groups[group].length; i++) {
+                this.groups[group][i] = group + i * numGroups;
+            }
+        }
+        this.records = new AtomicLongArray(numPlayers);
+
+        int largest = this.groups[0].length; // the first groups have the extra players
+        int numMatchdays = (largest + 1) / 2 * 2 - 1;
+        int[] matchesPerDay = new int[numMatchdays];
+        for (int[] group : this.groups) {
+            int days = (group.length + 1) / 2 * 2 - 1;
+            for (int day = 0; day < days; day++) {
+                matchesPerDay[day] += group.length / 2;
+            }
+        }
+        this.matchdays = new int[numMatchdays][];
+        for (int day = 0; day < numMatchdays; day++) {
+            this.matchdays[day] = new int[2 * matchesPerDay[day]];
+        }
+
+        int[] filled = new int[numMatchdays];
+        for (int[] group : this.groups) {
+            int[] circle = Arrays.copyOf(group, (group.length + 1) / 2 * 2);
+            if (circle.length > group.length) {
+                circle[circle.length - 1] = REST; // whoever faces it rests
+            }
+            for (int day = 0; day < circle.length - 1; day++) {
+                for (int i = 0; i < circle.length / 2; i++) {
+                    int p1 = circle[i];
+                    int p2 = circle[circle.length - 1 - i];
+                    if (p1 != REST && p2 != REST) {
+                        this.matchdays[day][filled[day]++] = p1;
+                        this.matchdays[day][filled[day]++] = p2;
+                    }
+                }
+                int last = circle[circle.length - 1]; // rotate every player but the first
+                System.arraycopy(circle, 1, circle, 2, circle.length - 2);
+                circle[1] = last;
+            }
+        }
+    }
+
+    /**
+     * Plays the group stage a matchday at a time on the tables, ranks the groups, and then plays the knock-out stage
+     * between the players who went through.
+     */
+    @Override
+    public void startTournament() {
+        ResultSink sink = this.config.getSink();
+        TablePool tables = new TablePool(this.config.getNumTables(), this.config.getTableMode(), this.config.getEngine(), sink);
+        boolean complete = true;
+        try {
+            for (int day = 1; day <= this.matchdays.length && complete; day++) {
+                long roundStart = SimulationMetrics.startTimer();
+                complete = this.playMatchday(tables, day);
+                SimulationMetrics.tournamentRoundPlayed(roundStart);
+                sink.flush(); // output the matchday before pausing
+
+                if (complete && day < this.matchdays.length) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(this.config.getPacing());
+                    } catch (InterruptedException e) {
+                        System.out.println("Unexpected error: " + e);
+                    }
+                }
+            }
+        } finally {
+            tables.close();
+        }
+        if (!complete) {
+            return; // the error was encountered
+        }
+
+        this.standings = this.rankGroups();
+        sink.groupsComplete(this.standings);
+
+        ArrayList<TableTennisPlayer> knockoutPlayers = this.drawKnockout();
+        if (knockoutPlayers.size() == 1) {
+            this.winner = knockoutPlayers.get(0);
+            sink.tournamentWon(this.winner);
+            sink.flush();
+            return;
+        }
+        TableTennisTournament knockout = new TableTennisTournament(knockoutPlayers, this.config);
+        knockout.startTournament();
+        this.winner = knockout.getWinner();
+    }
+
+    /**
+     * Gives every match of a matchday to the tables, and waits for them all to be played. Each result is added to the
+     * standings by the table which played it.
+     * @param tables the tables.
+     * @param day the matchday, from 1.
+     * @return {@code true} if the matchday was played, or {@code false} if an error was encountered.
+     */
+    private boolean playMatchday(TablePool tables, int day) {
+        int[] fixtures = this.matchdays[day - 1];
+        List<List<TableTennisPlayer>> pairings = new ArrayList<List<TableTennisPlayer>>(fixtures.length / 2);
+        for (int i = 0; i < fixtures.length; i += 2) {
+            pairings.add(Arrays.asList(this.allPlayers.get(fixtures[i]), this.allPlayers.get(fixtures[i + 1])));
+        }
+        this.config.getSink().roundStarted(day, pairings);
+
+        CompletableFuture<?>[] played = new CompletableFuture<?>[pairings.size()];
+        for (int slot = 0; slot < played.length; slot++) {
+            TableTennisMatch match = new TableTennisMatch(pairings.get(slot));
+            match.setRound(day);
+            match.setSlot(slot);
+            match.setEngine(this.config.getEngine());
+            if (this.config.getSeed() != null) {
+                match.setRandom(MatchStreams.forMatch(this.config.getSeed(), -day, slot));
+            }
+            int p1 = fixtures[2 * slot];
+            int p2 = fixtures[2 * slot + 1];
+            played[slot] = tables.submit(match).thenAccept(result -> this.recordMatch(p1, p2, result.getScore()));
+        }
+
+        try {
+            CompletableFuture.allOf(played).join();
+            return true;
+        } catch (CompletionException e) {
+            System.out.println("Unexpected error, exiting simulation.");
+            System.out.println(e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * Adds the result of a match to the records of both players, with a single atomic add each.
+     * @param p1 the index of player 1.
+     * @param p2 the index of player 2.
+     * @param score the score of the match ({@link MatchScore}).
+     */
+    private void recordMatch(int p1, int p2, int score) {
+        long p1Rounds = MatchScore.p1Rounds(score);
+        long p2Rounds = MatchScore.p2Rounds(score);
+        long p1Win = MatchScore.winner(score) == 1 ? 1 : 0;
+        this.records.getAndAdd(p1, record(p1Win, p1Rounds, p2Rounds));
+        this.records.getAndAdd(p2, record(1 - p1Win, p2Rounds, p1Rounds));
+    }
+
+    /**
+     * Packs a record into a single {@code long}, so records can be added together.
+     * @param wins the number of matches won.
+     * @param roundsWon the number of rounds won.
+     * @param roundsLost the number of rounds lost.
+     * @return the packed record.
+     */
+    private static long record(long wins, long roundsWon, long roundsLost) {
+        return (wins << (2 * FIELD_BITS)) | (roundsWon << FIELD_BITS) | roundsLost;
+    }
+
+    /**
+     * Compares the records of 2 players, to rank them in their group.
+     * @param p1 the index of a player.
+     * @param p2 the index of the other player.
+     * @return a negative number if the first player is ranked higher, or positive if the second is.
+     */
+    private int compareRecords(int p1, int p2) {
+        long record1 = this.records.get(p1);
+        long record2 = this.records.get(p2);
+        long wins1 = record1 >>> (2 * FIELD_BITS);
+        long wins2 = record2 >>> (2 * FIELD_BITS);
+        if (wins1 != wins2) {
+            return Long.compare(wins2, wins1);
+        }
+        long won1 = (record1 >>> FIELD_BITS) & FIELD_MASK;
+        long won2 = (record2 >>> FIELD_BITS) & FIELD_MASK;
+        long difference1 = won1 - (record1 & FIELD_MASK);
+        long difference2 = won2 - (record2 & FIELD_MASK);
+        if (difference1 != difference2) {
+            return Long.compare(difference2, difference1);
+        }
+        if (won1 != won2) {
+            return Long.compare(won2, won1);
+        }
+        return Integer.compare(p1, p2);
+    }
+
+    /**
+     * Ranks the players of every group by their records.
+     * @return the players of each group, from first place to last.
+     */
+    private List<List<TableTennisPlayer>> rankGroups() {
+        List<List<TableTennisPlayer>> ranked = new ArrayList<List<TableTennisPlayer>>(this.groups.length);
+        for (int[] group : this.groups) {
+            Integer[] order = new Integer[group.length];
+            for (int i = 0; i < group.length; i++) {
+                order[i] = group[i];
+            }
+            Arrays.sort(order, this::compareRecords);
+
+            List<TableTennisPlayer> players = new ArrayList<TableTennisPlayer>(group.length);
+            for (int player : order) {
+                players.add(this.allPlayers.get(player));
+            }
+            ranked.add(players);
+        }
+        return ranked;
+    }
+
+    /**
+     * Puts the players who went through into the order of the knock-out draw, where players next to each other face
+     * each other in the first round. The players are listed a group at a time, taking place {@code k} from the group
+     * {@code k} after it, so (with more than 1 group) a group winner faces the runner-up of the next group rather than
+     * their own.
+     * @return the players who went through, in the order of the draw.
+     */
+    private ArrayList<TableTennisPlayer> drawKnockout() {
+        int numGroups = this.standings.size();
+        ArrayList<TableTennisPlayer> players = new ArrayList<TableTennisPlayer>();
+        for (int group = 0; group < numGroups; group++) {
+            for (int place = 0; place < this.qualifiers; place++) {
+                List<TableTennisPlayer> from = this.standings.get((group + place) % numGroups);
+                if (place < from.size()) {
+                    players.add(from.get(place));
+                }
+            }
+        }
+        return players;
+    }
+}
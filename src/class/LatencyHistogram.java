@@ -0,0 +1,132 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class counts how long something took (in nanoseconds), in buckets which double in size, so any number of values
+ * can be recorded using a fixed amount of memory.
+ * <p>
+ *     A value is put in bucket {@code b} when it is from {@code 2^(b-1)} up to, but not including, {@code 2^b}, found from
+ *     the number of leading zero bits. Every bucket is a {@link LongAdder}, so many threads can record values at once
+ *     without waiting for each other. Percentiles are given as the top of the bucket they fall in, so are at most twice the
+ *     real value.
+ * </p>
+ * @see SimulationMetrics
+ */
+public class LatencyHistogram {
+    /**
+     * The number of buckets, one for 0 and one for each bit of a positive {@code long}.
+     */
+    private static final int NUM_BUCKETS = Long.SIZE;
+
+    /**
+     * The number of values in each bucket.
+     */
+    private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+    /**
+     * The total of every value recorded.
+     */
+    private final LongAdder total = new LongAdder();
+    /**
+     * The largest value recorded.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            this.buckets[b] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value.
+     * @param nanos the time taken in nanoseconds, where a negative time is recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of values recorded.
+     * @return the number of values.
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the total of every value recorded.
+     * @return the total in nanoseconds.
+     */
+    public long getTotal() {
+        return this.total.sum();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     * @return the mean in nanoseconds, or 0 if no values have been recorded.
+     */
+    public double getMean() {
+        long count = this.getCount();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) this.total.sum() / count;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     * @return the largest value in nanoseconds, or 0 if no values have been recorded.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Gets the value which the given share of values are not more than, as the top of the bucket it falls in.
+     * @param percentile the share of values, from 0 to 100 (e.g. 99).
+     * @return the value in nanoseconds, or 0 if no values have been recorded.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[NUM_BUCKETS];
+        long count = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            counts[b] = this.buckets[b].sum();
+            count += counts[b];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100.0);
+        long seen = 0;
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= Math.max(target, 1)) {
+                long bucketTop = b == 0 ? 0 : (1L << b) - 1;
+                return Math.min(bucketTop, this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Removes every value recorded.
+     */
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.total.reset();
+        this.max.reset();
+    }
+}
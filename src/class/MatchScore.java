@@ -0,0 +1,64 @@
+/**
+ * This class is used to pack the score of a match (the number of rounds won by each player) into a single {@code int},
+ * so a score can be returned by a {@link MatchEngine} without creating an object.
+ * <p>
+ *     This class will not need to be instantiated, and only has static methods to create and read a score.
+ * </p>
+ * @see MatchEngine
+ */
+public class MatchScore {
+    /**
+     * The number of rounds needed to win a match.
+     */
+    public static final int ROUNDS_TO_WIN = 6;
+
+    /**
+     * Packs the rounds won by each player into a score.
+     * @param p1Rounds rounds won by player 1.
+     * @param p2Rounds rounds won by player 2.
+     * @return the score.
+     */
+    public static int of(int p1Rounds, int p2Rounds) {
+        return (p1Rounds << 8) | p2Rounds;
+    }
+
+    /**
+     * Gets the rounds won by player 1.
+     * @param score the score.
+     * @return rounds won by player 1.
+     */
+    public static int p1Rounds(int score) {
+        return score >>> 8;
+    }
+
+    /**
+     * Gets the rounds won by player 2.
+     * @param score the score.
+     * @return rounds won by player 2.
+     */
+    public static int p2Rounds(int score) {
+        return score & 0xFF;
+    }
+
+    /**
+     * Gets the winner of the match.
+     * @param score the score.
+     * @return the winner (1: player 1, 2: player 2)
+     */
+    public static int winner(int score) {
+        if (p1Rounds(score) > p2Rounds(score)) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+
+    /**
+     * Used to output a score, e.g. {@code "6-4"}.
+     * @param score the score.
+     * @return the string containing the score.
+     */
+    public static String toString(int score) {
+        return p1Rounds(score) + "-" + p2Rounds(score);
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.SplittableRandom;
+
+/**
+ * This class gives every match of a seeded tournament its own random generator, worked out from the seed, the round and
+ * the match's slot in the round (its position in the bracket, from 0), instead of being taken from a generator shared
+ * by the tournament.
+ * <p>
+ *     As a match's generator depends only on where it is in the bracket, it takes the same random numbers however many
+ *     tables there are, whichever table plays it, in whatever order the matches are played (round by round or in
+ *     dataflow mode), and whether or not the tournament was carried on from a {@link TournamentCheckpoint}. So a seeded
+ *     run is always the same, bit for bit, and can be checked by a {@link GoldenReplay}.
+ * </p>
+ * <p>
+ *     The seed, round and slot are combined with the same mixing function {@link SplittableRandom} uses, so the
+ *     generators of neighbouring matches (or tournaments with neighbouring seeds) have nothing in common.
+ * </p>
+ * @see TableTennisTournament
+ * @see GoldenReplay
+ */
+public class MatchStreams {
+    /**
+     * An odd number with no pattern in its bits (2^64 / the golden ratio), used to spread out the round and slot.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Creates the generator for a match.
+     * @param seed the seed of the tournament.
+     * @param round the knock-out round of the match from 1, or minus the matchday of a group stage match
+     *              ({@link GroupStageTournament}).
+     * @param slot the slot of the match in the round, from 0.
+     * @return the generator, which should only be used by the match.
+     */
+    public static SplittableRandom forMatch(long seed, int round, int slot) {
+        long position = ((long) round << 32) | (slot & 0xffffffffL);
+        return new SplittableRandom(mix64(mix64(seed) + position * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Mixes the bits of a number, so every bit of the result depends on every bit of the number (as used by
+     * {@link SplittableRandom}).
+     * @param z the number.
+     * @return the mixed number.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
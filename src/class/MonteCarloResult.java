@@ -0,0 +1,138 @@
+/**
+ * This class holds the outcome of a {@link MonteCarloSimulation}, which is how many times each player reached each round
+ * of the knock-out tournament.
+ * <p>
+ *     Rounds are numbered from 1 (the first round, which every player reaches). Reaching round {@code numRounds + 1}
+ *     means the player won the tournament, and reaching round {@code numRounds} means the player was in the final.
+ * </p>
+ * @see MonteCarloSimulation
+ */
+public class MonteCarloResult {
+    /**
+     * The players taking part, in the order of the draw.
+     */
+    private final PlayerStore players;
+    /**
+     * The number of knock-out rounds in each tournament.
+     */
+    private final int numRounds;
+    /**
+     * The number of tournaments played.
+     */
+    private final long numTournaments;
+    /**
+     * How many times each player reached each round, stored as {@code counts[player * (numRounds + 1) + (round - 1)]}.
+     */
+    private final long[] counts;
+
+    /**
+     * Creates the result, used by {@link MonteCarloSimulation} once all tournaments have been played.
+     * @param players the players taking part, in the order of the draw.
+     * @param numRounds the number of knock-out rounds in each tournament.
+     * @param numTournaments the number of tournaments played.
+     * @param counts how many times each player reached each round.
+     */
+    public MonteCarloResult(PlayerStore players, int numRounds, long numTournaments, long[] counts) {
+        this.players = players;
+        this.numRounds = numRounds;
+        this.numTournaments = numTournaments;
+        this.counts = counts;
+    }
+
+    /**
+     * A simple getter method to return the number of players taking part.
+     * @return the number of players.
+     */
+    public int getNumPlayers() {
+        return this.players.size();
+    }
+
+    /**
+     * A simple getter method to return a player taking part.
+     * @param player the position of the player in the draw.
+     * @return the player object.
+     */
+    public TableTennisPlayer getPlayer(int player) {
+        return this.players.view(player);
+    }
+
+    /**
+     * A simple getter method to return the number of knock-out rounds.
+     * @return the number of rounds.
+     */
+    public int getNumRounds() {
+        return this.numRounds;
+    }
+
+    /**
+     * A simple getter method to return the number of tournaments played.
+     * @return the number of tournaments.
+     */
+    public long getNumTournaments() {
+        return this.numTournaments;
+    }
+
+    /**
+     * Gets how many times a player reached a round.
+     * @param player the position of the player in the draw.
+     * @param round the round, from 1 (first round) to {@code numRounds + 1} (won the tournament).
+     * @return the number of tournaments the player reached this round in.
+     */
+    public long getReachCount(int player, int round) {
+        return this.counts[player * (this.numRounds + 1) + (round - 1)];
+    }
+
+    /**
+     * Gets the chance of a player reaching a round.
+     * @param player the position of the player in the draw.
+     * @param round the round, from 1 (first round) to {@code numRounds + 1} (won the tournament).
+     * @return the probability, between 0 and 1.
+     */
+    public double getReachProbability(int player, int round) {
+        return (double) this.getReachCount(player, round) / this.numTournaments;
+    }
+
+    /**
+     * Gets the chance of a player reaching the final.
+     * @param player the position of the player in the draw.
+     * @return the probability, between 0 and 1.
+     */
+    public double getFinalProbability(int player) {
+        return this.getReachProbability(player, this.numRounds);
+    }
+
+    /**
+     * Gets the chance of a player winning the tournament.
+     * @param player the position of the player in the draw.
+     * @return the probability, between 0 and 1.
+     */
+    public double getTitleProbability(int player) {
+        return this.getReachProbability(player, this.numRounds + 1);
+    }
+
+    /**
+     * Used to output the result, with a line for each player showing the chance of winning the tournament, reaching
+     * the final and reaching each round.
+     * @return the string containing the result, to be output.
+     */
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        output.append(this.numTournaments).append(" tournaments simulated\n");
+
+        for (int p = 0; p < this.players.size(); p++) {
+            TableTennisPlayer player = this.players.view(p);
+            output.append(player.getFirstName()).append(" ").append(player.getLastName());
+            output.append(String.format(": title %.4f, final %.4f, rounds [", this.getTitleProbability(p), this.getFinalProbability(p)));
+            for (int round = 1; round <= this.numRounds; round++) {
+                if (round > 1) {
+                    output.append(", ");
+                }
+                output.append(String.format("%.4f", this.getReachProbability(p, round)));
+            }
+            output.append("]\n");
+        }
+
+        return output.toString();
+    }
+}
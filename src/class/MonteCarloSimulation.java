@@ -0,0 +1,335 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class runs a large number of independent knock-out tournaments over the same draw, without any user input,
+ * pauses or output, to estimate how likely each player is to win the tournament.
+ * <p>
+ *     The players are kept in the order given (the same draw {@link TableTennisTournament#drawPlayers()} would make, where
+ *     players next to each other face each other), in a {@link BracketTree}, so any number of players can take part, with
+ *     byes for the last players if it is not a power of 2. A player with a bye is counted as winning their first round
+ *     match. The tournaments are split between the cores of the machine using a
+ *     {@link ForkJoinPool}, where each task plays a share of the tournaments and counts how far each player got. The counts
+ *     of every task are then added together into a {@link MonteCarloResult}.
+ * </p>
+ * <p>
+ *     Each task has its own {@link SplittableRandom}, split from the task that created it, so no random generator is
+ *     shared between threads or created while matches are played.
+ * </p>
+ * <p>
+ *     When batched ({@link MonteCarloSimulation#setBatched(boolean)}), each task plays its tournaments together a round
+ *     at a time, deciding every match of the round with a {@link BatchMatchEvaluator}. Large brackets are played in
+ *     smaller batches, so a batch never holds much more than about a million matches in a round.
+ * </p>
+ * @see MonteCarloResult
+ * @see TableTennisMatch
+ */
+public class MonteCarloSimulation {
+    /**
+     * The number of tournaments a single task will play, before it stops splitting the work any further.
+     */
+    private static final long TOURNAMENTS_PER_TASK = 1024;
+    /**
+     * The most matches a batch of tournaments is allowed to hold in a round, so a batch of large brackets is split into
+     * fewer tournaments at a time rather than needing more memory than a task should.
+     */
+    private static final long MAX_BATCH_MATCHES = 1 << 20;
+    /**
+     * The players taking part in every tournament, in the order of the draw.
+     */
+    private final PlayerStore players;
+    /**
+     * The bracket of the draw, copied by each task to play its tournaments in.
+     */
+    private final BracketTree bracket;
+    /**
+     * The number of knock-out rounds in each tournament (e.g. 8 players means 3 rounds).
+     */
+    private final int numRounds;
+    /**
+     * The pool the tournaments are played on.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The engine deciding each match, {@link StandardMatchEngine} unless set.
+     */
+    private MatchEngine engine = StandardMatchEngine.INSTANCE;
+    /**
+     * Whether the matches are decided in batches by a {@link BatchMatchEvaluator}, instead of one at a time by the engine.
+     */
+    private boolean batched = false;
+
+    /**
+     * Sets up the simulation to be played on the common {@link ForkJoinPool}, which uses all the cores of the machine.
+     * @param players {@link ArrayList} of players taking part, in the order of the draw.
+     */
+    public MonteCarloSimulation(ArrayList<TableTennisPlayer> players) {
+        this(players, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sets up the simulation to be played on a given {@link ForkJoinPool}.
+     * <p>
+     *     There must be at least 2 players.
+     * </p>
+     * @param players {@link ArrayList} of players taking part, in the order of the draw.
+     * @param pool the pool to play the tournaments on.
+     */
+    public MonteCarloSimulation(ArrayList<TableTennisPlayer> players, ForkJoinPool pool) {
+        this(PlayerStore.of(players), pool);
+    }
+
+    /**
+     * Sets up the simulation for players in a {@link PlayerStore}, to be played on a given {@link ForkJoinPool}. The
+     * order of the store is the order of the draw.
+     * <p>
+     *     There must be at least 2 players.
+     * </p>
+     * @param players the players taking part, in the order of the draw.
+     * @param pool the pool to play the tournaments on.
+     */
+    public MonteCarloSimulation(PlayerStore players, ForkJoinPool pool) {
+        if (players.size() < 2) {
+            throw new IllegalArgumentException("Invalid number of players, must be at least 2.");
+        }
+
+        this.players = players;
+        this.bracket = new BracketTree(players.size());
+        this.numRounds = this.bracket.getNumRounds();
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the engine used to decide each match, e.g. {@link FastMatchEngine} to decide each match with a single random
+     * number instead of playing every round.
+     * @param engine the match engine.
+     */
+    public void setEngine(MatchEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Sets whether the matches are decided in batches by a {@link BatchMatchEvaluator}, which gives the same
+     * distribution of scores as {@link StandardMatchEngine} (and {@link FastMatchEngine}) many times faster. The engine
+     * is not used while batched.
+     * @param batched {@code true} to decide the matches in batches.
+     */
+    public void setBatched(boolean batched) {
+        this.batched = batched;
+    }
+
+    /**
+     * Plays the given number of tournaments, and returns how often each player reached each round.
+     * @param numTournaments the number of tournaments to play.
+     * @return the counts and probabilities for every player.
+     */
+    public MonteCarloResult run(long numTournaments) {
+        return this.run(numTournaments, new SplittableRandom());
+    }
+
+    /**
+     * Plays the given number of tournaments using a seeded random generator, and returns how often each player reached
+     * each round.
+     * @param numTournaments the number of tournaments to play.
+     * @param seed the seed for the random generator.
+     * @return the counts and probabilities for every player.
+     */
+    public MonteCarloResult run(long numTournaments, long seed) {
+        return this.run(numTournaments, new SplittableRandom(seed));
+    }
+
+    /**
+     * Plays the tournaments on the pool, with the tasks taking random numbers from generators split from the one given.
+     * @param numTournaments the number of tournaments to play.
+     * @param random the generator the tasks' generators are split from.
+     * @return the counts and probabilities for every player.
+     */
+    private MonteCarloResult run(long numTournaments, SplittableRandom random) {
+        long[] counts = this.pool.invoke(new TournamentTask(0, numTournaments, random));
+
+        for (int p = 0; p < this.players.size(); p++) {
+            counts[p * (this.numRounds + 1)] = numTournaments; // every player takes part in the first round
+        }
+        int byes = this.bracket.firstMatch(1) + this.bracket.numMatches(1);
+        for (int node = byes; node < this.bracket.getSize(); node++) {
+            counts[this.bracket.getPlayer(node) * (this.numRounds + 1) + 1] = numTournaments; // through without playing
+        }
+
+        return new MonteCarloResult(this.players, this.numRounds, numTournaments, counts);
+    }
+
+    /**
+     * Plays a single tournament, counting the rounds the winners of each match reach.
+     * <p>
+     *     The bracket holds indexes into the {@link PlayerStore}. Every match is filled in with its winner round by round,
+     *     so a bracket can be used for the next tournament without being reset.
+     * </p>
+     * @param bracket a copy of the bracket of the draw to play the tournament in.
+     * @param counts the counts for each player and round, updated as matches are won.
+     * @param random the generator to take random numbers from.
+     */
+    private void playTournament(BracketTree bracket, long[] counts, SplittableRandom random) {
+        for (int round = 1; round <= this.numRounds; round++) {
+            int first = bracket.firstMatch(round);
+            int last = first + bracket.numMatches(round);
+            for (int match = first; match < last; match++) {
+                int p1 = bracket.getFirst(match);
+                int p2 = bracket.getSecond(match);
+                int score = this.engine.playMatch(this.players, p1, p2, random);
+                int winner = MatchScore.winner(score) == 1 ? p1 : p2;
+
+                bracket.setWinner(match, winner);
+                counts[winner * (this.numRounds + 1) + round]++;
+            }
+        }
+    }
+
+    /**
+     * Plays a number of tournaments together, a round at a time, deciding every match of the round in one batch.
+     * <p>
+     *     The matches of each tournament's bracket are kept one after another in a single array, laid out as in
+     *     {@link BracketTree} (the players of the first round are read from the bracket of the draw), and are played in
+     *     the same way as {@link MonteCarloSimulation#playTournament(BracketTree, long[], SplittableRandom)}.
+     * </p>
+     * @param numTournaments the number of tournaments to play.
+     * @param counts the counts for each player and round, updated as matches are won.
+     * @param random the generator to take random numbers from.
+     * @throws IllegalArgumentException if the brackets of the tournaments would not fit in an array.
+     */
+    private void playTournaments(int numTournaments, long[] counts, SplittableRandom random) {
+        int size = this.bracket.getSize();
+        long length = (long) numTournaments * size;
+        if (numTournaments < 1 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of tournaments in a batch, must be from 1 to " + Integer.MAX_VALUE / size + ".");
+        }
+        int[] brackets = new int[(int) length];
+        for (int t = 0; t < numTournaments; t++) {
+            this.bracket.copyMatches(brackets, t * size);
+        }
+        float[] p1Skills = new float[(int) (length / 2)];
+        float[] p2Skills = new float[(int) (length / 2)];
+        int[] scores = new int[(int) (length / 2)];
+        BatchMatchEvaluator evaluator = new BatchMatchEvaluator();
+
+        for (int round = 1; round <= this.numRounds; round++) {
+            int first = this.bracket.firstMatch(round);
+            int last = first + this.bracket.numMatches(round);
+            int numMatches = 0;
+            for (int t = 0; t < numTournaments; t++) {
+                int bracket = t * size;
+                for (int m = first; m < last; m++) {
+                    p1Skills[numMatches] = this.players.getSkill(this.getFirst(brackets, bracket, m, round));
+                    p2Skills[numMatches] = this.players.getSkill(this.getSecond(brackets, bracket, m, round));
+                    numMatches++;
+                }
+            }
+
+            evaluator.playMatches(p1Skills, p2Skills, scores, numMatches, random);
+
+            int match = 0;
+            for (int t = 0; t < numTournaments; t++) {
+                int bracket = t * size;
+                for (int m = first; m < last; m++) {
+                    boolean p1Won = MatchScore.winner(scores[match++]) == 1;
+                    int winner = p1Won ? this.getFirst(brackets, bracket, m, round) : this.getSecond(brackets, bracket, m, round);
+
+                    brackets[bracket + m] = winner;
+                    counts[winner * (this.numRounds + 1) + round]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets player 1 of a match in one of the brackets kept by
+     * {@link MonteCarloSimulation#playTournaments(int, long[], SplittableRandom)}.
+     * @param brackets the matches of every bracket.
+     * @param bracket where the bracket starts in the array.
+     * @param match the node of the match.
+     * @param round the round of the match.
+     * @return the index of the player.
+     */
+    private int getFirst(int[] brackets, int bracket, int match, int round) {
+        return round == 1 ? this.bracket.getFirst(match) : brackets[bracket + 2 * match];
+    }
+
+    /**
+     * Gets player 2 of a match in one of the brackets kept by
+     * {@link MonteCarloSimulation#playTournaments(int, long[], SplittableRandom)}.
+     * @param brackets the matches of every bracket.
+     * @param bracket where the bracket starts in the array.
+     * @param match the node of the match.
+     * @param round the round of the match.
+     * @return the index of the player.
+     */
+    private int getSecond(int[] brackets, int bracket, int match, int round) {
+        return round == 1 ? this.bracket.getSecond(match) : brackets[bracket + 2 * match + 1];
+    }
+
+    /**
+     * A task playing a range of tournaments, splitting in half until there are few enough tournaments for one task to
+     * play them itself.
+     */
+    @SuppressWarnings("serial") // only ever run on a pool, never serialized, so it needs no serialVersionUID
+    private class TournamentTask extends RecursiveTask<long[]> {
+        /**
+         * The first tournament (inclusive) of this task.
+         */
+        private final long from;
+        /**
+         * The last tournament (exclusive) of this task.
+         */
+        private final long to;
+        /**
+         * The generator used by this task only.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Creates a task for the tournaments {@code from} up to, but not including, {@code to}.
+         * @param from the first tournament.
+         * @param to the tournament after the last one.
+         * @param random the generator for this task.
+         */
+        TournamentTask(long from, long to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        /**
+         * Plays the tournaments, or splits them between two new tasks and adds their counts together.
+         * @return the counts for each player and round.
+         */
+        @Override
+        protected long[] compute() {
+            if (this.to - this.from <= TOURNAMENTS_PER_TASK) {
+                long[] counts = new long[players.size() * (numRounds + 1)];
+                if (batched) {
+                    long batchSize = Math.max(1, Math.min(TOURNAMENTS_PER_TASK, MAX_BATCH_MATCHES / bracket.getSize()));
+                    for (long t = this.from; t < this.to; t += batchSize) {
+                        playTournaments((int) Math.min(batchSize, this.to - t), counts, this.random);
+                    }
+                    return counts;
+                }
+                BracketTree bracket = new BracketTree(MonteCarloSimulation.this.bracket);
+                for (long t = this.from; t < this.to; t++) {
+                    playTournament(bracket, counts, this.random);
+                }
+                return counts;
+            }
+
+            long middle = (this.from + this.to) >>> 1;
+            TournamentTask left = new TournamentTask(this.from, middle, this.random.split());
+            left.fork();
+            long[] counts = new TournamentTask(middle, this.to, this.random).compute();
+            long[] leftCounts = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+    }
+}
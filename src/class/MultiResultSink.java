@@ -0,0 +1,99 @@
+import java.util.List;
+
+/**
+ * This class implements the {@link ResultSink} interface by giving every event to a number of other sinks, in the order
+ * they were given. This allows the matches of a tournament to be output and recorded at the same time, e.g. to a
+ * {@link PrintResultSink} and a {@link ResultStore}.
+ * @see AsyncResultSink
+ */
+public class MultiResultSink implements ResultSink {
+    /**
+     * The sinks every event is given to.
+     */
+    private final ResultSink[] sinks;
+
+    /**
+     * Creates the sink.
+     * @param sinks the sinks every event is given to.
+     */
+    public MultiResultSink(ResultSink... sinks) {
+        this.sinks = sinks.clone();
+    }
+
+    /**
+     * Gives the start of a round to every sink.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+        for (ResultSink sink : this.sinks) {
+            sink.roundStarted(round, pairings);
+        }
+    }
+
+    /**
+     * Gives a match to every sink.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public void matchPlayed(TableTennisMatch match) {
+        for (ResultSink sink : this.sinks) {
+            sink.matchPlayed(match);
+        }
+    }
+
+    /**
+     * Gives the winner of the tournament to every sink.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public void tournamentWon(TableTennisPlayer winner) {
+        for (ResultSink sink : this.sinks) {
+            sink.tournamentWon(winner);
+        }
+    }
+
+    /**
+     * Gives the standings of a group stage to every sink.
+     * @param standings the players of each group, from first place to last.
+     */
+    @Override
+    public void groupsComplete(List<List<TableTennisPlayer>> standings) {
+        for (ResultSink sink : this.sinks) {
+            sink.groupsComplete(standings);
+        }
+    }
+
+    /**
+     * Gives a bye to every sink.
+     * @param round the round, from 1.
+     * @param player the player given the bye.
+     */
+    @Override
+    public void byeGiven(int round, TableTennisPlayer player) {
+        for (ResultSink sink : this.sinks) {
+            sink.byeGiven(round, player);
+        }
+    }
+
+    /**
+     * Flushes every sink.
+     */
+    @Override
+    public void flush() {
+        for (ResultSink sink : this.sinks) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Closes every sink.
+     */
+    @Override
+    public void close() {
+        for (ResultSink sink : this.sinks) {
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class stores a large number of table tennis players as columns of primitive values, instead of a
+ * {@link TableTennisPlayer} object for each.
+ * <p>
+ *     Each player is addressed by their position in the store (an {@code int} index). The 6 skill attributes and the age
+ *     are stored in {@code byte[]} columns, and the average skill (the only value the match engines need) in a
+ *     {@code float[]}, so playing a match only reads 2 values from a single array. The match engines can be given
+ *     indexes into the store (e.g. {@link TableTennisMatch#playPair(PlayerStore, int, int, java.util.random.RandomGenerator)}),
+ *     and a {@link TableTennisPlayer} is only created when a player needs to be displayed ({@link PlayerStore#view(int)}).
+ * </p>
+ * <p>
+ *     A store read straight from a {@code JSON} roster ({@link PlayerStore#read(String)}) keeps every name in a single
+ *     {@link String}, with the end of each name in an {@code int[]}, so a large roster is held without a
+ *     {@link TableTennisPlayer} or {@link String} for each player.
+ * </p>
+ * @see TableTennisPlayer
+ * @see MonteCarloSimulation
+ */
+public class PlayerStore {
+    /**
+     * The column for serve power, used with {@link PlayerStore#getAttribute(int, int)}.
+     */
+    public static final int SERVE_POWER = 0;
+    /**
+     * The column for serve skill.
+     */
+    public static final int SERVE_SKILL = 1;
+    /**
+     * The column for spin.
+     */
+    public static final int SPIN = 2;
+    /**
+     * The column for forehand.
+     */
+    public static final int FOREHAND = 3;
+    /**
+     * The column for backhand.
+     */
+    public static final int BACKHAND = 4;
+    /**
+     * The column for fitness.
+     */
+    public static final int FITNESS = 5;
+    /**
+     * The number of skill attributes.
+     */
+    public static final int NUM_ATTRIBUTES = 6;
+
+    /**
+     * The number of players in the store.
+     */
+    private final int numPlayers;
+    /**
+     * The skill attributes, one column for each attribute with a value for each player.
+     */
+    private final byte[][] attributes;
+    /**
+     * The age of each player.
+     */
+    private final byte[] ages;
+    /**
+     * The average skill of each player, calculated the same as {@link TableTennisPlayer#calculateAverageSkill()}.
+     */
+    private final float[] skills;
+    /**
+     * The id of each player in the roster they came from.
+     */
+    private final int[] ids;
+    /**
+     * The player objects the store was created from, used to display players. {@code null} if not created from player
+     * objects.
+     */
+    private final TableTennisPlayer[] players;
+    /**
+     * The roster the store was created from, used to display players. {@code null} if not created from a
+     * {@link BinaryRoster}.
+     */
+    private final BinaryRoster roster;
+    /**
+     * The first and last name of every player one after another, used to display players. {@code null} if not read from
+     * a {@code JSON} roster.
+     */
+    private final String names;
+    /**
+     * Where each name ends in {@link PlayerStore#names}, with the first name of player {@code i} at {@code 2 * i} and
+     * their last name at {@code 2 * i + 1}. Each name starts where the one before it ends.
+     */
+    private final int[] nameEnds;
+
+    /**
+     * Creates an empty store, which is filled by the static methods creating a store. Only one of the ways to display
+     * players is given.
+     * @param numPlayers the number of players.
+     * @param players the player objects, or {@code null}.
+     * @param roster the binary roster, or {@code null}.
+     * @param names the names of the players, or {@code null}.
+     * @param nameEnds where each name ends, or {@code null}.
+     */
+    private PlayerStore(int numPlayers, TableTennisPlayer[] players, BinaryRoster roster, String names, int[] nameEnds) {
+        this.numPlayers = numPlayers;
+        this.attributes = new byte[NUM_ATTRIBUTES][numPlayers];
+        this.ages = new byte[numPlayers];
+        this.skills = new float[numPlayers];
+        this.ids = new int[numPlayers];
+        this.players = players;
+        this.roster = roster;
+        this.names = names;
+        this.nameEnds = nameEnds;
+    }
+
+    /**
+     * Creates a store from player objects, keeping the order of the list.
+     * @param players the players.
+     * @return the store.
+     * @throws IllegalArgumentException if a player's age or an attribute is not from 0 to 127.
+     */
+    public static PlayerStore of(List<TableTennisPlayer> players) {
+        PlayerStore store = new PlayerStore(players.size(), players.toArray(new TableTennisPlayer[0]), null, null, null);
+        for (int i = 0; i < store.numPlayers; i++) {
+            TableTennisPlayer p = store.players[i];
+            store.set(i, p.getId(), p.getAge(), p.getServePower(), p.getServeSkill(), p.getSpin(), p.getForehand(), p.getBackhand(), p.getFitness());
+        }
+        return store;
+    }
+
+    /**
+     * Creates a store containing every player of a binary roster, keeping the order of the roster. The names are not
+     * copied, and are read from the roster when a player is displayed.
+     * @param roster the roster.
+     * @return the store.
+     */
+    public static PlayerStore of(BinaryRoster roster) {
+        PlayerStore store = new PlayerStore(roster.size(), null, roster, null, null);
+        for (int i = 0; i < store.numPlayers; i++) {
+            store.set(i, roster.getId(i), roster.getAttribute(i, 0), roster.getAttribute(i, 1), roster.getAttribute(i, 2),
+                    roster.getAttribute(i, 3), roster.getAttribute(i, 4), roster.getAttribute(i, 5), roster.getAttribute(i, 6));
+        }
+        return store;
+    }
+
+    /**
+     * Creates a store containing every player of a {@code JSON} roster, keeping the order of the file. The players are
+     * read one at a time straight into the columns, and only their names are kept besides, so no player objects are
+     * created until a player is displayed.
+     * @param jsonFile the path to the {@code JSON} file containing the players.
+     * @return the store.
+     * @throws IOException if the file could not be read.
+     * @throws IllegalArgumentException if a player's age or an attribute is not from 0 to 127.
+     */
+    public static PlayerStore read(String jsonFile) throws IOException {
+        int numPlayers = 0;
+        int[] values = new int[8 * 1024]; // the id, age and skill attributes of each player, one after another
+        StringBuilder names = new StringBuilder();
+        int[] nameEnds = new int[2 * 1024];
+        try (JsonReader jsonReader = new JsonReader(new BufferedReader(new FileReader(jsonFile)))) {
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                ReadPlayerData p = GetPlayerData.readPlayer(jsonReader);
+                if (2 * numPlayers == nameEnds.length) {
+                    values = Arrays.copyOf(values, 2 * values.length);
+                    nameEnds = Arrays.copyOf(nameEnds, 2 * nameEnds.length);
+                }
+
+                int at = 8 * numPlayers;
+                values[at] = p.id;
+                values[at + 1] = p.age;
+                values[at + 2] = p.serve_power;
+                values[at + 3] = p.serve_skill;
+                values[at + 4] = p.spin;
+                values[at + 5] = p.forehand_power;
+                values[at + 6] = p.backhand_power;
+                values[at + 7] = p.fitness;
+                nameEnds[2 * numPlayers] = names.append(p.first_name == null ? "" : p.first_name).length();
+                nameEnds[2 * numPlayers + 1] = names.append(p.last_name == null ? "" : p.last_name).length();
+                numPlayers++;
+            }
+            jsonReader.endArray();
+        }
+
+        PlayerStore store = new PlayerStore(numPlayers, null, null, names.toString(), Arrays.copyOf(nameEnds, 2 * numPlayers));
+        for (int i = 0; i < numPlayers; i++) {
+            int at = 8 * i;
+            store.set(i, values[at], values[at + 1], values[at + 2], values[at + 3], values[at + 4], values[at + 5],
+                    values[at + 6], values[at + 7]);
+        }
+        return store;
+    }
+
+    /**
+     * Creates a copy of the store with one skill attribute of one player changed, e.g. to see how the player would do
+     * with a better forehand ({@link WhatIfAnalysis}). The average skill of the player is worked out again, and every
+     * other player is the same.
+     * <p>
+     *     If the store was created from player objects or read from a {@code JSON} roster, the changed player is displayed
+     *     with the new attribute. If it was created from a {@link BinaryRoster}, the player is still displayed as they are
+     *     in the roster.
+     * </p>
+     * @param index the position of the player in the store.
+     * @param attribute the column of the attribute (e.g. {@link PlayerStore#FOREHAND}).
+     * @param value the new value of the attribute.
+     * @return the changed copy.
+     * @throws IllegalArgumentException if the attribute is not a skill attribute, or the value is not from 0 to 127.
+     */
+    public PlayerStore withAttribute(int index, int attribute, int value) {
+        if (attribute < 0 || attribute >= NUM_ATTRIBUTES) {
+            throw new IllegalArgumentException("Invalid attribute, must be from 0 to " + (NUM_ATTRIBUTES - 1) + ".");
+        }
+
+        PlayerStore store = new PlayerStore(this.numPlayers, this.players == null ? null : this.players.clone(), this.roster, this.names, this.nameEnds);
+        for (int column = 0; column < NUM_ATTRIBUTES; column++) {
+            System.arraycopy(this.attributes[column], 0, store.attributes[column], 0, this.numPlayers);
+        }
+        System.arraycopy(this.ages, 0, store.ages, 0, this.numPlayers);
+        System.arraycopy(this.skills, 0, store.skills, 0, this.numPlayers);
+        System.arraycopy(this.ids, 0, store.ids, 0, this.numPlayers);
+
+        int[] values = new int[NUM_ATTRIBUTES];
+        for (int column = 0; column < NUM_ATTRIBUTES; column++) {
+            values[column] = column == attribute ? value : this.attributes[column][index];
+        }
+        store.set(index, this.ids[index], this.ages[index], values[SERVE_POWER], values[SERVE_SKILL], values[SPIN],
+                values[FOREHAND], values[BACKHAND], values[FITNESS]);
+        if (store.players != null) {
+            TableTennisPlayer p = store.players[index];
+            store.players[index] = new TableTennisPlayer(p.getId(), p.getFirstName(), p.getLastName(), p.getAge(),
+                    values[SERVE_POWER], values[SERVE_SKILL], values[SPIN], values[FOREHAND], values[BACKHAND], values[FITNESS]);
+        }
+        return store;
+    }
+
+    /**
+     * Sets the values of a player.
+     * @param index the position of the player in the store.
+     * @param id integer identifying the player in the roster
+     * @param age integer for players age
+     * @param servePower integer for power in serve
+     * @param serveSkill integer for skill in serve
+     * @param spin integer for skill in spin
+     * @param forehand integer for skill in forehand
+     * @param backhand integer for skill in backhand
+     * @param fitness integer for fitness
+     */
+    private void set(int index, int id, int age, int servePower, int serveSkill, int spin, int forehand, int backhand, int fitness) {
+        this.ids[index] = id;
+        this.ages[index] = toByte(age);
+        this.attributes[SERVE_POWER][index] = toByte(servePower);
+        this.attributes[SERVE_SKILL][index] = toByte(serveSkill);
+        this.attributes[SPIN][index] = toByte(spin);
+        this.attributes[FOREHAND][index] = toByte(forehand);
+        this.attributes[BACKHAND][index] = toByte(backhand);
+        this.attributes[FITNESS][index] = toByte(fitness);
+        this.skills[index] = TableTennisPlayer.calculateAverageSkill(servePower, serveSkill, spin, forehand, backhand, fitness);
+    }
+
+    /**
+     * Checks an attribute fits in a single byte, as stored in a column, in the same way as {@link BinaryRoster}.
+     * @param value the attribute.
+     * @return the attribute as a byte.
+     * @throws IllegalArgumentException if the attribute does not fit.
+     */
+    private static byte toByte(int value) {
+        if (value < 0 || value > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid attribute, must be from 0 to " + Byte.MAX_VALUE + ": " + value);
+        }
+        return (byte) value;
+    }
+
+    /**
+     * A simple getter method to return the number of players in the store.
+     * @return the number of players.
+     */
+    public int size() {
+        return this.numPlayers;
+    }
+
+    /**
+     * Gets the average skill of a player.
+     * @param index the position of the player in the store.
+     * @return the average skill.
+     */
+    public float getSkill(int index) {
+        return this.skills[index];
+    }
+
+    /**
+     * Gets a skill attribute of a player.
+     * @param index the position of the player in the store.
+     * @param attribute the column of the attribute (e.g. {@link PlayerStore#SPIN}).
+     * @return the attribute.
+     */
+    public int getAttribute(int index, int attribute) {
+        return this.attributes[attribute][index];
+    }
+
+    /**
+     * Gets the age of a player.
+     * @param index the position of the player in the store.
+     * @return the age.
+     */
+    public int getAge(int index) {
+        return this.ages[index];
+    }
+
+    /**
+     * Gets the id of a player in the roster they came from.
+     * @param index the position of the player in the store.
+     * @return the id.
+     */
+    public int getId(int index) {
+        return this.ids[index];
+    }
+
+    /**
+     * Gets a player as a {@link TableTennisPlayer}, to be displayed.
+     * @param index the position of the player in the store.
+     * @return the player object.
+     */
+    public TableTennisPlayer view(int index) {
+        if (this.players != null) {
+            return this.players[index];
+        }
+        if (this.roster != null) {
+            return this.roster.getPlayer(index);
+        }
+
+        int firstStart = index == 0 ? 0 : this.nameEnds[2 * index - 1];
+        String firstName = this.names.substring(firstStart, this.nameEnds[2 * index]);
+        String lastName = this.names.substring(this.nameEnds[2 * index], this.nameEnds[2 * index + 1]);
+        return new TableTennisPlayer(this.ids[index], firstName, lastName, this.ages[index],
+                this.attributes[SERVE_POWER][index], this.attributes[SERVE_SKILL][index], this.attributes[SPIN][index],
+                this.attributes[FOREHAND][index], this.attributes[BACKHAND][index], this.attributes[FITNESS][index]);
+    }
+}
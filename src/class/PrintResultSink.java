@@ -0,0 +1,134 @@
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * This class implements the {@link ResultSink} interface by writing the events of a tournament to a {@link PrintStream},
+ * in the same format the tournament has always been output in.
+ * <p>
+ *     Events are added to a buffer, which is written to the stream in a single call when the sink is flushed (or the
+ *     buffer gets large). This means the stream is only locked once for many matches, instead of once for every line.
+ *     The sink can be used by many tables at once, but is quickest when used by a single thread, such as the writer of
+ *     an {@link AsyncResultSink}.
+ * </p>
+ * @see AsyncResultSink
+ */
+public class PrintResultSink implements ResultSink {
+    /**
+     * The size the buffer can reach before it is written without waiting to be flushed.
+     */
+    private static final int MAX_BUFFER = 64 * 1024;
+
+    /**
+     * The stream the events are written to.
+     */
+    private final PrintStream output;
+    /**
+     * The events which have not been written yet.
+     */
+    private final StringBuilder buffer = new StringBuilder(MAX_BUFFER);
+
+    /**
+     * Creates the sink.
+     * @param output the stream to write the events to, e.g. {@link System#out}.
+     */
+    public PrintResultSink(PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Adds the round number and every pair of players facing each other to the buffer.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public synchronized void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+        this.buffer.append("\nRound ").append(round).append(":\n");
+        for (List<TableTennisPlayer> pair : pairings) {
+            appendName(this.buffer, pair.get(0)).append(" vs ");
+            appendName(this.buffer, pair.get(1)).append('\n');
+        }
+        this.buffer.append('\n');
+        this.writeIfFull();
+    }
+
+    /**
+     * Adds the match, as given by {@link TableTennisMatch#toString()}, to the buffer.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public synchronized void matchPlayed(TableTennisMatch match) {
+        match.appendTo(this.buffer).append('\n');
+        this.writeIfFull();
+    }
+
+    /**
+     * Adds the winner of the tournament to the buffer.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public synchronized void tournamentWon(TableTennisPlayer winner) {
+        this.buffer.append("\n\nThe tournament winner is: ");
+        appendName(this.buffer, winner).append("\n\n");
+        this.writeIfFull();
+    }
+
+    /**
+     * Adds the players of each group, from first place to last, to the buffer.
+     * @param standings the players of each group, from first place to last.
+     */
+    @Override
+    public synchronized void groupsComplete(List<List<TableTennisPlayer>> standings) {
+        for (int group = 0; group < standings.size(); group++) {
+            this.buffer.append("\nGroup ").append(group + 1).append(":\n");
+            List<TableTennisPlayer> players = standings.get(group);
+            for (int place = 0; place < players.size(); place++) {
+                appendName(this.buffer.append(place + 1).append(". "), players.get(place)).append('\n');
+            }
+        }
+        this.buffer.append('\n');
+        this.writeIfFull();
+    }
+
+    /**
+     * Adds the player given a bye to the buffer, after the pairings of the round.
+     * @param round the round, from 1.
+     * @param player the player given the bye.
+     */
+    @Override
+    public synchronized void byeGiven(int round, TableTennisPlayer player) {
+        appendName(this.buffer, player).append(" has a bye\n\n");
+        this.writeIfFull();
+    }
+
+    /**
+     * Writes the buffer to the stream.
+     */
+    @Override
+    public synchronized void flush() {
+        if (this.buffer.length() > 0) {
+            this.output.append(this.buffer);
+            this.buffer.setLength(0);
+        }
+        this.output.flush();
+    }
+
+    /**
+     * Writes the buffer to the stream if it has reached {@link PrintResultSink#MAX_BUFFER}.
+     */
+    private void writeIfFull() {
+        if (this.buffer.length() >= MAX_BUFFER) {
+            this.output.append(this.buffer);
+            this.buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Adds the full name of a player to a buffer.
+     * @param buffer the buffer.
+     * @param player the player.
+     * @return the buffer.
+     */
+    private static StringBuilder appendName(StringBuilder buffer, TableTennisPlayer player) {
+        return buffer.append(player.getFirstName()).append(' ').append(player.getLastName());
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.List;
+
+/**
+ * This class implements the {@link ResultSink} interface by ignoring every event, so nothing is output while a
+ * tournament is played (e.g. for bulk runs where only the winner is needed).
+ * @see SummaryResultSink
+ */
+public class QuietResultSink implements ResultSink {
+    /**
+     * A shared sink, which can be used by any number of tournaments as it has no attributes.
+     */
+    public static final QuietResultSink INSTANCE = new QuietResultSink();
+
+    /**
+     * Does nothing.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+    }
+
+    /**
+     * Does nothing.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public void matchPlayed(TableTennisMatch match) {
+    }
+
+    /**
+     * Does nothing.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public void tournamentWon(TableTennisPlayer winner) {
+    }
+}
@@ -0,0 +1,294 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * This class implements the {@link MatchEngine} interface by playing every point of a match, using each of the players'
+ * attributes instead of only their average skill.
+ * <p>
+ *     Each round of the match is a game to 11 points (won by 2 clear points), and the players take turns to serve 2
+ *     points at a time (1 at a time from 10-10). A point is made up of:
+ * </p>
+ * <ul>
+ *     <li>The serve - lost as a fault with a chance from the server's serve skill.</li>
+ *     <li>The return - missed (the serve is won outright) with the chance of missing any other shot, plus a chance from
+ *     the server's serve power, serve skill and spin against the receiver's forehand and backhand.</li>
+ *     <li>The rally - the players take turns to hit the ball, on their forehand or backhand (equally likely), until one
+ *     misses. The chance of a miss falls with the skill of the stroke being played and rises with the spin of the other
+ *     player.</li>
+ *     <li>Fatigue - the chance of a miss rises with every shot of a rally, more quickly for players with less fitness.</li>
+ * </ul>
+ * <p>
+ *     Every point with the same server has the same chance of being won, so the rally is followed shot by shot once per
+ *     match for each server ({@link RallyMatchEngine#serverWinsPoint}), adding up the chance of the rally ending on each
+ *     shot. This gives the exact chance of the server winning a point, the same as playing out every shot, and is kept
+ *     as a 32-bit threshold. The points are then played one at a time, 2 from each {@code nextLong()}, and counted
+ *     without a branch as the winner of a point can't be predicted. Nothing is created while a match is played.
+ * </p>
+ * @see MatchEngine
+ * @see StandardMatchEngine
+ */
+public class RallyMatchEngine implements MatchEngine {
+    /**
+     * A shared engine, which can be used by any number of threads as it has no attributes.
+     */
+    public static final RallyMatchEngine INSTANCE = new RallyMatchEngine();
+    /**
+     * The number of points needed to win a game, with a lead of 2.
+     */
+    public static final int POINTS_TO_WIN = 11;
+    /**
+     * The highest value of an attribute.
+     */
+    private static final int MAX_ATTRIBUTE = 10;
+    /**
+     * A chance of 1, as a 32-bit threshold.
+     */
+    private static final double ONE = 0x1p32;
+    /**
+     * Used to take the bits for a point from a draw.
+     */
+    private static final long POINT_MASK = 0xFFFFFFFFL;
+    /**
+     * The chance of a rally still going on below which it is treated as over, as it can't change a 32-bit threshold.
+     */
+    private static final double RALLY_OVER = 0x1p-33;
+
+    /**
+     * The lowest chance of a fault.
+     */
+    private static final double FAULT_BASE = 0.01;
+    /**
+     * How much the least skilled server adds to the chance of a fault.
+     */
+    private static final double FAULT_RANGE = 0.07;
+    /**
+     * How much the best serve adds to the chance of missing the return, against the weakest receiver.
+     */
+    private static final double SERVE_PRESSURE = 0.10;
+    /**
+     * How much the most powerful, spinning serve adds to the chance of missing the return, against the weakest receiver.
+     */
+    private static final double SPIN_PRESSURE = 0.12;
+    /**
+     * The chance of missing a shot with the least skilled stroke, before spin.
+     */
+    private static final double MISS_BASE = 0.28;
+    /**
+     * How much the most skilled stroke takes from the chance of missing.
+     */
+    private static final double MISS_STROKE = 0.20;
+    /**
+     * How much the most spin adds to the chance of the other player missing, halved against the most skilled stroke.
+     */
+    private static final double MISS_SPIN = 0.10;
+    /**
+     * How much each shot of a rally adds to the chance of missing, for the fittest player.
+     */
+    private static final double FATIGUE_BASE = 0.0005;
+    /**
+     * How much the least fit player adds to the chance of missing with each shot.
+     */
+    private static final double FATIGUE_RANGE = 0.0035;
+
+    /**
+     * Plays a match point by point, using the players' attributes.
+     * @param p1 Player 1 in the match
+     * @param p2 Player 2 in the match
+     * @param random the generator to take random numbers from.
+     * @return the score of the match.
+     */
+    @Override
+    public int playMatch(TableTennisPlayer p1, TableTennisPlayer p2, RandomGenerator random) {
+        return playAttributes(p1.getServePower(), p1.getServeSkill(), p1.getSpin(), p1.getForehand(), p1.getBackhand(), p1.getFitness(),
+                p2.getServePower(), p2.getServeSkill(), p2.getSpin(), p2.getForehand(), p2.getBackhand(), p2.getFitness(), random);
+    }
+
+    /**
+     * Plays a match point by point, using the players' attributes from the store.
+     * @param store the store containing the players.
+     * @param p1 Player 1's position in the store
+     * @param p2 Player 2's position in the store
+     * @param random the generator to take random numbers from.
+     * @return the score of the match.
+     */
+    @Override
+    public int playMatch(PlayerStore store, int p1, int p2, RandomGenerator random) {
+        return playAttributes(store.getAttribute(p1, PlayerStore.SERVE_POWER), store.getAttribute(p1, PlayerStore.SERVE_SKILL),
+                store.getAttribute(p1, PlayerStore.SPIN), store.getAttribute(p1, PlayerStore.FOREHAND),
+                store.getAttribute(p1, PlayerStore.BACKHAND), store.getAttribute(p1, PlayerStore.FITNESS),
+                store.getAttribute(p2, PlayerStore.SERVE_POWER), store.getAttribute(p2, PlayerStore.SERVE_SKILL),
+                store.getAttribute(p2, PlayerStore.SPIN), store.getAttribute(p2, PlayerStore.FOREHAND),
+                store.getAttribute(p2, PlayerStore.BACKHAND), store.getAttribute(p2, PlayerStore.FITNESS), random);
+    }
+
+    /**
+     * Plays a match between 2 players with the given attributes.
+     * @param servePower1 Player 1's serve power
+     * @param serveSkill1 Player 1's serve skill
+     * @param spin1 Player 1's spin
+     * @param forehand1 Player 1's forehand
+     * @param backhand1 Player 1's backhand
+     * @param fitness1 Player 1's fitness
+     * @param servePower2 Player 2's serve power
+     * @param serveSkill2 Player 2's serve skill
+     * @param spin2 Player 2's spin
+     * @param forehand2 Player 2's forehand
+     * @param backhand2 Player 2's backhand
+     * @param fitness2 Player 2's fitness
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return the score of the match (see {@link MatchScore}).
+     */
+    public static int playAttributes(int servePower1, int serveSkill1, int spin1, int forehand1, int backhand1, int fitness1,
+                                     int servePower2, int serveSkill2, int spin2, int forehand2, int backhand2, int fitness2,
+                                     RandomGenerator random) {
+        double p1Serving = serverWinsPoint(servePower1, serveSkill1, spin1, forehand1, backhand1, fitness1,
+                spin2, forehand2, backhand2, fitness2);
+        double p2Serving = serverWinsPoint(servePower2, serveSkill2, spin2, forehand2, backhand2, fitness2,
+                spin1, forehand1, backhand1, fitness1);
+        int score = play((long) (p1Serving * ONE), (long) (p2Serving * ONE), random);
+
+        SimulationMetrics.roundsPlayed(MatchScore.p1Rounds(score) + MatchScore.p2Rounds(score));
+        return score;
+    }
+
+    /**
+     * Plays the games of a match until a player has won {@value MatchScore#ROUNDS_TO_WIN}, and the points of each game
+     * until a player has at least {@value #POINTS_TO_WIN} points and a lead of 2. The first serve of each game goes to
+     * each player in turn.
+     * @param p1Serving the threshold for player 1 winning a point on their own serve.
+     * @param p2Serving the threshold for player 2 winning a point on their own serve.
+     * @param random the generator to take random numbers from.
+     * @return the score of the match (see {@link MatchScore}).
+     */
+    private static int play(long p1Serving, long p2Serving, RandomGenerator random) {
+        long bits = 0;
+        boolean drawn = false;
+        int p1Wins = 0;
+        int p2Wins = 0;
+        int firstServer = 0;
+
+        while (p1Wins < MatchScore.ROUNDS_TO_WIN && p2Wins < MatchScore.ROUNDS_TO_WIN) {
+            int p1Points = 0;
+            int p2Points = 0;
+            int server = firstServer;
+            while (true) {
+                if (drawn) {
+                    bits >>>= 32; // the second point from the last draw
+                } else {
+                    bits = random.nextLong();
+                }
+                drawn = !drawn;
+
+                long threshold = server == 0 ? p1Serving : p2Serving;
+                int serverWon = (int) (((bits & POINT_MASK) - threshold) >>> 63); // 1 if below the threshold
+                int p2Won = server ^ serverWon ^ 1;
+                p1Points += p2Won ^ 1;
+                p2Points += p2Won;
+
+                int numPoints = p1Points + p2Points;
+                int lead = p1Points - p2Points;
+                if ((p1Points >= POINTS_TO_WIN || p2Points >= POINTS_TO_WIN) && (lead >= 2 || lead <= -2)) {
+                    break;
+                }
+                if ((numPoints & 1) == 0 || numPoints >= 2 * (POINTS_TO_WIN - 1)) {
+                    server ^= 1; // every 2 points, and every point from 10-10
+                }
+            }
+
+            if (p1Points > p2Points) {
+                p1Wins += 1;
+            } else {
+                p2Wins += 1;
+            }
+            firstServer ^= 1;
+        }
+
+        return MatchScore.of(p1Wins, p2Wins);
+    }
+
+    /**
+     * Works out the chance of the server winning a point, by following the rally shot by shot.
+     * <p>
+     *     After the serve, the receiver plays the even shots (from the return, shot 0) and the server the odd shots.
+     *     For each shot, the chance of the rally reaching it is multiplied by the chance of the shot being missed, and
+     *     added to the server's chance if the receiver misses. The loop ends once the rally is almost certainly over.
+     * </p>
+     * @param servePower the server's serve power.
+     * @param serveSkill the server's serve skill.
+     * @param serverSpin the server's spin.
+     * @param serverForehand the server's forehand.
+     * @param serverBackhand the server's backhand.
+     * @param serverFitness the server's fitness.
+     * @param receiverSpin the receiver's spin.
+     * @param receiverForehand the receiver's forehand.
+     * @param receiverBackhand the receiver's backhand.
+     * @param receiverFitness the receiver's fitness.
+     * @return the chance of the server winning the point.
+     */
+    public static double serverWinsPoint(int servePower, int serveSkill, int serverSpin, int serverForehand, int serverBackhand, int serverFitness,
+                                         int receiverSpin, int receiverForehand, int receiverBackhand, int receiverFitness) {
+        double receive = 1 - (scale(receiverForehand) + scale(receiverBackhand)) / 4;
+        double serve = (scale(servePower) + scale(serveSkill)) / 2;
+        double spinning = (scale(servePower) + scale(serverSpin)) / 2;
+        double fault = FAULT_BASE + FAULT_RANGE * (1 - scale(serveSkill));
+        double pressure = (SERVE_PRESSURE * serve + SPIN_PRESSURE * spinning) * receive;
+
+        double receiverForehandMiss = missChance(receiverForehand, serverSpin);
+        double receiverBackhandMiss = missChance(receiverBackhand, serverSpin);
+        double serverForehandMiss = missChance(serverForehand, receiverSpin);
+        double serverBackhandMiss = missChance(serverBackhand, receiverSpin);
+        double receiverFatigue = fatigueChance(receiverFitness);
+        double serverFatigue = fatigueChance(serverFitness);
+
+        double won = 0;
+        double going = 1;
+        for (int shot = 0; going > RALLY_OVER; shot += 2) {
+            double receiverMissed = strokeMissed(receiverForehandMiss, receiverBackhandMiss, shot * receiverFatigue + pressure);
+            won += going * receiverMissed;
+            going *= 1 - receiverMissed;
+            pressure = 0;
+
+            double serverMissed = strokeMissed(serverForehandMiss, serverBackhandMiss, (shot + 1) * serverFatigue);
+            going *= 1 - serverMissed;
+        }
+        return (1 - fault) * won;
+    }
+
+    /**
+     * Works out the chance of missing a shot played on the forehand or backhand (equally likely).
+     * @param forehandMiss the chance of missing a forehand.
+     * @param backhandMiss the chance of missing a backhand.
+     * @param extra the chance added to both (from the serve or fatigue).
+     * @return the chance of missing.
+     */
+    private static double strokeMissed(double forehandMiss, double backhandMiss, double extra) {
+        return (Math.min(forehandMiss + extra, 1) + Math.min(backhandMiss + extra, 1)) / 2;
+    }
+
+    /**
+     * Works out the chance of missing a shot, before the serve or fatigue.
+     * @param stroke the skill of the stroke being played.
+     * @param spin the spin of the other player.
+     * @return the chance.
+     */
+    private static double missChance(int stroke, int spin) {
+        return MISS_BASE - MISS_STROKE * scale(stroke) + MISS_SPIN * scale(spin) * (1 - scale(stroke) / 2);
+    }
+
+    /**
+     * Works out the chance a player adds to their chance of missing with every shot of a rally.
+     * @param fitness the player's fitness.
+     * @return the chance.
+     */
+    private static double fatigueChance(int fitness) {
+        return FATIGUE_BASE + FATIGUE_RANGE * (1 - scale(fitness));
+    }
+
+    /**
+     * Scales an attribute to a number from 0 to 1.
+     * @param attribute the attribute.
+     * @return the attribute out of {@value #MAX_ATTRIBUTE}.
+     */
+    private static double scale(int attribute) {
+        return Math.min(Math.max(attribute, 0), MAX_ATTRIBUTE) / (double) MAX_ATTRIBUTE;
+    }
+}
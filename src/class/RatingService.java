@@ -0,0 +1,304 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class keeps an Elo rating for every player, updated by every match played, so players have a rating which changes
+ * with their results instead of only the average skill worked out from their attributes.
+ * <p>
+ *     Every player starts at {@value #INITIAL_RATING}. After a match, the winner gains and the loser loses
+ *     {@code K * (1 - E)}, where {@code E} is the chance the Elo model gave the winner of winning:
+ *     {@code 1 / (1 + 10^((loser - winner) / 400))}.
+ * </p>
+ * <p>
+ *     The ratings are kept by player id in an {@link AtomicLongArray}, as fixed point numbers (rating * 2^32). This means
+ *     a rating is changed with a single atomic add, so any number of tables can update the ratings at once without a lock
+ *     or a retry loop, and the changes always add up to 0. Both ratings are read before either is changed, so 2 matches
+ *     with the same player at the same time each use the rating from before the other, the same as if they were played
+ *     at the same moment.
+ * </p>
+ * <p>
+ *     The service is a {@link ResultSink}, so it can be given the matches as they are played. It should be given them by
+ *     the tables, rather than through an {@link AsyncResultSink}, so the ratings are up to date once a match has been
+ *     played. The ratings can be saved to a file ({@link RatingService#save(Path)}) and loaded again
+ *     ({@link RatingService#load(Path, int)}) to carry on from a previous simulation.
+ * </p>
+ * @see ResultSink
+ */
+public class RatingService implements ResultSink {
+    /**
+     * The rating every player starts with.
+     */
+    public static final double INITIAL_RATING = 1500;
+    /**
+     * The most a rating can change by in a single match.
+     */
+    public static final double K_FACTOR = 32;
+    /**
+     * The number of players which can be rated if not given (player ids from 0 to 2^20 - 1).
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /**
+     * The first 4 bytes of a saved file ({@code "TTRS"}).
+     */
+    private static final int MAGIC = 0x54545253;
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 1;
+    /**
+     * A rating of 1, in fixed point.
+     */
+    private static final double SCALE = 0x1p32;
+    /**
+     * The rating difference which changes the chance of winning by a factor of 10.
+     */
+    private static final double ELO_SPREAD = 400;
+    /**
+     * The largest rating difference the change from a match is looked up for, beyond which it is worked out exactly.
+     */
+    private static final int MAX_TABLE_DIFFERENCE = 800;
+    /**
+     * The change to the winner's rating by the loser's rating minus the winner's, {@code [difference + 800]}, for every
+     * whole difference from -800 to 800 (and 1 past the end, to interpolate up to 800).
+     */
+    private static final double[] CHANGES = new double[2 * MAX_TABLE_DIFFERENCE + 2];
+
+    static {
+        for (int i = 0; i < CHANGES.length; i++) {
+            CHANGES[i] = K_FACTOR * (1 - expectedScore(0, i - MAX_TABLE_DIFFERENCE));
+        }
+    }
+
+    /**
+     * The rating of each player by id, in fixed point.
+     */
+    private final AtomicLongArray ratings;
+    /**
+     * The number of matches each player has been rated from, by id.
+     */
+    private final AtomicIntegerArray matches;
+
+    /**
+     * Creates a service for player ids from 0 up to {@link RatingService#DEFAULT_CAPACITY}, with every player at
+     * {@link RatingService#INITIAL_RATING}.
+     */
+    public RatingService() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a service with every player at {@link RatingService#INITIAL_RATING}.
+     * @param capacity the number of players which can be rated (player ids from 0 to {@code capacity - 1}).
+     */
+    public RatingService(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity, must be at least 1.");
+        }
+        this.ratings = new AtomicLongArray(capacity);
+        this.matches = new AtomicIntegerArray(capacity);
+        long initial = toFixed(INITIAL_RATING);
+        for (int id = 0; id < capacity; id++) {
+            this.ratings.set(id, initial);
+        }
+    }
+
+    /**
+     * Loads the ratings saved by {@link RatingService#save(Path)}, so players carry on from their saved rating.
+     * @param file the file to load.
+     * @param capacity the number of players which can be rated, raised if the file has a player with a higher id.
+     * @return the service.
+     * @throws IOException if the file could not be read, or is not a saved ratings file.
+     */
+    public static RatingService load(Path file, int capacity) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException(file + " is not a ratings file.");
+            }
+            int maxId = input.readInt();
+            int numPlayers = input.readInt();
+            if (maxId < -1 || numPlayers < 0) {
+                throw new IOException(file + " has an invalid number of players.");
+            }
+
+            RatingService service = new RatingService(Math.max(capacity, maxId + 1));
+            for (int i = 0; i < numPlayers; i++) {
+                int id = input.readInt();
+                long rating = input.readLong();
+                int numMatches = input.readInt();
+                if (id < 0 || id > maxId) {
+                    throw new IOException(file + " has an invalid player id: " + id);
+                }
+                service.ratings.set(id, rating);
+                service.matches.set(id, numMatches);
+            }
+            return service;
+        }
+    }
+
+    /**
+     * Saves the rating of every player who has played a match, to be loaded by {@link RatingService#load(Path, int)}.
+     * <p>
+     *     The ratings are written to a temporary file which then replaces the file, so the file is never left half
+     *     written. Ratings changed while saving may or may not be saved, so the tables should be stopped first.
+     * </p>
+     * @param file the file to save to.
+     * @throws IOException if the file could not be written.
+     */
+    public void save(Path file) throws IOException {
+        int maxId = -1;
+        int numPlayers = 0;
+        for (int id = 0; id < this.matches.length(); id++) {
+            if (this.matches.get(id) > 0) {
+                maxId = id;
+                numPlayers++;
+            }
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(maxId);
+                output.writeInt(numPlayers);
+                for (int id = 0; id <= maxId; id++) {
+                    int numMatches = this.matches.get(id);
+                    if (numMatches > 0) {
+                        output.writeInt(id);
+                        output.writeLong(this.ratings.get(id));
+                        output.writeInt(numMatches);
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Updates the ratings of 2 players after a match.
+     * @param winner the id of the player who won.
+     * @param loser the id of the player who lost.
+     * @throws IndexOutOfBoundsException if either id is not from 0 to the capacity - 1.
+     */
+    public void update(int winner, int loser) {
+        double winnerRating = this.getRating(winner);
+        double loserRating = this.getRating(loser);
+        long change = toFixed(change(loserRating - winnerRating));
+
+        this.ratings.getAndAdd(winner, change);
+        this.ratings.getAndAdd(loser, -change);
+        this.matches.getAndIncrement(winner);
+        this.matches.getAndIncrement(loser);
+    }
+
+    /**
+     * Works out the chance the Elo model gives a player of beating another.
+     * @param rating the rating of the player.
+     * @param otherRating the rating of the other player.
+     * @return the chance, from 0 to 1.
+     */
+    public static double expectedScore(double rating, double otherRating) {
+        return 1 / (1 + Math.pow(10, (otherRating - rating) / ELO_SPREAD));
+    }
+
+    /**
+     * Works out the change to the winner's rating from a match, {@code K * (1 - E)}. This is interpolated from
+     * {@link RatingService#CHANGES} (to within a ten thousandth of a point) when the difference is in the table, as working
+     * out the power of 10 takes longer than the rest of an update.
+     * @param difference the loser's rating minus the winner's.
+     * @return the change.
+     */
+    private static double change(double difference) {
+        double position = difference + MAX_TABLE_DIFFERENCE;
+        if (!(position >= 0 && position < 2 * MAX_TABLE_DIFFERENCE)) {
+            return K_FACTOR * (1 - expectedScore(0, difference));
+        }
+        int index = (int) position;
+        double fraction = position - index;
+        return CHANGES[index] + (CHANGES[index + 1] - CHANGES[index]) * fraction;
+    }
+
+    /**
+     * Gets the rating of a player.
+     * @param id the id of the player.
+     * @return the rating.
+     */
+    public double getRating(int id) {
+        return this.ratings.get(id) / SCALE;
+    }
+
+    /**
+     * Gets the number of matches a player has been rated from.
+     * @param id the id of the player.
+     * @return the number of matches.
+     */
+    public int getMatches(int id) {
+        return this.matches.get(id);
+    }
+
+    /**
+     * A simple getter method to return the number of players which can be rated.
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return this.ratings.length();
+    }
+
+    /**
+     * Does nothing, as only the matches change the ratings.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+    }
+
+    /**
+     * Updates the ratings of the players in a match. Players without an id in the service (e.g. created without one)
+     * are not rated.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public void matchPlayed(TableTennisMatch match) {
+        int p1 = ((TableTennisPlayer) match.players.get(0)).getId();
+        int p2 = ((TableTennisPlayer) match.players.get(1)).getId();
+        if (p1 < 0 || p2 < 0 || p1 >= this.getCapacity() || p2 >= this.getCapacity()) {
+            return;
+        }
+
+        if (MatchScore.winner(match.getScore()) == 1) {
+            this.update(p1, p2);
+        } else {
+            this.update(p2, p1);
+        }
+    }
+
+    /**
+     * Does nothing, as only the matches change the ratings.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public void tournamentWon(TableTennisPlayer winner) {
+    }
+
+    /**
+     * Converts a rating to fixed point.
+     * @param rating the rating.
+     * @return the rating * 2^32.
+     */
+    private static long toFixed(double rating) {
+        return Math.round(rating * SCALE);
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * This class is used to read the matches recorded by a {@link ResultStore}, one record at a time and in the order they
+ * were written.
+ * <p>
+ *     The reader works like a cursor: {@link ResultReader#next()} moves on to the next record, and the getters read the
+ *     values of the current record. No object is created for each record, and each segment is memory-mapped and read
+ *     from start to end, so billions of records can be read as quickly as the disk allows.
+ * </p>
+ * <pre>
+ *     try (ResultReader reader = ResultReader.open("results")) {
+ *         while (reader.next()) {
+ *             long tournament = reader.getTournament();
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ * @see ResultStore
+ */
+public class ResultReader implements AutoCloseable {
+    /**
+     * The segments to read, in the order they were written.
+     */
+    private final List<Path> segments;
+    /**
+     * The position in {@link ResultReader#segments} of the next segment to open.
+     */
+    private int nextSegment = 0;
+    /**
+     * The segment being read, or {@code null} before the first record.
+     */
+    private MappedByteBuffer segment = null;
+    /**
+     * The number of records in the current segment.
+     */
+    private long segmentRecords = 0;
+    /**
+     * The position of the current record in the current segment, -1 before the first record.
+     */
+    private long position = -1;
+    /**
+     * Where the current record starts in the current segment.
+     */
+    private int record = 0;
+
+    /**
+     * Creates the reader, used by {@link ResultReader#open(String)}.
+     * @param segments the segments to read.
+     */
+    private ResultReader(List<Path> segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Opens the segments in a directory written by a {@link ResultStore}. Segments added after the reader is opened are
+     * not read.
+     * @param directory the directory containing the segments.
+     * @return the reader, positioned before the first record.
+     * @throws IOException if the directory could not be read.
+     */
+    public static ResultReader open(String directory) throws IOException {
+        return new ResultReader(ResultStore.listSegments(Paths.get(directory)));
+    }
+
+    /**
+     * Counts the records in every segment, using only the headers.
+     * @return the number of records.
+     * @throws IOException if a segment could not be read, or is not a segment.
+     */
+    public long count() throws IOException {
+        long numRecords = 0;
+        for (Path segment : this.segments) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                numRecords += ResultStore.readHeader(channel, segment);
+            }
+        }
+        return numRecords;
+    }
+
+    /**
+     * Moves on to the next record, opening the next segment if the current one has been read.
+     * @return {@code true} if there is a next record, {@code false} once every record has been read.
+     * @throws IOException if a segment could not be read, or is not a segment.
+     */
+    public boolean next() throws IOException {
+        this.position++;
+        while (this.position >= this.segmentRecords) {
+            if (this.nextSegment >= this.segments.size()) {
+                this.position = this.segmentRecords; // stay at the end
+                return false;
+            }
+            this.openSegment(this.segments.get(this.nextSegment++));
+        }
+        this.record = ResultStore.HEADER_SIZE + (int) this.position * ResultStore.RECORD_SIZE;
+        return true;
+    }
+
+    /**
+     * Maps the records of a segment, ready to be read from the start.
+     * @param path the segment.
+     * @throws IOException if the segment could not be read, or is not a segment.
+     */
+    private void openSegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.segmentRecords = ResultStore.readHeader(channel, path);
+            this.segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, ResultStore.HEADER_SIZE + this.segmentRecords * ResultStore.RECORD_SIZE);
+        }
+        this.position = 0;
+    }
+
+    /**
+     * Gets the tournament the current match was part of, numbered in the order they were won.
+     * @return the tournament.
+     */
+    public long getTournament() {
+        return this.segment.getLong(this.record);
+    }
+
+    /**
+     * Gets the knock-out round of the current match.
+     * @return the round, from 1, or 0 if not known.
+     */
+    public int getRound() {
+        return this.segment.getInt(this.record + 8);
+    }
+
+    /**
+     * Gets the id of player 1 in the current match.
+     * @return the id, as given in the roster.
+     */
+    public int getP1Id() {
+        return this.segment.getInt(this.record + 12);
+    }
+
+    /**
+     * Gets the id of player 2 in the current match.
+     * @return the id, as given in the roster.
+     */
+    public int getP2Id() {
+        return this.segment.getInt(this.record + 16);
+    }
+
+    /**
+     * Gets the score of the current match.
+     * @return the score (see {@link MatchScore}).
+     */
+    public int getScore() {
+        return MatchScore.of(this.segment.get(this.record + 20), this.segment.get(this.record + 21));
+    }
+
+    /**
+     * Gets which player won the current match.
+     * @return 1 if player 1 won, 2 if player 2 won.
+     */
+    public int getWinner() {
+        return this.segment.get(this.record + 22);
+    }
+
+    /**
+     * Gets the id of the player who won the current match.
+     * @return the id, as given in the roster.
+     */
+    public int getWinnerId() {
+        if (this.getWinner() == 1) {
+            return this.getP1Id();
+        }
+        return this.getP2Id();
+    }
+
+    /**
+     * Stops reading. The mapped segments are released once the reader is no longer used.
+     */
+    @Override
+    public void close() {
+        this.segment = null;
+        this.nextSegment = this.segments.size();
+        this.segmentRecords = 0;
+        this.position = 0;
+    }
+}
@@ -0,0 +1,321 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class implements the {@link ResultSink} interface by recording every match played as a fixed-width binary
+ * record, so millions of matches can be analysed afterwards using a {@link ResultReader}.
+ * <p>
+ *     The records are written to a directory of segment files, each memory-mapped when created and filled in order.
+ *     Once a segment is full a new one is started, so no file grows past the segment size and the store is only ever
+ *     added to. Each segment is made up of:
+ * </p>
+ * <ul>
+ *     <li>A header ({@value #HEADER_SIZE} bytes) - the file type, version and number of records written, updated
+ *     whenever the store is flushed.</li>
+ *     <li>A record for each match ({@value #RECORD_SIZE} bytes) - the tournament, round, the ids of both players, the
+ *     score and the winner (1 or 2).</li>
+ * </ul>
+ * <p>
+ *     Writing to the segments is never done by the tables: the store should be given to an {@link AsyncResultSink} (on
+ *     its own, or with other sinks using a {@link MultiResultSink}), so the records are written by its writer thread.
+ *     Tournaments are numbered in the order they are won, carrying on from the last tournament already in the directory.
+ * </p>
+ * @see ResultReader
+ */
+public class ResultStore implements ResultSink {
+    /**
+     * The file extension used for segments.
+     */
+    public static final String EXTENSION = ".ttm";
+    /**
+     * The start of the name of every segment, followed by its number.
+     */
+    static final String PREFIX = "matches-";
+    /**
+     * The first 4 bytes of every segment ({@code "TTMR"}).
+     */
+    static final int MAGIC = 0x54544d52;
+    /**
+     * The version of the file layout.
+     */
+    static final int VERSION = 1;
+    /**
+     * The size of the header at the start of each segment.
+     */
+    static final int HEADER_SIZE = 16;
+    /**
+     * The size of each match record.
+     */
+    static final int RECORD_SIZE = 24;
+    /**
+     * The size of each segment if not given (64 MiB, about 2.8 million matches).
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    /**
+     * The directory the segments are stored in.
+     */
+    private final Path directory;
+    /**
+     * The number of records which fit in a segment.
+     */
+    private final int recordsPerSegment;
+    /**
+     * The number of the segment being written.
+     */
+    private int segmentNumber;
+    /**
+     * The segment being written, or {@code null} before the first match.
+     */
+    private MappedByteBuffer segment = null;
+    /**
+     * The number of records written to the current segment.
+     */
+    private int segmentRecords = 0;
+    /**
+     * The number of the tournament being played.
+     */
+    private long tournament;
+    /**
+     * Set once the store is closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Creates the store, used by {@link ResultStore#open(String, long)}.
+     * @param directory the directory the segments are stored in.
+     * @param recordsPerSegment the number of records which fit in a segment.
+     * @param lastSegment the number of the last segment already in the directory, or 0.
+     * @param tournament the number of the first tournament to record.
+     */
+    private ResultStore(Path directory, int recordsPerSegment, int lastSegment, long tournament) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segmentNumber = lastSegment;
+        this.tournament = tournament;
+    }
+
+    /**
+     * Opens a store with segments of {@link ResultStore#DEFAULT_SEGMENT_SIZE}.
+     * @param directory the directory to store the segments in, created if it does not exist.
+     * @return the store.
+     * @throws IOException if the directory could not be created or read.
+     */
+    public static ResultStore open(String directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a store, adding to any segments already in the directory. New records are always written to a new segment.
+     * @param directory the directory to store the segments in, created if it does not exist.
+     * @param segmentSize the size of each segment in bytes, which must fit at least 1 record.
+     * @return the store.
+     * @throws IOException if the directory could not be created or read, or contains a segment which is not valid.
+     */
+    public static ResultStore open(String directory, long segmentSize) throws IOException {
+        long recordsPerSegment = (Math.min(segmentSize, Integer.MAX_VALUE) - HEADER_SIZE) / RECORD_SIZE;
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("Invalid segment size, must fit at least 1 record.");
+        }
+
+        Path path = Paths.get(directory);
+        Files.createDirectories(path);
+        List<Path> segments = listSegments(path);
+
+        int lastSegment = 0;
+        long tournament = 0;
+        for (Path segment : segments) {
+            lastSegment = Math.max(lastSegment, segmentNumber(segment));
+            tournament = Math.max(tournament, lastTournament(segment) + 1);
+        }
+        return new ResultStore(path, (int) recordsPerSegment, lastSegment, tournament);
+    }
+
+    /**
+     * Finds the segments in a directory, in the order they were written.
+     * @param directory the directory.
+     * @return the paths of the segments.
+     * @throws IOException if the directory could not be read.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(ResultStore::isSegment).collect(Collectors.toList());
+            segments.sort((a, b) -> Integer.compare(segmentNumber(a), segmentNumber(b)));
+            return new ArrayList<Path>(segments);
+        }
+    }
+
+    /**
+     * Checks whether a file is a segment, by its name.
+     * @param file the file.
+     * @return {@code true} if the file is named like a segment.
+     */
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(EXTENSION)
+                && name.substring(PREFIX.length(), name.length() - EXTENSION.length()).matches("[0-9]+");
+    }
+
+    /**
+     * Gets the number of a segment from its name.
+     * @param segment the segment.
+     * @return the number.
+     */
+    private static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+    }
+
+    /**
+     * Reads the header of a segment.
+     * @param channel the segment, open for reading.
+     * @param segment the path of the segment, used in the error.
+     * @return the number of records in the segment.
+     * @throws IOException if the segment could not be read, or is not a segment.
+     */
+    static long readHeader(FileChannel channel, Path segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // keep reading until the whole header has been read
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException(segment + " is not a results segment.");
+        }
+        long numRecords = header.getLong();
+        if (numRecords < 0 || HEADER_SIZE + numRecords * RECORD_SIZE > channel.size()) {
+            throw new IOException(segment + " has an invalid number of records.");
+        }
+        return numRecords;
+    }
+
+    /**
+     * Gets the tournament of the last record in a segment.
+     * @param segment the segment.
+     * @return the tournament, or -1 if the segment is empty.
+     * @throws IOException if the segment could not be read, or is not a segment.
+     */
+    private static long lastTournament(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long numRecords = readHeader(channel, segment);
+            if (numRecords == 0) {
+                return -1;
+            }
+            ByteBuffer record = ByteBuffer.allocate(Long.BYTES);
+            channel.read(record, HEADER_SIZE + (numRecords - 1) * RECORD_SIZE);
+            return record.getLong(0);
+        }
+    }
+
+    /**
+     * Does nothing, as the round is recorded with each match.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+    }
+
+    /**
+     * Records a match, starting a new segment if the current one is full.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public synchronized void matchPlayed(TableTennisMatch match) {
+        if (this.closed) {
+            throw new IllegalStateException("The result store has been closed.");
+        }
+        if (this.segment == null || this.segmentRecords == this.recordsPerSegment) {
+            this.nextSegment();
+        }
+
+        List<?> players = match.players;
+        int score = match.getScore();
+        int record = HEADER_SIZE + this.segmentRecords * RECORD_SIZE;
+        this.segment.putLong(record, this.tournament);
+        this.segment.putInt(record + 8, match.getRound());
+        this.segment.putInt(record + 12, ((TableTennisPlayer) players.get(0)).getId());
+        this.segment.putInt(record + 16, ((TableTennisPlayer) players.get(1)).getId());
+        this.segment.put(record + 20, (byte) MatchScore.p1Rounds(score));
+        this.segment.put(record + 21, (byte) MatchScore.p2Rounds(score));
+        this.segment.put(record + 22, (byte) MatchScore.winner(score));
+        this.segment.put(record + 23, (byte) 0); // padding
+        this.segmentRecords++;
+    }
+
+    /**
+     * Moves on to the next tournament, so the matches after this are recorded with the next number.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public synchronized void tournamentWon(TableTennisPlayer winner) {
+        this.tournament++;
+    }
+
+    /**
+     * Updates the number of records in the header of the current segment, so a {@link ResultReader} can read every
+     * record written so far.
+     */
+    @Override
+    public synchronized void flush() {
+        if (this.segment != null) {
+            this.segment.putLong(8, this.segmentRecords);
+        }
+    }
+
+    /**
+     * Flushes the store, and writes the current segment to disk.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.flush();
+        if (this.segment != null) {
+            this.segment.force();
+        }
+        this.closed = true;
+    }
+
+    /**
+     * A simple getter method to return the number of the tournament being recorded.
+     * @return the tournament.
+     */
+    public synchronized long getTournament() {
+        return this.tournament;
+    }
+
+    /**
+     * Finishes the current segment, and creates and maps the next one. An error creating the segment is thrown as an
+     * {@link IllegalStateException}, as it can't be thrown by {@link ResultSink#matchPlayed(TableTennisMatch)}.
+     */
+    private void nextSegment() {
+        if (this.segment != null) {
+            this.flush();
+        }
+
+        this.segmentNumber++;
+        Path file = this.directory.resolve(String.format("%s%06d%s", PREFIX, this.segmentNumber, EXTENSION));
+        long size = HEADER_SIZE + (long) this.recordsPerSegment * RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // the mapping stays valid once closed
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create " + file, e);
+        }
+        this.segment.putInt(0, MAGIC);
+        this.segment.putInt(4, VERSION);
+        this.segment.putLong(8, 0);
+        this.segmentRecords = 0;
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class places seeded players into the draw of a knock-out {@link BracketTree}, so the best players are kept apart
+ * and can only meet in the late rounds: seeds 1 and 2 can only meet in the final, seeds 1 to 4 in the semi-finals, and
+ * so on.
+ * <p>
+ *     The seeds are split between the 2 halves of the bracket in the standard pattern (seeds 1, 4, 5, 8, 9, ... in one
+ *     half, and 2, 3, 6, 7, 10, ... in the other), and then split again within each half, down to the first round. For a
+ *     number of players which is a power of 2 this gives the standard draw (e.g. 1 v 8, 4 v 5, 2 v 7, 3 v 6 for 8
+ *     players).
+ * </p>
+ * <p>
+ *     If the number of players is not a power of 2, each part of the bracket only has room for as many players as it has
+ *     leaves which are not byes, and a seed goes to the other part if its part is full. The part with more byes takes
+ *     the first seed of each split, so the byes go to the top seeds as far as the bracket's layout allows (the byes of a
+ *     {@link BracketTree} are all at the end of the first round).
+ * </p>
+ * <p>
+ *     This class will not need to be instantiated, and only has static methods.
+ * </p>
+ * @see AttributeIndex
+ * @see GetPlayerData#fetch(SimulationConfig)
+ */
+public class SeededDraw {
+    /**
+     * Puts players into the order of the draw, where the players are given in order of seed (best first).
+     * @param seeds the players, best first.
+     * @param <T> the type of player.
+     * @return the players in the order of the draw, for a {@link BracketTree} of the same number of players.
+     */
+    public static <T> ArrayList<T> arrange(List<T> seeds) {
+        int[] positions = positions(seeds.size());
+        ArrayList<T> draw = new ArrayList<T>(seeds.size());
+        for (int i = 0; i < seeds.size(); i++) {
+            draw.add(null);
+        }
+        for (int seed = 0; seed < seeds.size(); seed++) {
+            draw.set(positions[seed], seeds.get(seed));
+        }
+        return draw;
+    }
+
+    /**
+     * Works out where each seed goes in the draw.
+     * @param numPlayers the number of players, at least 2.
+     * @return the position in the draw of each seed, from the best.
+     */
+    public static int[] positions(int numPlayers) {
+        BracketTree bracket = new BracketTree(numPlayers);
+        int size = bracket.getSize();
+        int[] room = new int[2 * size]; // the number of players below each node
+        for (int leaf = size; leaf < 2 * size; leaf++) {
+            room[leaf] = bracket.getPlayer(leaf) == BracketTree.BYE ? 0 : 1;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            room[node] = room[2 * node] + room[2 * node + 1];
+        }
+
+        int[] seeds = new int[numPlayers];
+        for (int seed = 0; seed < numPlayers; seed++) {
+            seeds[seed] = seed;
+        }
+        int[] positions = new int[numPlayers];
+        place(bracket, room, 1, seeds, positions);
+        return positions;
+    }
+
+    /**
+     * Splits the seeds below a node between the 2 nodes below it, in the standard pattern, until each seed is at a leaf.
+     * @param bracket the bracket, whose leaves hold the positions in the draw.
+     * @param room the number of players below each node.
+     * @param node the node.
+     * @param seeds the seeds below the node, best first.
+     * @param positions the position in the draw of each seed, filled in.
+     */
+    private static void place(BracketTree bracket, int[] room, int node, int[] seeds, int[] positions) {
+        if (node >= bracket.getSize()) {
+            positions[seeds[0]] = bracket.getPlayer(node);
+            return;
+        }
+
+        int first = room[2 * node + 1] < room[2 * node] ? 2 * node + 1 : 2 * node; // more byes, so takes the top seed
+        int second = first ^ 1;
+        int[] firstSeeds = new int[room[first]];
+        int[] secondSeeds = new int[room[second]];
+        int numFirst = 0;
+        int numSecond = 0;
+        for (int i = 0; i < seeds.length; i++) {
+            boolean toFirst = (i & 3) == 0 || (i & 3) == 3; // 1, 4, 5, 8, ... to the first
+            if (toFirst ? numFirst == firstSeeds.length : numSecond < secondSeeds.length) {
+                secondSeeds[numSecond++] = seeds[i];
+            } else {
+                firstSeeds[numFirst++] = seeds[i];
+            }
+        }
+
+        if (firstSeeds.length > 0) {
+            place(bracket, room, first, firstSeeds, positions);
+        }
+        if (secondSeeds.length > 0) {
+            place(bracket, room, second, secondSeeds, positions);
+        }
+    }
+}
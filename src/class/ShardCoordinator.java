@@ -0,0 +1,331 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class plays a large batch of tournaments over the same players, shared between a number of {@link ShardWorker}
+ * processes on the same machine, so the batch is not limited by the heap and garbage collector of a single JVM.
+ * <p>
+ *     The batch is split into shards of {@link ShardCoordinator#DEFAULT_SHARD_SIZE} tournaments, which are put in a
+ *     queue. Each worker process is looked after by a thread of the coordinator, which takes the next shard from the
+ *     queue, sends it to the worker over the worker's standard input, and reads the winner of each tournament from its
+ *     standard output (4 bytes per tournament). Once the whole shard has been read, the wins are added to the counts for
+ *     the batch.
+ * </p>
+ * <p>
+ *     If a worker dies (or sends back an error) part way through a shard, the shard's results are thrown away and the
+ *     shard is put back in the queue to be played by any worker, and a new worker process is started in its place.
+ *     As every tournament is played with its own seed, the shard gives the same results wherever it is played, so no
+ *     tournament is counted twice or lost. A shard is only tried {@value #MAX_ATTEMPTS} times, after which the batch is
+ *     stopped.
+ * </p>
+ * @see ShardWorker
+ * @see SimulationConfig#setNumWorkers(long)
+ */
+public class ShardCoordinator {
+    /**
+     * The number of tournaments given to a worker at a time, unless set.
+     */
+    public static final int DEFAULT_SHARD_SIZE = 64;
+    /**
+     * The number of times a shard is tried before the batch is stopped.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+    /**
+     * How long a thread waits for a shard to be put back in the queue, before checking if the batch is complete.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * The settings of the tournaments, given to every worker.
+     */
+    private final SimulationConfig config;
+    /**
+     * The number of tournaments given to a worker at a time.
+     */
+    private int shardSize = DEFAULT_SHARD_SIZE;
+    /**
+     * The shards not yet being played.
+     */
+    private final LinkedBlockingQueue<Shard> shards = new LinkedBlockingQueue<Shard>();
+    /**
+     * The number of tournaments won by each player, in the order of the draw.
+     */
+    private long[] titles;
+    /**
+     * Counts down as each shard is complete, or straight to 0 if the batch is stopped.
+     */
+    private CountDownLatch remaining;
+    /**
+     * Whether the batch was stopped, as a shard failed too many times.
+     */
+    private volatile boolean failed = false;
+    /**
+     * The number of worker processes which died (or sent back an error) during the batch.
+     */
+    private final AtomicInteger numFailures = new AtomicInteger();
+
+    /**
+     * Creates a coordinator for the batch set in a config, where the number of workers and tournaments are set by
+     * {@link SimulationConfig#setNumWorkers(long)} and {@link SimulationConfig#setNumTournaments(long)}. If the config
+     * has no seed, a random one is given to it, as every worker must select the same players.
+     * @param config the settings of the batch.
+     */
+    public ShardCoordinator(SimulationConfig config) {
+        if (config.getNumWorkers() < 1) {
+            throw new IllegalArgumentException("Invalid number of workers, must be at least 1.");
+        }
+        if (config.getSeed() == null) {
+            config.setSeed(new SplittableRandom().nextLong());
+        }
+        this.config = config;
+    }
+
+    /**
+     * A method to set the number of tournaments given to a worker at a time. Smaller shards lose less work when a worker
+     * dies, and larger shards wait less for the workers.
+     * @param shardSize the number of tournaments in a shard, at least 1.
+     */
+    public void setShardSize(int shardSize) {
+        if (shardSize < 1) {
+            throw new IllegalArgumentException("Invalid shard size, must be at least 1.");
+        }
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * A simple getter method to return the number of worker processes which died during the last batch.
+     * @return the number of failed workers.
+     */
+    public int getNumFailures() {
+        return this.numFailures.get();
+    }
+
+    /**
+     * Plays the batch of tournaments on the workers, and waits for them all to be played.
+     * @return the number of tournaments won by each player (in the order of the draw), or {@code null} if a shard failed
+     * too many times.
+     */
+    public long[] run() {
+        long numTournaments = this.config.getNumTournaments();
+        this.titles = new long[this.config.getNumPlayers()];
+        this.shards.clear();
+        for (long first = 0; first < numTournaments; first += this.shardSize) {
+            this.shards.add(new Shard(first, (int) Math.min(this.shardSize, numTournaments - first)));
+        }
+        this.remaining = new CountDownLatch(this.shards.size());
+        this.failed = false;
+        this.numFailures.set(0);
+
+        List<String> command = this.workerCommand();
+        ArrayList<Thread> threads = new ArrayList<Thread>();
+        for (int i = 1; i <= this.config.getNumWorkers(); i++) {
+            Thread thread = new Thread(() -> this.runWorker(command), "ShardWorker-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                System.out.println("Unexpected error: " + e);
+                return null;
+            }
+        }
+        return this.failed ? null : this.titles;
+    }
+
+    /**
+     * Looks after a worker process: gives it shards until the batch is complete, and starts a new process if it dies.
+     * @param command the command to start a worker process.
+     */
+    private void runWorker(List<String> command) {
+        Process process = null;
+        try {
+            while (this.remaining.getCount() > 0) {
+                Shard shard = this.shards.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (shard == null) {
+                    continue; // the other shards are being played, but one may be put back
+                }
+
+                try {
+                    if (process == null) {
+                        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                    }
+                    this.addTitles(this.playShard(process, shard));
+                    this.remaining.countDown();
+                } catch (IOException e) {
+                    this.numFailures.incrementAndGet();
+                    if (process != null) {
+                        process.destroyForcibly();
+                        process = null;
+                    }
+                    this.retry(shard, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            System.out.println("Unexpected error: " + e);
+        } finally {
+            if (process != null) {
+                this.stopWorker(process);
+            }
+        }
+    }
+
+    /**
+     * Gives a shard to a worker process, and reads the winner of each tournament.
+     * @param process the worker process.
+     * @param shard the shard.
+     * @return the winners, in the order of the tournaments.
+     * @throws IOException if the worker died or sent back an error.
+     */
+    private int[] playShard(Process process, Shard shard) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        output.writeLong(shard.first);
+        output.writeInt(shard.count);
+        output.flush();
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(process.getInputStream(), 4 * shard.count));
+        int[] winners = new int[shard.count];
+        for (int i = 0; i < shard.count; i++) {
+            winners[i] = input.readInt(); // EOFException if the worker died
+            if (winners[i] < 0 || winners[i] >= this.titles.length) {
+                throw new IOException("Worker could not play tournament " + (shard.first + i));
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * Adds the wins of a complete shard to the counts for the batch.
+     * @param winners the winner of each tournament in the shard.
+     */
+    private void addTitles(int[] winners) {
+        synchronized (this.titles) {
+            for (int winner : winners) {
+                this.titles[winner]++;
+            }
+        }
+    }
+
+    /**
+     * Puts a shard back in the queue after its worker died, or stops the batch if it has failed too many times.
+     * @param shard the shard.
+     * @param e the error encountered.
+     */
+    private void retry(Shard shard, IOException e) {
+        if (shard.attempts + 1 < MAX_ATTEMPTS) {
+            this.shards.add(new Shard(shard.first, shard.count, shard.attempts + 1));
+            return;
+        }
+
+        System.out.println("Unexpected error, tournaments " + shard.first + " to " + (shard.first + shard.count - 1)
+                + " failed " + MAX_ATTEMPTS + " times, exiting simulation.");
+        System.out.println(e);
+        this.failed = true;
+        while (this.remaining.getCount() > 0) {
+            this.remaining.countDown(); // stop every thread
+        }
+    }
+
+    /**
+     * Closes the standard input of a worker process, so it exits once its last shard is done, and waits for it to exit.
+     * @param process the worker process.
+     */
+    private void stopWorker(Process process) {
+        try {
+            process.getOutputStream().close();
+            if (!process.waitFor(POLL_MILLIS * 10, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException | InterruptedException e) {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Creates the command to start a worker process: the same Java and classpath as this process, running
+     * {@link ShardWorker} with the settings of the batch.
+     * @return the command.
+     */
+    private List<String> workerCommand() {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardWorker.class.getName());
+        command.add("--players");
+        command.add(String.valueOf(this.config.getNumPlayers()));
+        command.add("--seed");
+        command.add(String.valueOf(this.config.getSeed()));
+        command.add("--roster");
+        command.add(this.config.getRosterPath());
+        command.add("--tables");
+        command.add(String.valueOf(this.config.getNumTables()));
+        command.add("--mode");
+        command.add(this.config.getTableMode() == TablePool.Mode.VIRTUAL ? "virtual" : "fixed");
+        command.add("--engine");
+        command.add(SimulationConfig.engineName(this.config.getEngine()));
+        if (this.config.isDataflow()) {
+            command.add("--dataflow");
+        }
+        if (this.config.getFilter() != null) {
+            command.add("--filter");
+            command.add(this.config.getFilter());
+        }
+        if (this.config.isSeeded()) {
+            command.add("--seeded");
+        }
+        return command;
+    }
+
+    /**
+     * A range of tournaments given to a worker at a time.
+     */
+    private static class Shard {
+        /**
+         * The first tournament of the shard.
+         */
+        private final long first;
+        /**
+         * The number of tournaments in the shard.
+         */
+        private final int count;
+        /**
+         * The number of times the shard has already failed.
+         */
+        private final int attempts;
+
+        /**
+         * Creates a shard which has not been tried yet.
+         * @param first the first tournament.
+         * @param count the number of tournaments.
+         */
+        Shard(long first, int count) {
+            this(first, count, 0);
+        }
+
+        /**
+         * Creates a shard.
+         * @param first the first tournament.
+         * @param count the number of tournaments.
+         * @param attempts the number of times the shard has already failed.
+         */
+        Shard(long first, int count, int attempts) {
+            this.first = first;
+            this.count = count;
+            this.attempts = attempts;
+        }
+    }
+}
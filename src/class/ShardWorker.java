@@ -0,0 +1,98 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+/**
+ * This class is the main class of a worker process started by a {@link ShardCoordinator}, which plays the shards of a
+ * batch of tournaments it is given and sends back who won each one.
+ * <p>
+ *     The worker is started with the same options as the coordinator (see {@link SimulationConfig#parse(String[])}),
+ *     including the seed, so every worker selects the same players in the same order as the coordinator. It then reads
+ *     shards from its standard input until it is closed, each as:
+ * </p>
+ * <ul>
+ *     <li>{@code long} - the first tournament of the shard.</li>
+ *     <li>{@code int} - the number of tournaments in the shard.</li>
+ * </ul>
+ * <p>
+ *     Each tournament is a whole {@link TableTennisTournament}, played with the seed plus the number of the tournament,
+ *     so a tournament has the same winner whichever worker plays it. The winner of each tournament is written to the
+ *     standard output as an {@code int} (the index of the player, or -1 if an error was encountered), and the output is
+ *     flushed at the end of each shard.
+ * </p>
+ * <p>
+ *     The standard output is only used for the results, so anything else written to it (e.g. an error) is written to
+ *     the standard error instead.
+ * </p>
+ * @see ShardCoordinator
+ */
+public class ShardWorker {
+    /**
+     * Plays the shards given on the standard input, until it is closed.
+     * @param args the options of the simulation, which must include a seed.
+     */
+    public static void main(String[] args) {
+        PrintStream results = System.out;
+        System.setOut(System.err); // keep the results stream for the results only
+
+        SimulationConfig config = SimulationConfig.parse(args);
+        if (config.getSeed() == null) {
+            System.out.println("Invalid options, a worker must be given a seed.");
+            System.exit(2);
+        }
+        config.setSink(QuietResultSink.INSTANCE);
+        long seed = config.getSeed();
+
+        ArrayList<TableTennisPlayer> players = GetPlayerData.fetch(config);
+        if (players == null) {
+            System.exit(1);
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(System.in));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(results))) {
+            while (true) {
+                long first;
+                int count;
+                try {
+                    first = input.readLong();
+                    count = input.readInt();
+                } catch (EOFException e) {
+                    return; // no more shards
+                }
+
+                for (long tournament = first; tournament < first + count; tournament++) {
+                    config.setSeed(seed + tournament);
+                    output.writeInt(playTournament(players, config));
+                }
+                output.flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Unexpected error:\n" + e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a whole tournament.
+     * @param players the players taking part, in the order of the draw.
+     * @param config the settings of the tournament, including its seed.
+     * @return the index of the player who won, or -1 if an error was encountered.
+     */
+    private static int playTournament(ArrayList<TableTennisPlayer> players, SimulationConfig config) {
+        TableTennisTournament tournament = new TableTennisTournament(players, config);
+        tournament.startTournament();
+
+        TableTennisPlayer winner = tournament.getWinner();
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i) == winner) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
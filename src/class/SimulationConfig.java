@@ -0,0 +1,680 @@
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * This class holds everything needed to run a simulation without any user input, so it can be run from code or from the
+ * command line ({@link SimulationConfig#parse(String[])}).
+ * <p>
+ *     Every setting has a default, so only the settings which are different need to be set. Unlike the interactive
+ *     simulation, there is no pause between rounds unless one is set, so a simulation finishes as soon as its matches
+ *     have been played.
+ * </p>
+ * @see Main#runSimulation(SimulationConfig)
+ * @see TableTennisTournament
+ */
+public class SimulationConfig {
+    /**
+     * The command line options, shown when the arguments are invalid or {@code --help} is given.
+     */
+    public static final String USAGE = String.join("\n",
+            "Usage: Main [options]   (no options to run interactively)",
+            "  --players <n>     number of players, at least 2, with byes if not a power of 2 (default 8)",
+            "  --tables <n>      number of tables, at least 1 (default 1)",
+            "  --seed <n>        seed for selecting players and playing matches (default random)",
+            "  --roster <path>   JSON or " + BinaryRoster.EXTENSION + " roster to select players from (default " + GetPlayerData.DEFAULT_ROSTER + ")",
+            "  --filter <conds>  only select players matching the conditions, e.g. \"spin>=8,age<30\"",
+            "  --seeded          select the best players by skill, and seed the draw so the best meet last",
+            "  --pacing <ms>     pause between rounds in milliseconds (default 0)",
+            "  --mode <mode>     fixed or virtual table threads (default fixed)",
+            "  --engine <name>   standard, fast or rally match engine (default standard)",
+            "  --dataflow        play each match as soon as its players are known",
+            "  --quiet           do not output anything while the tournament is played",
+            "  --summary         only output a summary of the matches and the winner",
+            "  --results <dir>   also record every match in a binary results store in the directory",
+            "  --ratings <file>  update Elo ratings from every match, loaded from and saved to the file",
+            "  --checkpoint <file> save the tournament to the file after every round, to carry on with --resume",
+            "  --resume <file>   carry on the tournament saved in the file",
+            "  --golden <file>   record every match of a seeded run in the file, or replay and check against it if it exists",
+            "  --groups <size>   play round-robin groups of up to size players first, the best 2 of each going on to a knock-out",
+            "  --swiss <rounds>  play a Swiss-system tournament of the number of rounds instead of a knock-out",
+            "  --workers <n>     play a batch of tournaments on n worker processes, and output who won them",
+            "  --tournaments <n> number of tournaments in the batch played by the workers (default 1000)",
+            "  --metrics <ms>    record metrics, available over JMX, and output a snapshot every ms to stderr",
+            "  --help            show this message");
+
+    /**
+     * The most rounds a Swiss-system tournament can have.
+     */
+    public static final int MAX_SWISS_ROUNDS = 64;
+
+    /**
+     * The number of players taking part.
+     */
+    private int numPlayers = 8;
+    /**
+     * The number of tables the matches are played on.
+     */
+    private int numTables = 1;
+    /**
+     * The seed used to select the players and play the matches, or {@code null} for a different simulation every time.
+     */
+    private Long seed = null;
+    /**
+     * The roster file the players are selected from.
+     */
+    private String rosterPath = GetPlayerData.DEFAULT_ROSTER;
+    /**
+     * The conditions the players must match to be selected ({@link AttributeIndex}), or {@code null} for any player.
+     */
+    private String filter = null;
+    /**
+     * Whether the best players are selected and seeded in the draw ({@link SeededDraw}), instead of selected at random.
+     */
+    private boolean seeded = false;
+    /**
+     * Where the rounds, matches and winner are given.
+     */
+    private ResultSink sink = new PrintResultSink(System.out);
+    /**
+     * The directory every match is recorded in by a {@link ResultStore}, or {@code null} to not record the matches.
+     */
+    private String resultsPath = null;
+    /**
+     * The file the {@link RatingService} is loaded from and saved to, or {@code null} to not rate the players.
+     */
+    private String ratingsPath = null;
+    /**
+     * How long to pause between knock-out rounds, in milliseconds.
+     */
+    private long pacing = 0;
+    /**
+     * The way the tables are run.
+     */
+    private TablePool.Mode tableMode = TablePool.Mode.FIXED;
+    /**
+     * The engine deciding each match.
+     */
+    private MatchEngine engine = StandardMatchEngine.INSTANCE;
+    /**
+     * Whether matches are played as soon as their players are known, instead of round by round.
+     */
+    private boolean dataflow = false;
+    /**
+     * How often a snapshot of the {@link SimulationMetrics} is output in milliseconds, or 0 to not record metrics.
+     */
+    private long metricsPeriod = 0;
+    /**
+     * The file a {@link TournamentCheckpoint} is written to after every round, or {@code null} to not write one.
+     */
+    private String checkpointPath = null;
+    /**
+     * The file of the {@link TournamentCheckpoint} to carry on from, or {@code null} to start a new tournament.
+     */
+    private String resumePath = null;
+    /**
+     * The golden file the matches are recorded in or checked against by a {@link GoldenReplay}, or {@code null} for
+     * neither.
+     */
+    private String goldenPath = null;
+    /**
+     * The most players in each group of a {@link GroupStageTournament}, or 0 for a knock-out tournament only.
+     */
+    private int groupSize = 0;
+    /**
+     * The number of rounds of a {@link SwissTournament}, or 0 for a knock-out tournament.
+     */
+    private int swissRounds = 0;
+    /**
+     * The number of worker processes a batch of tournaments is shared between, or 0 to play a single tournament.
+     */
+    private int numWorkers = 0;
+    /**
+     * The number of tournaments in a batch played by worker processes.
+     */
+    private long numTournaments = 1000;
+    /**
+     * The options given on the command line, so settings taken from a file can be checked against them.
+     */
+    private final Set<String> options = new HashSet<String>();
+
+    /**
+     * Creates a config from command line arguments, starting from the defaults.
+     * @param args the command line arguments (e.g. {@code --players 16 --tables 4 --seed 1}).
+     * @return the config.
+     * @throws IllegalArgumentException if an option is unknown, is missing its value or has an invalid value.
+     */
+    public static SimulationConfig parse(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            config.options.add(option);
+            switch (option) {
+                case "--dataflow": config.setDataflow(true); continue;
+                case "--seeded": config.setSeeded(true); continue;
+                case "--quiet": config.setSink(QuietResultSink.INSTANCE); continue;
+                case "--summary": config.setSink(new SummaryResultSink(System.out)); continue;
+                default: break;
+            }
+
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unknown option or missing value: " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--players": config.setNumPlayers(parseNumber(option, value)); break;
+                case "--tables": config.setNumTables(parseNumber(option, value)); break;
+                case "--seed": config.setSeed(parseNumber(option, value)); break;
+                case "--roster": config.setRosterPath(value); break;
+                case "--filter": config.setFilter(value); break;
+                case "--results": config.setResultsPath(value); break;
+                case "--ratings": config.setRatingsPath(value); break;
+                case "--pacing": config.setPacing(parseNumber(option, value)); break;
+                case "--mode": config.setTableMode(parseMode(value)); break;
+                case "--engine": config.setEngine(parseEngine(value)); break;
+                case "--metrics": config.setMetricsPeriod(parseNumber(option, value)); break;
+                case "--checkpoint": config.setCheckpointPath(value); break;
+                case "--resume": config.setResumePath(value); break;
+                case "--golden": config.setGoldenPath(value); break;
+                case "--groups": config.setGroupSize(parseNumber(option, value)); break;
+                case "--swiss": config.setSwissRounds(parseNumber(option, value)); break;
+                case "--workers": config.setNumWorkers(parseNumber(option, value)); break;
+                case "--tournaments": config.setNumTournaments(parseNumber(option, value)); break;
+                default: throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        if (config.isDataflow() && (config.getCheckpointPath() != null || config.getResumePath() != null)) {
+            throw new IllegalArgumentException("Invalid options, a dataflow tournament has no rounds to save or carry on from.");
+        }
+        if (config.getGoldenPath() != null && (config.getResumePath() != null || config.getNumWorkers() > 0)) {
+            throw new IllegalArgumentException("Invalid options, a golden replay must play a whole single tournament.");
+        }
+        if (config.getNumWorkers() > 0 && (config.getRatingsPath() != null || config.getResultsPath() != null
+                || config.getMetricsPeriod() > 0 || config.getCheckpointPath() != null || config.getResumePath() != null)) {
+            throw new IllegalArgumentException("Invalid options, tournaments played by workers cannot be rated, recorded, measured, saved or carried on.");
+        }
+        if (config.getGroupSize() > 0 && config.getSwissRounds() > 0) {
+            throw new IllegalArgumentException("Invalid options, a tournament cannot have both a group stage and Swiss rounds.");
+        }
+        if ((config.getGroupSize() > 0 || config.getSwissRounds() > 0) && (config.getCheckpointPath() != null
+                || config.getResumePath() != null || config.getGoldenPath() != null || config.getNumWorkers() > 0)) {
+            throw new IllegalArgumentException("Invalid options, a group stage or Swiss tournament cannot be saved, replayed or played by workers.");
+        }
+        return config;
+    }
+
+    /**
+     * Checks whether an option was given on the command line, rather than left as the default.
+     * @param option the option, e.g. {@code "--engine"}.
+     * @return {@code true} if the config was parsed from arguments including the option.
+     */
+    public boolean isGiven(String option) {
+        return this.options.contains(option);
+    }
+
+    /**
+     * Reads the number given for an option.
+     * @param option the option, used in the error.
+     * @param value the value given.
+     * @return the number.
+     * @throws IllegalArgumentException if the value is not a whole number.
+     */
+    private static long parseNumber(String option, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ", must be a whole number: " + value);
+        }
+    }
+
+    /**
+     * Reads the table mode given for {@code --mode}.
+     * @param value the value given.
+     * @return the table mode.
+     * @throws IllegalArgumentException if the mode is unknown.
+     */
+    private static TablePool.Mode parseMode(String value) {
+        switch (value) {
+            case "fixed": return TablePool.Mode.FIXED;
+            case "virtual": return TablePool.Mode.VIRTUAL;
+            default: throw new IllegalArgumentException("Invalid value for --mode, must be fixed or virtual: " + value);
+        }
+    }
+
+    /**
+     * Reads the match engine given for {@code --engine}.
+     * @param value the value given.
+     * @return the match engine.
+     * @throws IllegalArgumentException if the engine is unknown.
+     */
+    public static MatchEngine parseEngine(String value) {
+        switch (value) {
+            case "standard": return StandardMatchEngine.INSTANCE;
+            case "fast": return FastMatchEngine.INSTANCE;
+            case "rally": return RallyMatchEngine.INSTANCE;
+            default: throw new IllegalArgumentException("Invalid value for --engine, must be standard, fast or rally: " + value);
+        }
+    }
+
+    /**
+     * Gets the name of a match engine given to {@code --engine}.
+     * @param engine the match engine.
+     * @return the name of the engine.
+     * @throws IllegalArgumentException if the engine cannot be given on the command line.
+     */
+    public static String engineName(MatchEngine engine) {
+        if (engine == StandardMatchEngine.INSTANCE) {
+            return "standard";
+        } else if (engine == FastMatchEngine.INSTANCE) {
+            return "fast";
+        } else if (engine == RallyMatchEngine.INSTANCE) {
+            return "rally";
+        }
+        throw new IllegalArgumentException("Invalid engine, must be a standard, fast or rally engine.");
+    }
+
+    /**
+     * Creates the generator used to select the players and play the matches, seeded if a seed has been set.
+     * @return a new generator.
+     */
+    public SplittableRandom createRandom() {
+        if (this.seed == null) {
+            return new SplittableRandom();
+        }
+        return new SplittableRandom(this.seed);
+    }
+
+    /**
+     * A simple getter method to return the number of players.
+     * @return the number of players.
+     */
+    public int getNumPlayers() {
+        return this.numPlayers;
+    }
+
+    /**
+     * A method to set the number of players taking part.
+     * @param numPlayers the number of players, at least 2. If it is not a power of 2, some players are given a bye in the
+     *                   first round (see {@link BracketTree}).
+     * @throws IllegalArgumentException if the number of players is invalid.
+     */
+    public void setNumPlayers(long numPlayers) {
+        if (numPlayers < 2 || numPlayers > BracketTree.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Invalid number of players, must be at least 2.");
+        }
+        this.numPlayers = (int) numPlayers;
+    }
+
+    /**
+     * A simple getter method to return the number of tables.
+     * @return the number of tables.
+     */
+    public int getNumTables() {
+        return this.numTables;
+    }
+
+    /**
+     * A method to set the number of tables the matches are played on.
+     * @param numTables the number of tables, which must be at least 1.
+     * @throws IllegalArgumentException if the number of tables is invalid.
+     */
+    public void setNumTables(long numTables) {
+        if (numTables < 1 || numTables > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of tables, must be at least 1.");
+        }
+        this.numTables = (int) numTables;
+    }
+
+    /**
+     * A simple getter method to return the seed.
+     * @return the seed, or {@code null} if none has been set.
+     */
+    public Long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * A method to set the seed, so the same players are selected and the same matches are played every time.
+     * @param seed the seed, or {@code null} for a different simulation every time.
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * A simple getter method to return the roster file.
+     * @return the path to the roster.
+     */
+    public String getRosterPath() {
+        return this.rosterPath;
+    }
+
+    /**
+     * A method to set the roster file the players are selected from.
+     * @param rosterPath the path to a {@code JSON} or binary ({@value BinaryRoster#EXTENSION}) roster.
+     */
+    public void setRosterPath(String rosterPath) {
+        this.rosterPath = rosterPath;
+    }
+
+    /**
+     * A simple getter method to return the conditions the players must match.
+     * @return the filter, or {@code null} if any player can be selected.
+     */
+    public String getFilter() {
+        return this.filter;
+    }
+
+    /**
+     * A method to set the conditions the players must match to be selected, e.g. {@code "spin>=8,age<30"} (see
+     * {@link AttributeIndex}). A filter is checked when the players are fetched.
+     * @param filter the filter, or {@code null} for any player.
+     */
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * A simple getter method to return whether the draw is seeded.
+     * @return {@code true} if the best players are selected and seeded.
+     */
+    public boolean isSeeded() {
+        return this.seeded;
+    }
+
+    /**
+     * A method to set whether the best players (by average skill, of those matching the filter) are selected and placed
+     * in the draw by seed, so the best players meet in the last rounds ({@link SeededDraw}), instead of players being
+     * selected and drawn at random.
+     * @param seeded {@code true} to seed the draw.
+     */
+    public void setSeeded(boolean seeded) {
+        this.seeded = seeded;
+    }
+
+    /**
+     * A simple getter method to return where the rounds, matches and winner are given.
+     * @return the result sink.
+     */
+    public ResultSink getSink() {
+        return this.sink;
+    }
+
+    /**
+     * A method to set where the rounds, matches and winner are given, e.g. a {@link PrintResultSink} to write them to a
+     * file, or {@link QuietResultSink#INSTANCE} to not output them. The sink is flushed, but not closed, by the
+     * tournament.
+     * @param sink the result sink.
+     */
+    public void setSink(ResultSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * A simple getter method to return the directory the matches are recorded in.
+     * @return the path to the directory, or {@code null} if the matches are not recorded.
+     */
+    public String getResultsPath() {
+        return this.resultsPath;
+    }
+
+    /**
+     * A method to set the directory every match is recorded in, as well as being given to the sink. The
+     * {@link ResultStore} is opened by {@link Main} when run from the command line, and when running from code the store
+     * can be given as part of the sink instead (using a {@link MultiResultSink}).
+     * @param resultsPath the path to the directory, or {@code null} to not record the matches.
+     */
+    public void setResultsPath(String resultsPath) {
+        this.resultsPath = resultsPath;
+    }
+
+    /**
+     * A simple getter method to return the file the ratings are loaded from and saved to.
+     * @return the path to the file, or {@code null} if the players are not rated.
+     */
+    public String getRatingsPath() {
+        return this.ratingsPath;
+    }
+
+    /**
+     * A method to set the file the players' ratings are loaded from (if it exists) and saved to after the simulation. The
+     * {@link RatingService} is created by {@link Main} when run from the command line, and when running from code the
+     * service can be given as part of the sink instead (using a {@link MultiResultSink}).
+     * @param ratingsPath the path to the file, or {@code null} to not rate the players.
+     */
+    public void setRatingsPath(String ratingsPath) {
+        this.ratingsPath = ratingsPath;
+    }
+
+    /**
+     * A simple getter method to return the pause between rounds.
+     * @return the pause in milliseconds.
+     */
+    public long getPacing() {
+        return this.pacing;
+    }
+
+    /**
+     * A method to set how long to pause between knock-out rounds, e.g. to follow the tournament as it is output.
+     * @param pacing the pause in milliseconds, 0 for no pause.
+     * @throws IllegalArgumentException if the pause is negative.
+     */
+    public void setPacing(long pacing) {
+        if (pacing < 0) {
+            throw new IllegalArgumentException("Invalid pacing, must not be negative.");
+        }
+        this.pacing = pacing;
+    }
+
+    /**
+     * A simple getter method to return the way the tables are run.
+     * @return the table mode.
+     */
+    public TablePool.Mode getTableMode() {
+        return this.tableMode;
+    }
+
+    /**
+     * A method to set the way the tables are run.
+     * @param tableMode the table mode.
+     */
+    public void setTableMode(TablePool.Mode tableMode) {
+        this.tableMode = tableMode;
+    }
+
+    /**
+     * A simple getter method to return the engine deciding each match.
+     * @return the match engine.
+     */
+    public MatchEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * A method to set the engine deciding each match.
+     * @param engine the match engine.
+     */
+    public void setEngine(MatchEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * A simple getter method to return whether dataflow mode is used.
+     * @return {@code true} if matches are played as soon as their players are known.
+     */
+    public boolean isDataflow() {
+        return this.dataflow;
+    }
+
+    /**
+     * A method to set whether matches are played as soon as their players are known, instead of round by round.
+     * @param dataflow {@code true} to use dataflow mode.
+     */
+    public void setDataflow(boolean dataflow) {
+        this.dataflow = dataflow;
+    }
+
+    /**
+     * A simple getter method to return how often a snapshot of the metrics is output.
+     * @return the time between snapshots in milliseconds, or 0 if metrics are not recorded.
+     */
+    public long getMetricsPeriod() {
+        return this.metricsPeriod;
+    }
+
+    /**
+     * A method to set how often a snapshot of the {@link SimulationMetrics} is output. Used by {@link Main} when run from
+     * the command line, which also turns the metrics on and registers them with JMX.
+     * @param metricsPeriod the time between snapshots in milliseconds, or 0 to not record metrics.
+     * @throws IllegalArgumentException if the time is negative.
+     */
+    public void setMetricsPeriod(long metricsPeriod) {
+        if (metricsPeriod < 0) {
+            throw new IllegalArgumentException("Invalid metrics period, must not be negative.");
+        }
+        this.metricsPeriod = metricsPeriod;
+    }
+
+    /**
+     * A simple getter method to return the file the checkpoints are written to.
+     * @return the path to the file, or {@code null} if no checkpoints are written.
+     */
+    public String getCheckpointPath() {
+        return this.checkpointPath;
+    }
+
+    /**
+     * A method to set the file a {@link TournamentCheckpoint} is written to after every knock-out round (except the
+     * final), so the tournament can be carried on if it is stopped. A seed is needed to carry on with the same results,
+     * so one is chosen by {@link Main#runSimulation(SimulationConfig)} if none is set. Not used in dataflow mode, as it
+     * has no rounds.
+     * @param checkpointPath the path to the file, or {@code null} to not write checkpoints.
+     */
+    public void setCheckpointPath(String checkpointPath) {
+        this.checkpointPath = checkpointPath;
+    }
+
+    /**
+     * A simple getter method to return the checkpoint the tournament is carried on from.
+     * @return the path to the checkpoint, or {@code null} if a new tournament is started.
+     */
+    public String getResumePath() {
+        return this.resumePath;
+    }
+
+    /**
+     * A method to set the checkpoint the tournament is carried on from, by {@link Main#runSimulation(SimulationConfig)}.
+     * The seed, roster, number of players and match engine are taken from the checkpoint, and the tournament carries on
+     * writing checkpoints to the same file unless another is set.
+     * @param resumePath the path to the checkpoint, or {@code null} to start a new tournament.
+     */
+    public void setResumePath(String resumePath) {
+        this.resumePath = resumePath;
+    }
+
+    /**
+     * A simple getter method to return the golden file the matches are recorded in or checked against.
+     * @return the path to the golden file, or {@code null} if there is none.
+     */
+    public String getGoldenPath() {
+        return this.goldenPath;
+    }
+
+    /**
+     * A method to set the golden file of a {@link GoldenReplay}, used by {@link Main} when run from the command line. If
+     * the file does not exist, every match is recorded in it (with a seed chosen if none is set). If it exists, the seed,
+     * roster, number of players and match engine are taken from it, and every match is checked against it, whatever the
+     * number of tables, table mode or dataflow mode.
+     * @param goldenPath the path to the golden file, or {@code null} for neither.
+     */
+    public void setGoldenPath(String goldenPath) {
+        this.goldenPath = goldenPath;
+    }
+
+    /**
+     * A simple getter method to return the most players in each group of the group stage.
+     * @return the group size, or 0 if there is no group stage.
+     */
+    public int getGroupSize() {
+        return this.groupSize;
+    }
+
+    /**
+     * A method to set the most players in each group, so a {@link GroupStageTournament} is played by
+     * {@link Main#runSimulation(SimulationConfig)} instead of a knock-out tournament only.
+     * @param groupSize the most players in a group, from 2 to {@link GroupStageTournament#MAX_GROUP_SIZE}, or 0 for no
+     *                  group stage.
+     * @throws IllegalArgumentException if the size is out of range.
+     */
+    public void setGroupSize(long groupSize) {
+        if (groupSize != 0 && (groupSize < 2 || groupSize > GroupStageTournament.MAX_GROUP_SIZE)) {
+            throw new IllegalArgumentException("Invalid group size, must be 0 or from 2 to " + GroupStageTournament.MAX_GROUP_SIZE + ".");
+        }
+        this.groupSize = (int) groupSize;
+    }
+
+    /**
+     * A simple getter method to return the number of rounds of a Swiss-system tournament.
+     * @return the number of rounds, or 0 for a knock-out tournament.
+     */
+    public int getSwissRounds() {
+        return this.swissRounds;
+    }
+
+    /**
+     * A method to set the number of rounds of a Swiss-system tournament, so a {@link SwissTournament} is played by
+     * {@link Main#runSimulation(SimulationConfig)} instead of a knock-out tournament.
+     * @param swissRounds the number of rounds, from 1 to {@value #MAX_SWISS_ROUNDS}, or 0 for a knock-out tournament.
+     * @throws IllegalArgumentException if the number of rounds is out of range.
+     */
+    public void setSwissRounds(long swissRounds) {
+        if (swissRounds < 0 || swissRounds > MAX_SWISS_ROUNDS) {
+            throw new IllegalArgumentException("Invalid number of Swiss rounds, must be from 0 to " + MAX_SWISS_ROUNDS + ".");
+        }
+        this.swissRounds = (int) swissRounds;
+    }
+
+    /**
+     * A simple getter method to return the number of worker processes.
+     * @return the number of workers, or 0 if a single tournament is played.
+     */
+    public int getNumWorkers() {
+        return this.numWorkers;
+    }
+
+    /**
+     * A method to set the number of worker processes a batch of tournaments is shared between by a
+     * {@link ShardCoordinator}, instead of playing a single tournament. Used by {@link Main} when run from the command
+     * line.
+     * @param numWorkers the number of workers, or 0 to play a single tournament.
+     * @throws IllegalArgumentException if the number of workers is negative.
+     */
+    public void setNumWorkers(long numWorkers) {
+        if (numWorkers < 0 || numWorkers > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of workers, must not be negative.");
+        }
+        this.numWorkers = (int) numWorkers;
+    }
+
+    /**
+     * A simple getter method to return the number of tournaments in a batch.
+     * @return the number of tournaments.
+     */
+    public long getNumTournaments() {
+        return this.numTournaments;
+    }
+
+    /**
+     * A method to set the number of tournaments in a batch played by worker processes.
+     * @param numTournaments the number of tournaments, at least 1.
+     * @throws IllegalArgumentException if the number of tournaments is invalid.
+     */
+    public void setNumTournaments(long numTournaments) {
+        if (numTournaments < 1) {
+            throw new IllegalArgumentException("Invalid number of tournaments, must be at least 1.");
+        }
+        this.numTournaments = numTournaments;
+    }
+}
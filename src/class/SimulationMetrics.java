@@ -0,0 +1,410 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records metrics of the simulation while it runs: the matches played on each table, how long matches and
+ * tournament rounds take, and how often a round is decided by the fallback coin flip.
+ * <p>
+ *     Metrics are off unless turned on ({@link SimulationMetrics#setEnabled(boolean)}, or the system property
+ *     {@code simulation.metrics=true}), and while off each place they are recorded only reads a single flag. When on, the
+ *     counts are kept in {@link LongAdder}s and {@link LatencyHistogram}s, so tables never wait for each other to record
+ *     a value, and the number of rounds is added once for each match instead of once for each round.
+ * </p>
+ * <p>
+ *     Every match is counted, but only 1 in {@value #LATENCY_SAMPLE} matches on each table is timed, as reading the
+ *     clock twice costs more than counting the match.
+ * </p>
+ * <p>
+ *     The metrics can be read over JMX once {@link SimulationMetrics#register()} has been called (see
+ *     {@link SimulationMetricsMBean}), and written out regularly using
+ *     {@link SimulationMetrics#startSnapshots(long, PrintStream)}.
+ * </p>
+ * @see SimulationMetricsMBean
+ * @see LatencyHistogram
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+    /**
+     * The metrics of this simulation, shared by every tournament and table.
+     */
+    public static final SimulationMetrics INSTANCE = new SimulationMetrics();
+    /**
+     * The name the metrics are registered under in JMX.
+     */
+    public static final String OBJECT_NAME = "TableTennisSimulation:type=SimulationMetrics";
+    /**
+     * 1 in this number of matches on each table is timed (a power of 2).
+     */
+    public static final int LATENCY_SAMPLE = 8;
+
+    /**
+     * Whether metrics are being recorded, read by every match.
+     */
+    private static volatile boolean enabled = Boolean.getBoolean("simulation.metrics");
+
+    /**
+     * How long each match played on a table took.
+     */
+    private final LatencyHistogram matchLatency = new LatencyHistogram();
+    /**
+     * How long each round of a tournament (a knock-out round, group matchday or Swiss round) took, from giving its matches to the tables to every match being complete.
+     */
+    private final LatencyHistogram roundTime = new LatencyHistogram();
+    /**
+     * The matches played on each table, by the name of the table.
+     */
+    private final ConcurrentHashMap<String, TableCounter> tables = new ConcurrentHashMap<String, TableCounter>();
+    /**
+     * The number of rounds played.
+     */
+    private final LongAdder rounds = new LongAdder();
+    /**
+     * The number of rounds decided by the fallback coin flip.
+     */
+    private final LongAdder fallbacks = new LongAdder();
+    /**
+     * When the metrics were last reset, from {@link System#nanoTime()}.
+     */
+    private volatile long resetTime = System.nanoTime();
+    /**
+     * The thread writing the periodic snapshots, or {@code null} if not started.
+     */
+    private ScheduledExecutorService snapshots = null;
+
+    /**
+     * Creates the metrics, which is only done once for {@link SimulationMetrics#INSTANCE}.
+     */
+    private SimulationMetrics() {
+    }
+
+    /**
+     * Gets the time to start timing something from, if metrics are being recorded.
+     * @return the time from {@link System#nanoTime()}, or 0 if metrics are not being recorded.
+     */
+    public static long startTimer() {
+        if (!enabled) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Counts a match about to be played on a table, and decides whether it is timed.
+     * @param table the name of the table the match is played on.
+     * @return the time to give to {@link SimulationMetrics#matchPlayed(long)} once the match has been played, or 0 if
+     * the match is not timed.
+     */
+    public static long startMatch(String table) {
+        if (!enabled) {
+            return 0;
+        }
+        TableCounter counter = INSTANCE.tables.get(table);
+        if (counter == null) {
+            counter = INSTANCE.tables.computeIfAbsent(table, name -> new TableCounter());
+        }
+        counter.matches.increment();
+        if ((++counter.sample & (LATENCY_SAMPLE - 1)) != 0) { // only one match at a time is played on a table
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records how long a timed match took.
+     * @param start the time returned by {@link SimulationMetrics#startMatch(String)} before the match was played.
+     */
+    public static void matchPlayed(long start) {
+        if (start != 0 && enabled) {
+            INSTANCE.matchLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the rounds played in a match.
+     * @param numRounds the number of rounds.
+     */
+    public static void roundsPlayed(int numRounds) {
+        if (enabled) {
+            INSTANCE.rounds.add(numRounds);
+        }
+    }
+
+    /**
+     * Records a round decided by the fallback coin flip.
+     */
+    public static void fallbackCoinFlip() {
+        if (enabled) {
+            INSTANCE.fallbacks.increment();
+        }
+    }
+
+    /**
+     * Records a round of a tournament: a knock-out round, a matchday of a group stage or a Swiss round.
+     * @param start the time returned by {@link SimulationMetrics#startTimer()} before the round was played.
+     */
+    public static void tournamentRoundPlayed(long start) {
+        if (start != 0 && enabled) {
+            INSTANCE.roundTime.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, under {@link SimulationMetrics#OBJECT_NAME}, if not already
+     * registered.
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            System.out.println("Unexpected error: " + e);
+        }
+    }
+
+    /**
+     * Starts writing a snapshot of the metrics regularly, on a thread of its own, replacing any snapshots already
+     * started.
+     * @param periodMillis the time between snapshots, in milliseconds.
+     * @param output the stream to write the snapshots to.
+     */
+    public synchronized void startSnapshots(long periodMillis, PrintStream output) {
+        this.stopSnapshots();
+        this.snapshots = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Metrics snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshots.scheduleAtFixedRate(() -> output.println(this.snapshot()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops writing snapshots, if started.
+     */
+    public synchronized void stopSnapshots() {
+        if (this.snapshots != null) {
+            this.snapshots.shutdownNow();
+            this.snapshots = null;
+        }
+    }
+
+    /**
+     * Gets whether metrics are being recorded.
+     * @return {@code true} if metrics are being recorded.
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops recording metrics, for every tournament and table.
+     * @param enabled {@code true} to record metrics.
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        SimulationMetrics.enabled = enabled;
+    }
+
+    /**
+     * Gets the number of matches played on tables, adding up the count of every table. Every match is counted, unlike
+     * the match latency histogram, which only has 1 in {@value #LATENCY_SAMPLE} matches.
+     * @return the number of matches.
+     */
+    @Override
+    public long getMatchesPlayed() {
+        long numMatches = 0;
+        for (TableCounter counter : this.tables.values()) {
+            numMatches += counter.matches.sum();
+        }
+        return numMatches;
+    }
+
+    /**
+     * Gets the number of matches played on tables each second, since the metrics were reset.
+     * @return the matches per second.
+     */
+    @Override
+    public double getMatchesPerSecond() {
+        return this.getMatchesPlayed() / this.secondsSinceReset();
+    }
+
+    /**
+     * Gets the number of matches played on each table, in order of the table name.
+     * @return a line for each table.
+     */
+    @Override
+    public String[] getTableMatchesPerSecond() {
+        double seconds = this.secondsSinceReset();
+        TreeMap<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, TableCounter> table : this.tables.entrySet()) {
+            counts.put(table.getKey(), table.getValue().matches.sum());
+        }
+
+        ArrayList<String> lines = new ArrayList<String>();
+        for (Map.Entry<String, Long> table : counts.entrySet()) {
+            lines.add(String.format("%s: %d matches, %.1f/s", table.getKey(), table.getValue(), table.getValue() / seconds));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the mean time taken to play a match.
+     * @return the mean in microseconds.
+     */
+    @Override
+    public double getMatchLatencyMeanMicros() {
+        return this.matchLatency.getMean() / 1e3;
+    }
+
+    /**
+     * Gets the time which half of matches took no longer than.
+     * @return the median in microseconds.
+     */
+    @Override
+    public double getMatchLatencyP50Micros() {
+        return this.matchLatency.getPercentile(50) / 1e3;
+    }
+
+    /**
+     * Gets the time which 99% of matches took no longer than.
+     * @return the 99th percentile in microseconds.
+     */
+    @Override
+    public double getMatchLatencyP99Micros() {
+        return this.matchLatency.getPercentile(99) / 1e3;
+    }
+
+    /**
+     * Gets the longest time taken to play a match.
+     * @return the longest time in microseconds.
+     */
+    @Override
+    public double getMatchLatencyMaxMicros() {
+        return this.matchLatency.getMax() / 1e3;
+    }
+
+    /**
+     * Gets the number of rounds played by matches played round by round.
+     * @return the number of rounds.
+     */
+    @Override
+    public long getRoundsPlayed() {
+        return this.rounds.sum();
+    }
+
+    /**
+     * Gets the number of rounds decided by the fallback coin flip.
+     * @return the number of coin flips.
+     */
+    @Override
+    public long getFallbackCoinFlips() {
+        return this.fallbacks.sum();
+    }
+
+    /**
+     * Gets the share of rounds decided by the fallback coin flip.
+     * @return the share, from 0 to 1.
+     */
+    @Override
+    public double getFallbackRate() {
+        long numRounds = this.rounds.sum();
+        if (numRounds == 0) {
+            return 0;
+        }
+        return (double) this.fallbacks.sum() / numRounds;
+    }
+
+    /**
+     * Gets the number of tournament rounds which have been timed.
+     * @return the number of tournament rounds.
+     */
+    @Override
+    public long getTournamentRoundsTimed() {
+        return this.roundTime.getCount();
+    }
+
+    /**
+     * Gets the mean time taken to play a tournament round.
+     * @return the mean in milliseconds.
+     */
+    @Override
+    public double getTournamentRoundMeanMillis() {
+        return this.roundTime.getMean() / 1e6;
+    }
+
+    /**
+     * Gets the longest time taken to play a tournament round.
+     * @return the longest time in milliseconds.
+     */
+    @Override
+    public double getTournamentRoundMaxMillis() {
+        return this.roundTime.getMax() / 1e6;
+    }
+
+    /**
+     * Gets every metric as text, with a line for each table.
+     * @return the snapshot.
+     */
+    @Override
+    public String snapshot() {
+        StringBuilder snapshot = new StringBuilder();
+        snapshot.append(String.format("[metrics] %d matches, %.1f/s, latency mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                this.getMatchesPlayed(), this.getMatchesPerSecond(), this.getMatchLatencyMeanMicros(),
+                this.getMatchLatencyP50Micros(), this.getMatchLatencyP99Micros(), this.getMatchLatencyMaxMicros()));
+        snapshot.append(String.format("[metrics] %d rounds, %d fallback coin flips (%.4f%%), %d tournament rounds, mean %.2f ms, max %.2f ms",
+                this.getRoundsPlayed(), this.getFallbackCoinFlips(), this.getFallbackRate() * 100,
+                this.getTournamentRoundsTimed(), this.getTournamentRoundMeanMillis(), this.getTournamentRoundMaxMillis()));
+        for (String table : this.getTableMatchesPerSecond()) {
+            snapshot.append("\n[metrics]   ").append(table);
+        }
+        return snapshot.toString();
+    }
+
+    /**
+     * Sets every metric back to 0, and starts the matches per second from now.
+     */
+    @Override
+    public void reset() {
+        this.matchLatency.reset();
+        this.roundTime.reset();
+        this.tables.clear();
+        this.rounds.reset();
+        this.fallbacks.reset();
+        this.resetTime = System.nanoTime();
+    }
+
+    /**
+     * The matches played on a table.
+     */
+    private static class TableCounter {
+        /**
+         * The number of matches played.
+         */
+        private final LongAdder matches = new LongAdder();
+        /**
+         * Counts up with every match, to decide which matches are timed. Only changed by the table playing a match.
+         */
+        private int sample = 0;
+    }
+
+    /**
+     * Gets the time since the metrics were reset.
+     * @return the time in seconds.
+     */
+    private double secondsSinceReset() {
+        return Math.max(System.nanoTime() - this.resetTime, 1) / 1e9;
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * This class implements the {@link MatchEngine} interface using the original match logic, where every round of the
+ * match is played using {@link TableTennisRound} until a player has won 6 rounds.
+ * @see TableTennisMatch#playScore(float, float, RandomGenerator)
+ */
+public class StandardMatchEngine implements MatchEngine {
+    /**
+     * A shared engine, which can be used by any number of threads as it has no attributes.
+     */
+    public static final StandardMatchEngine INSTANCE = new StandardMatchEngine();
+
+    /**
+     * Plays a match round by round, using the players' average skill.
+     * @param p1 Player 1 in the match
+     * @param p2 Player 2 in the match
+     * @param random the generator to take random numbers from.
+     * @return the score of the match.
+     */
+    @Override
+    public int playMatch(TableTennisPlayer p1, TableTennisPlayer p2, RandomGenerator random) {
+        return TableTennisMatch.playScore(p1.getAverageSkill(), p2.getAverageSkill(), random);
+    }
+
+    /**
+     * Plays a match round by round, using the players' average skill from the store.
+     * @param store the store containing the players.
+     * @param p1 Player 1's position in the store
+     * @param p2 Player 2's position in the store
+     * @param random the generator to take random numbers from.
+     * @return the score of the match.
+     */
+    @Override
+    public int playMatch(PlayerStore store, int p1, int p2, RandomGenerator random) {
+        return TableTennisMatch.playScore(store.getSkill(p1), store.getSkill(p2), random);
+    }
+}
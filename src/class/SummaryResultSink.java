@@ -0,0 +1,112 @@
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class implements the {@link ResultSink} interface by counting the matches as they are played, and only outputting
+ * a summary once the tournament has been won: the number of rounds, matches and byes, how often each score happened, and
+ * the winner.
+ * <p>
+ *     Matches are counted with {@link LongAdder} and atomic counters, so many tables can add to the counts at once
+ *     without waiting for each other. The counts are reset after each summary, so the sink can be used for many
+ *     tournaments.
+ * </p>
+ * @see QuietResultSink
+ */
+public class SummaryResultSink implements ResultSink {
+    /**
+     * The stream the summary is written to.
+     */
+    private final PrintStream output;
+    /**
+     * The number of matches played.
+     */
+    private final LongAdder matches = new LongAdder();
+    /**
+     * The number of matches won by each number of rounds lost by the winner ({@code 6-0} to {@code 6-5}).
+     */
+    private final AtomicLongArray scores = new AtomicLongArray(MatchScore.ROUNDS_TO_WIN);
+    /**
+     * The highest round a match has been played in.
+     */
+    private final AtomicInteger rounds = new AtomicInteger();
+    /**
+     * The number of byes given.
+     */
+    private final AtomicInteger byes = new AtomicInteger();
+
+    /**
+     * Creates the sink.
+     * @param output the stream to write the summary to, e.g. {@link System#out}.
+     */
+    public SummaryResultSink(PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Does nothing, as the rounds are counted from the matches.
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round.
+     */
+    @Override
+    public void roundStarted(int round, List<List<TableTennisPlayer>> pairings) {
+    }
+
+    /**
+     * Counts the match and its score.
+     * @param match the match, after it has been played.
+     */
+    @Override
+    public void matchPlayed(TableTennisMatch match) {
+        this.matches.increment();
+        this.rounds.accumulateAndGet(match.getRound(), Math::max);
+        int score = match.getScore();
+        this.scores.incrementAndGet(Math.min(MatchScore.p1Rounds(score), MatchScore.p2Rounds(score)));
+    }
+
+    /**
+     * Counts the bye.
+     * @param round the round, from 1.
+     * @param player the player given the bye.
+     */
+    @Override
+    public void byeGiven(int round, TableTennisPlayer player) {
+        this.byes.incrementAndGet();
+    }
+
+    /**
+     * Writes the summary, and resets the counts.
+     * @param winner the player who won the tournament.
+     */
+    @Override
+    public void tournamentWon(TableTennisPlayer winner) {
+        long numMatches = this.matches.sumThenReset();
+        StringBuilder summary = new StringBuilder();
+        summary.append(numMatches).append(" matches played");
+        int numRounds = this.rounds.getAndSet(0);
+        if (numRounds > 0) {
+            summary.append(" over ").append(numRounds).append(" rounds");
+        }
+        int numByes = this.byes.getAndSet(0);
+        if (numByes > 0) {
+            summary.append(", ").append(numByes).append(numByes == 1 ? " bye" : " byes");
+        }
+        summary.append(", scores:");
+        for (int lost = 0; lost < MatchScore.ROUNDS_TO_WIN; lost++) {
+            summary.append(' ').append(MatchScore.ROUNDS_TO_WIN).append('-').append(lost).append(" x").append(this.scores.getAndSet(lost, 0));
+        }
+        summary.append("\nThe tournament winner is: ").append(winner.getFirstName()).append(' ').append(winner.getLastName());
+
+        this.output.println(summary);
+    }
+
+    /**
+     * Flushes the stream the summary is written to.
+     */
+    @Override
+    public void flush() {
+        this.output.flush();
+    }
+}
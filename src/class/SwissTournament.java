@@ -0,0 +1,428 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a Swiss-system tournament: every player plays a set number of rounds, and each round players are paired
+ * with others on the same score (or as close as possible) whom they have not already played. Nobody is knocked out, and
+ * the winner is the player with the most points once every round has been played.
+ * <p>
+ *     Before each round the players are put in order of points (most first, then the order of the draw) with a counting
+ *     sort over the score groups, which takes {@code O(n)} as there are only as many score groups as rounds. The players
+ *     are then paired from the top (Monrad pairing): each player still unpaired is paired with the next unpaired player
+ *     below them they have not played yet, looking at most {@value #SEARCH_LIMIT} players ahead, so a player with no
+ *     new opponent left in their score group is paired with the top of the group below. If a player has no new opponent
+ *     left (most often the last players paired), they swap opponents with one of the matches paired before them, and a
+ *     rematch is only allowed if no swap is found either. The unpaired players are kept in a linked list over the order,
+ *     so paired players are skipped without being looked at, and pairing a round takes {@code O(n * rounds)} rather than
+ *     {@code O(n^2)}.
+ * </p>
+ * <p>
+ *     If the number of players is odd, the lowest placed player who has not yet had one is given a bye, which counts as
+ *     a win.
+ * </p>
+ * <p>
+ *     Every match of a round is given to the {@link TablePool} at once, and the points are added by the tables. As a
+ *     player has at most 1 match a round, no 2 tables ever add to the same player's points, and the points are read once
+ *     every match of the round has been played. Ties in the final standings are broken by the points of each player's
+ *     opponents (Buchholz), and then by the order of the draw.
+ * </p>
+ * <p>
+ *     If the config has a seed, each match is given its own generator worked out from the seed, its round and its slot in
+ *     the round ({@link MatchStreams}).
+ * </p>
+ * @see SimulationConfig#setSwissRounds(long)
+ */
+public class SwissTournament implements Tournament {
+    /**
+     * The number of players looked at ahead of a player for an opponent they have not played.
+     */
+    private static final int SEARCH_LIMIT = 64;
+    /**
+     * The opponent of a player given a bye, or the end of the list of unpaired players.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The players taking part, in the order of the draw.
+     */
+    private final ArrayList<TableTennisPlayer> allPlayers;
+    /**
+     * The settings of the tournament.
+     */
+    private final SimulationConfig config;
+    /**
+     * The number of rounds played.
+     */
+    private final int numRounds;
+    /**
+     * The round being played, from 1.
+     */
+    private int round = 0;
+    /**
+     * The points of each player, 1 for each match won or bye.
+     */
+    private int[] points;
+    /**
+     * The opponent of each player in each round, as {@code opponents[player * numRounds + round - 1]}, or
+     * {@link SwissTournament#NONE} for a bye.
+     */
+    private int[] opponents;
+    /**
+     * Whether each player has had a bye.
+     */
+    private boolean[] hadBye;
+    /**
+     * The player given a bye in the current round, or {@link SwissTournament#NONE} if the number of players is even.
+     */
+    private int byePlayer = NONE;
+    /**
+     * The number of times players were paired with someone they had already played.
+     */
+    private int numRematches = 0;
+    /**
+     * The players from first place to last, once the tournament is complete.
+     */
+    private List<TableTennisPlayer> standings = null;
+    /**
+     * The player who won the tournament, once it is complete.
+     */
+    private TableTennisPlayer winner = null;
+
+    /**
+     * Creates the tournament, taking every setting from a {@link SimulationConfig}.
+     * @param players {@link ArrayList} of players taking part, in the order of the draw.
+     * @param config the settings of the tournament, with a number of rounds set ({@link SimulationConfig#setSwissRounds(long)}).
+     * @throws IllegalArgumentException if there are fewer than 2 players, or the config has no rounds set.
+     */
+    public SwissTournament(ArrayList<TableTennisPlayer> players, SimulationConfig config) {
+        if (players.size() < 2) {
+            throw new IllegalArgumentException("Invalid number of players, must be at least 2.");
+        }
+        if (config.getSwissRounds() < 1) {
+            throw new IllegalArgumentException("Invalid number of rounds, must be at least 1.");
+        }
+        this.allPlayers = players;
+        this.config = config;
+        this.numRounds = config.getSwissRounds();
+        this.drawPlayers();
+    }
+
+    /**
+     * This method is used to start every player on no points, with no opponents and no bye. The players are paired
+     * before each round, as the pairings depend on the results so far.
+     */
+    @Override
+    public void drawPlayers() {
+        int numPlayers = this.allPlayers.size();
+        this.points = new int[numPlayers];
+        this.opponents = new int[numPlayers * this.numRounds];
+        this.hadBye = new boolean[numPlayers];
+        this.round = 0;
+        this.numRematches = 0;
+    }
+
+    /**
+     * A simple getter method to return the number of rounds.
+     * @return the number of rounds.
+     */
+    public int getNumRounds() {
+        return this.numRounds;
+    }
+
+    /**
+     * A simple getter method to return the points of a player.
+     * @param player the index of the player, in the order of the draw.
+     * @return the points, 1 for each match won or bye.
+     */
+    public int getPoints(int player) {
+        return this.points[player];
+    }
+
+    /**
+     * A simple getter method to return the number of rematches, when no new opponent could be found for a player.
+     * @return the number of rematches.
+     */
+    public int getNumRematches() {
+        return this.numRematches;
+    }
+
+    /**
+     * A simple getter method to return the final standings.
+     * @return the players from first place to last, or {@code null} if the tournament is not complete.
+     */
+    public List<TableTennisPlayer> getStandings() {
+        return this.standings;
+    }
+
+    /**
+     * A simple getter method to return the winner of the tournament.
+     * @return the player who won, or {@code null} if the tournament has not been completed.
+     */
+    public TableTennisPlayer getWinner() {
+        return this.winner;
+    }
+
+    /**
+     * Plays every round on the tables, pairing the players before each one, and then ranks the players.
+     */
+    @Override
+    public void startTournament() {
+        ResultSink sink = this.config.getSink();
+        TablePool tables = new TablePool(this.config.getNumTables(), this.config.getTableMode(), this.config.getEngine(), sink);
+        boolean complete = true;
+        try {
+            while (this.round < this.numRounds && complete) {
+                this.round++;
+                long roundStart = SimulationMetrics.startTimer();
+                complete = this.playRound(tables, this.pairRound());
+                SimulationMetrics.tournamentRoundPlayed(roundStart);
+                sink.flush(); // output the round before pausing
+
+                if (complete && this.round < this.numRounds) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(this.config.getPacing());
+                    } catch (InterruptedException e) {
+                        System.out.println("Unexpected error: " + e);
+                    }
+                }
+            }
+        } finally {
+            tables.close();
+        }
+        if (!complete) {
+            return; // the error was encountered
+        }
+
+        this.standings = this.rankPlayers();
+        this.winner = this.standings.get(0);
+        sink.tournamentWon(this.winner);
+        sink.flush();
+    }
+
+    /**
+     * Pairs the players for the current round, giving a bye if the number of players is odd, and fills in each player's
+     * opponent.
+     * @return the indexes of player 1 and player 2 of each match, one after another, from the top of the standings.
+     */
+    private int[] pairRound() {
+        int numPlayers = this.allPlayers.size();
+        int[] order = this.orderByPoints();
+
+        int[] next = new int[numPlayers]; // the unpaired players, as a linked list over the positions in the order
+        int[] previous = new int[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            next[i] = i + 1 < numPlayers ? i + 1 : NONE;
+            previous[i] = i - 1;
+        }
+        int[] head = {numPlayers > 0 ? 0 : NONE};
+        this.byePlayer = NONE;
+
+        if (numPlayers % 2 == 1) {
+            int bye = numPlayers - 1;
+            while (bye > 0 && this.hadBye[order[bye]]) {
+                bye--;
+            }
+            int player = order[bye];
+            this.hadBye[player] = true;
+            this.byePlayer = player;
+            this.points[player]++;
+            this.opponents[player * this.numRounds + this.round - 1] = NONE;
+            unlink(bye, head, next, previous);
+        }
+
+        int[] pairs = new int[2 * (numPlayers / 2)];
+        int filled = 0;
+        while (head[0] != NONE) {
+            int first = head[0];
+            unlink(first, head, next, previous);
+            int p1 = order[first];
+
+            int second = head[0];
+            int candidate = second;
+            for (int looked = 0; candidate != NONE && looked < SEARCH_LIMIT; looked++) {
+                if (!this.hasPlayed(p1, order[candidate])) {
+                    second = candidate;
+                    break;
+                }
+                candidate = next[candidate];
+            }
+            unlink(second, head, next, previous);
+            pairs[filled++] = p1;
+            pairs[filled++] = order[second];
+        }
+
+        for (int match = 0; match < pairs.length / 2; match++) {
+            if (this.hasPlayed(pairs[2 * match], pairs[2 * match + 1]) && !this.swapOpponents(pairs, match)) {
+                this.numRematches++; // no new opponent close enough
+            }
+        }
+        for (int i = 0; i < pairs.length; i += 2) {
+            this.opponents[pairs[i] * this.numRounds + this.round - 1] = pairs[i + 1];
+            this.opponents[pairs[i + 1] * this.numRounds + this.round - 1] = pairs[i];
+        }
+        return pairs;
+    }
+
+    /**
+     * Tries to avoid a rematch by swapping opponents with one of the matches paired before it (most often left for the
+     * last players paired), looking back at most {@value #SEARCH_LIMIT} matches.
+     * @param pairs the indexes of player 1 and player 2 of each match, one after another.
+     * @param match the match which is a rematch.
+     * @return {@code true} if the opponents were swapped, so neither match is a rematch.
+     */
+    private boolean swapOpponents(int[] pairs, int match) {
+        int p1 = pairs[2 * match];
+        int p2 = pairs[2 * match + 1];
+        for (int other = match - 1; other >= 0 && other >= match - SEARCH_LIMIT; other--) {
+            int q1 = pairs[2 * other];
+            int q2 = pairs[2 * other + 1];
+            if (!this.hasPlayed(q1, p1) && !this.hasPlayed(q2, p2)) {
+                pairs[2 * other + 1] = p1;
+                pairs[2 * match] = q2;
+                return true;
+            }
+            if (!this.hasPlayed(q1, p2) && !this.hasPlayed(q2, p1)) {
+                pairs[2 * other + 1] = p2;
+                pairs[2 * match + 1] = q2;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts the players in order of points, most first, keeping the order of the draw within each score group. As points
+     * go from 0 to the number of rounds played, a counting sort is used.
+     * @return the index of each player, from the top of the standings.
+     */
+    private int[] orderByPoints() {
+        int[] starts = new int[this.round + 2]; // the first position of each score group, from the most points
+        for (int player = 0; player < this.points.length; player++) {
+            starts[this.round - this.points[player] + 1]++;
+        }
+        for (int group = 1; group < starts.length; group++) {
+            starts[group] += starts[group - 1];
+        }
+        int[] order = new int[this.points.length];
+        for (int player = 0; player < this.points.length; player++) {
+            order[starts[this.round - this.points[player]]++] = player;
+        }
+        return order;
+    }
+
+    /**
+     * Removes a position from the linked list of unpaired players.
+     * @param position the position in the order.
+     * @param head the first unpaired position, as a single element array so it can be changed.
+     * @param next the next unpaired position after each position.
+     * @param previous the unpaired position before each position.
+     */
+    private static void unlink(int position, int[] head, int[] next, int[] previous) {
+        if (previous[position] == NONE) {
+            head[0] = next[position];
+        } else {
+            next[previous[position]] = next[position];
+        }
+        if (next[position] != NONE) {
+            previous[next[position]] = previous[position];
+        }
+    }
+
+    /**
+     * Checks if 2 players have played each other in an earlier round.
+     * @param p1 the index of a player.
+     * @param p2 the index of the other player.
+     * @return {@code true} if they have played each other.
+     */
+    private boolean hasPlayed(int p1, int p2) {
+        int offset = p1 * this.numRounds;
+        for (int i = 0; i < this.round - 1; i++) {
+            if (this.opponents[offset + i] == p2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives every match of the round to the tables, and waits for them all to be played. The winner's point is added by
+     * the table which played the match.
+     * @param tables the tables.
+     * @param pairs the indexes of player 1 and player 2 of each match, one after another.
+     * @return {@code true} if the round was played, or {@code false} if an error was encountered.
+     */
+    private boolean playRound(TablePool tables, int[] pairs) {
+        List<List<TableTennisPlayer>> pairings = new ArrayList<List<TableTennisPlayer>>(pairs.length / 2);
+        for (int i = 0; i < pairs.length; i += 2) {
+            pairings.add(Arrays.asList(this.allPlayers.get(pairs[i]), this.allPlayers.get(pairs[i + 1])));
+        }
+        this.config.getSink().roundStarted(this.round, pairings);
+        if (this.byePlayer != NONE) {
+            this.config.getSink().byeGiven(this.round, this.allPlayers.get(this.byePlayer));
+        }
+
+        CompletableFuture<?>[] played = new CompletableFuture<?>[pairings.size()];
+        for (int slot = 0; slot < played.length; slot++) {
+            TableTennisMatch match = new TableTennisMatch(pairings.get(slot));
+            match.setRound(this.round);
+            match.setSlot(slot);
+            match.setEngine(this.config.getEngine());
+            if (this.config.getSeed() != null) {
+                match.setRandom(MatchStreams.forMatch(this.config.getSeed(), this.round, slot));
+            }
+            int p1 = pairs[2 * slot];
+            int p2 = pairs[2 * slot + 1];
+            played[slot] = tables.submit(match).thenAccept(result -> this.points[MatchScore.winner(result.getScore()) == 1 ? p1 : p2]++);
+        }
+
+        try {
+            CompletableFuture.allOf(played).join(); // the points added by the tables are visible once joined
+            return true;
+        } catch (CompletionException e) {
+            System.out.println("Unexpected error, exiting simulation.");
+            System.out.println(e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * Ranks the players by points, then by the points of their opponents, then by the order of the draw.
+     * @return the players, from first place to last.
+     */
+    private List<TableTennisPlayer> rankPlayers() {
+        int numPlayers = this.allPlayers.size();
+        long[] buchholz = new long[numPlayers];
+        for (int player = 0; player < numPlayers; player++) {
+            for (int i = 0; i < this.numRounds; i++) {
+                int opponent = this.opponents[player * this.numRounds + i];
+                if (opponent != NONE) {
+                    buchholz[player] += this.points[opponent];
+                }
+            }
+        }
+
+        Integer[] order = new Integer[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            if (this.points[a] != this.points[b]) {
+                return Integer.compare(this.points[b], this.points[a]);
+            }
+            if (buchholz[a] != buchholz[b]) {
+                return Long.compare(buchholz[b], buchholz[a]);
+            }
+            return Integer.compare(a, b);
+        });
+
+        List<TableTennisPlayer> ranked = new ArrayList<TableTennisPlayer>(numPlayers);
+        for (int player : order) {
+            ranked.add(this.allPlayers.get(player));
+        }
+        return ranked;
+    }
+}
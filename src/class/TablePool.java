@@ -0,0 +1,273 @@
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class holds the tables of a tournament, which stay the same for every knock-out round. Matches are given to the
+ * pool as tasks, and are played as soon as a table is free.
+ * <p>
+ *     There are 2 modes:
+ * </p>
+ * <ul>
+ *     <li>{@link Mode#FIXED} - a {@link TableThread} is created for each table when the pool is created, and the tables
+ *     take matches from a shared queue.</li>
+ *     <li>{@link Mode#VIRTUAL} - every match is given its own virtual thread, which waits until one of the tables is free
+ *     before the match is played. Virtual threads are only available from Java 21, and on older versions the pool falls
+ *     back to {@link Mode#FIXED}.</li>
+ * </ul>
+ * <p>
+ *     In both modes any number of tables can be used, and no more than that number of matches are played at once. No
+ *     threads are created for each round, and no more platform threads than there are tables.
+ * </p>
+ * @see TableThread
+ * @see TableTennisTournament
+ */
+public class TablePool implements Executor, AutoCloseable {
+    /**
+     * The ways a {@link TablePool} can run its tables.
+     */
+    public enum Mode {
+        /**
+         * A fixed thread for each table.
+         */
+        FIXED,
+        /**
+         * A virtual thread for each match, limited to the number of tables.
+         */
+        VIRTUAL
+    }
+
+    /**
+     * The number of tables in the pool.
+     */
+    private final int numTables;
+    /**
+     * The mode the pool is running in, which may be {@link Mode#FIXED} when {@link Mode#VIRTUAL} was asked for but is
+     * not available.
+     */
+    private final Mode mode;
+    /**
+     * The executor running the tasks given to the pool.
+     */
+    private final ExecutorService executor;
+    /**
+     * The names of the tables which are free to play a match on, only used in {@link Mode#VIRTUAL}.
+     */
+    private final BlockingQueue<String> freeTables;
+    /**
+     * The engine deciding each match played on the tables.
+     */
+    private final MatchEngine engine;
+    /**
+     * Where the result of each match is given once it has been played.
+     */
+    private final ResultSink sink;
+
+    /**
+     * Creates the pool and its tables, playing matches with {@link StandardMatchEngine} and outputting them to
+     * {@link System#out}.
+     * @param numTables the number of tables, which must be at least 1.
+     * @param mode the way the tables are run.
+     */
+    public TablePool(int numTables, Mode mode) {
+        this(numTables, mode, StandardMatchEngine.INSTANCE, new PrintResultSink(System.out));
+    }
+
+    /**
+     * Creates the pool and its tables.
+     * @param numTables the number of tables, which must be at least 1.
+     * @param mode the way the tables are run.
+     * @param engine the engine deciding each match given as a pair of players.
+     * @param sink where the result of each match is given, which is flushed (but not closed) when the pool is closed.
+     */
+    public TablePool(int numTables, Mode mode, MatchEngine engine, ResultSink sink) {
+        if (numTables < 1) {
+            throw new IllegalArgumentException("Invalid number of tables, must be at least 1.");
+        }
+        this.numTables = numTables;
+        this.engine = engine;
+        this.sink = sink;
+
+        ExecutorService virtualExecutor = null;
+        if (mode == Mode.VIRTUAL) {
+            virtualExecutor = newVirtualExecutor();
+        }
+
+        if (virtualExecutor != null) {
+            this.mode = Mode.VIRTUAL;
+            this.executor = virtualExecutor;
+            this.freeTables = new ArrayBlockingQueue<String>(numTables);
+            for (int i = 0; i < numTables; i++) {
+                this.freeTables.add("Table " + (i+1));
+            }
+        } else {
+            this.mode = Mode.FIXED;
+            this.executor = Executors.newFixedThreadPool(numTables, new TableFactory());
+            this.freeTables = null;
+        }
+    }
+
+    /**
+     * Gets the executor which creates a virtual thread for each task, if this version of Java has virtual threads.
+     * <p>
+     *     This is looked up when it is needed, so the simulation can still be built and run on versions without it.
+     * </p>
+     * @return the executor, or {@code null} if virtual threads are not available.
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code numTables}.
+     * @return the number of tables.
+     */
+    public int getNumTables() {
+        return this.numTables;
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code mode}.
+     * @return the mode the pool is running in.
+     */
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Gives a match to the pool, to be played on the next free table. Once played, the result is given to the
+     * {@link ResultSink}.
+     * <p>
+     *     A {@link CompletableFuture} is returned, so other work can be started as soon as the match is complete
+     *     (e.g. the next match of the winner, see {@link TableTennisTournament#setDataflow(boolean)}).
+     * </p>
+     * @param pair the pair of players taking part in the match.
+     * @return the match, which is completed once it has been played.
+     */
+    public CompletableFuture<TableTennisMatch> submit(List<TableTennisPlayer> pair) {
+        return this.submit(pair, null);
+    }
+
+    /**
+     * Gives a match to the pool, the same as {@link TablePool#submit(List)}, but played with random numbers taken from
+     * the given generator (e.g. one split from a seeded generator, so the match is the same every time).
+     * @param pair the pair of players taking part in the match.
+     * @param random the generator used by this match only, or {@code null} to use the generator of the table.
+     * @return the match, which is completed once it has been played.
+     */
+    public CompletableFuture<TableTennisMatch> submit(List<TableTennisPlayer> pair, RandomGenerator random) {
+        TableTennisMatch match = new TableTennisMatch(pair);
+        match.setEngine(this.engine);
+        match.setRandom(random);
+        return this.submit(match);
+    }
+
+    /**
+     * Gives a match which has already been set up (e.g. with its round, engine and generator) to the pool, to be played
+     * on the next free table. Once played, the match is given to the {@link ResultSink}.
+     * @param match the match to play.
+     * @return the match, which is completed once it has been played.
+     */
+    public CompletableFuture<TableTennisMatch> submit(TableTennisMatch match) {
+        CompletableFuture<TableTennisMatch> played = new CompletableFuture<TableTennisMatch>();
+        this.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    played.complete(playOnTable(match));
+                } catch (Throwable e) {
+                    played.completeExceptionally(e);
+                }
+            }
+        });
+        return played;
+    }
+
+    /**
+     * Plays a match on a table, waiting for a table to be free first in {@link Mode#VIRTUAL}.
+     * @param match the match to play.
+     * @return the match, after it has been played.
+     * @throws InterruptedException if interrupted while waiting for a table.
+     */
+    private TableTennisMatch playOnTable(TableTennisMatch match) throws InterruptedException {
+        if (this.freeTables == null) {
+            return this.playMatch(match);
+        }
+
+        String table = this.freeTables.take();
+        try {
+            Thread.currentThread().setName(table);
+            return this.playMatch(match);
+        } finally {
+            this.freeTables.add(table);
+        }
+    }
+
+    /**
+     * Plays a match on the current thread and gives the result to the {@link ResultSink}.
+     * @param match the match to play.
+     * @return the match, after it has been played.
+     */
+    private TableTennisMatch playMatch(TableTennisMatch match) {
+        match.playMatch();
+        this.sink.matchPlayed(match);
+        return match;
+    }
+
+    /**
+     * Runs a task on the pool. In {@link Mode#VIRTUAL} the task does not wait for a free table, so should only be used
+     * for work which is not a match.
+     * @param task the task to run.
+     */
+    @Override
+    public void execute(Runnable task) {
+        this.executor.execute(task);
+    }
+
+    /**
+     * Stops the tables once the matches already given to the pool have been played, and flushes the
+     * {@link ResultSink}.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.sink.flush();
+    }
+
+    /**
+     * Creates the {@link TableThread}s for {@link Mode#FIXED}, numbering them from 1.
+     */
+    private static class TableFactory implements ThreadFactory {
+        /**
+         * The number of tables created so far.
+         */
+        private int created = 0;
+
+        /**
+         * Creates the next table.
+         * @param worker the work the table will do.
+         * @return the new table.
+         */
+        @Override
+        public synchronized Thread newThread(Runnable worker) {
+            this.created++;
+            return new TableThread(worker, this.created);
+        }
+    }
+}
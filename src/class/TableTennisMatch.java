@@ -1,4 +1,6 @@
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * This class extends the abstract class {@link Match}, implementing the logic for a table tennis match.
@@ -15,6 +17,31 @@ public class TableTennisMatch extends Match {
      * The {@link TableTennisPlayer} who won the match.
      */
     private TableTennisPlayer winner;
+    /**
+     * The score of the match once it has been played (see {@link MatchScore}).
+     */
+    private int score;
+    /**
+     * The generator random numbers are taken from when playing the match, if {@code null} the generator of the thread
+     * playing the match ({@link ThreadLocalRandom}) is used.
+     */
+    private RandomGenerator random;
+    /**
+     * The logic used to decide the match, by default {@link StandardMatchEngine}.
+     */
+    private MatchEngine engine = StandardMatchEngine.INSTANCE;
+    /**
+     * The knock-out round the match is part of, or 0 if not set.
+     */
+    private int round = 0;
+    /**
+     * The slot of the match in its round (its position in the bracket, from 0), or -1 if not set.
+     */
+    private int slot = -1;
+    /**
+     * The name of the table (thread) the match was played on, set when the match is played.
+     */
+    private String table;
 
     /**
      * Sets the players for the match, and the number of rounds to 11.
@@ -25,58 +52,200 @@ public class TableTennisMatch extends Match {
     }
 
     /**
-     * The method used to start the match, looping over the rounds, and determining the winner.
+     * The method used to start the match, using the {@link MatchEngine} to play the rounds, and determining the winner.
      * <p>
-     *     Using the pair of players sent when instantiating the object, a loop runs for the number of rounds
-     *     until one of the players reaches the match winning, 6 round wins. The winner attribute is then set to the player
-     *     who won, and nothing is returned because in the abstract method we cannot define an unknown return type.
+     *     Using the pair of players sent when instantiating the object, the engine plays the match until one of the
+     *     players reaches the match winning, 6 round wins. The winner attribute is then set to the player who won, and
+     *     nothing is returned because in the abstract method we cannot define an unknown return type.
      * </p>
      */
     @Override
     public void playMatch() {
         TableTennisPlayer p1 = (TableTennisPlayer) this.players.get(0);
         TableTennisPlayer p2 = (TableTennisPlayer) this.players.get(1);
+
+        RandomGenerator random = this.random;
+        if (random == null) {
+            random = ThreadLocalRandom.current();
+        }
+
+        this.table = Thread.currentThread().getName();
+        long start = SimulationMetrics.startMatch(this.table);
+        this.score = this.engine.playMatch(p1, p2, random);
+        if (MatchScore.winner(this.score) == 1) {
+            this.winner = p1;
+        } else {
+            this.winner = p2;
+        }
+        SimulationMetrics.matchPlayed(start);
+
+        // doesn't return because abstract method (we can't define the return type because it will be different)
+    }
+
+    /**
+     * The match logic of {@link StandardMatchEngine}, using the random generator of the current thread.
+     * @param p1 Player 1 in the match
+     * @param p2 Player 2 in the match
+     * @return the player who won the match.
+     */
+    public static TableTennisPlayer playPair(TableTennisPlayer p1, TableTennisPlayer p2) {
+        return playPair(p1, p2, ThreadLocalRandom.current());
+    }
+
+    /**
+     * The match logic of {@link StandardMatchEngine}, available statically so a pair of players can face each other
+     * without creating a {@link TableTennisMatch} object.
+     * @param p1 Player 1 in the match
+     * @param p2 Player 2 in the match
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return the player who won the match.
+     */
+    public static TableTennisPlayer playPair(TableTennisPlayer p1, TableTennisPlayer p2, RandomGenerator random) {
+        if (MatchScore.winner(playScore(p1.getAverageSkill(), p2.getAverageSkill(), random)) == 1) {
+            return p1;
+        } else {
+            return p2;
+        }
+    }
+
+    /**
+     * The match logic of {@link StandardMatchEngine} for 2 players in a {@link PlayerStore}, so no player objects are needed.
+     * @param store the store containing the players.
+     * @param p1 Player 1's position in the store
+     * @param p2 Player 2's position in the store
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return the position in the store of the player who won the match.
+     */
+    public static int playPair(PlayerStore store, int p1, int p2, RandomGenerator random) {
+        if (MatchScore.winner(playScore(store.getSkill(p1), store.getSkill(p2), random)) == 1) {
+            return p1;
+        } else {
+            return p2;
+        }
+    }
+
+    /**
+     * Plays the rounds of a match between 2 players with the given average skills.
+     * <p>
+     *     A loop runs for the number of rounds (11), playing a {@link TableTennisRound} each time, until one of the players
+     *     reaches the match winning, 6 round wins.
+     * </p>
+     * @param p1Skill Player 1's average skill
+     * @param p2Skill Player 2's average skill
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return the score of the match (see {@link MatchScore}).
+     */
+    public static int playScore(float p1Skill, float p2Skill, RandomGenerator random) {
         int p1Wins = 0;
         int p2Wins = 0;
 
-        for (int i = 1; i <= this.numRounds; i++) {
-            TableTennisPlayer winner = TableTennisRound.playRound(p1, p2);
-            if (winner == p1) {
+        for (int i = 1; i <= 11; i++) {
+            if (TableTennisRound.playRound(p1Skill, p2Skill, random) == 1) {
                 p1Wins += 1;
             } else {
                 p2Wins += 1;
             }
-            if (p1Wins == 6 || p2Wins == 6) {
+            if (p1Wins == MatchScore.ROUNDS_TO_WIN || p2Wins == MatchScore.ROUNDS_TO_WIN) {
                 break;
             }
         }
 
-        if (p1Wins > p2Wins) {
-            this.winner = p1;
-        } else {
-            this.winner = p2;
-        }
-
-        // doesn't return because abstract method (we can't define the return type because it will be different)
+        SimulationMetrics.roundsPlayed(p1Wins + p2Wins);
+        return MatchScore.of(p1Wins, p2Wins);
     }
 
     /**
      * This method is used to retrieve the match details after it has been played.
      * <p>
      *     The full names of both players are created, using getter methods within {@link TableTennisPlayer}.
-     *     These are then output, along with the winner of the match.
+     *     These are then output, along with the table the match was played on and the winner of the match.
      * </p>
      * @return the string containing match information, to be ouput.
      */
     @Override
     public String toString() {
+        return this.appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Adds the match details, the same as {@link TableTennisMatch#toString()}, to a buffer. This allows many matches to
+     * be output together without creating a string for each.
+     * @param buffer the buffer to add to.
+     * @return the buffer.
+     */
+    public StringBuilder appendTo(StringBuilder buffer) {
         TableTennisPlayer p1 = (TableTennisPlayer) this.players.get(0);
-        String p1Name = p1.getFirstName() + " " + p1.getLastName();
         TableTennisPlayer p2 = (TableTennisPlayer) this.players.get(1);
-        String p2Name = p2.getFirstName() + " " + p2.getLastName();
-        String winnerName = getWinner().getFirstName() + " " + getWinner().getLastName();
 
-        return "[" + Thread.currentThread().getName() + ": " + p1Name + " v " + p2Name + "] " + winnerName + " has won the match.";
+        buffer.append('[').append(this.table).append(": ");
+        buffer.append(p1.getFirstName()).append(' ').append(p1.getLastName()).append(" v ");
+        buffer.append(p2.getFirstName()).append(' ').append(p2.getLastName()).append("] ");
+        buffer.append(this.winner.getFirstName()).append(' ').append(this.winner.getLastName()).append(" has won the match.");
+        return buffer;
+    }
+
+    /**
+     * A method to set the logic used to decide the match.
+     * @param engine the match engine.
+     */
+    public void setEngine(MatchEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * A method to set the knock-out round the match is part of.
+     * @param round the round, from 1.
+     */
+    public void setRound(int round) {
+        this.round = round;
+    }
+
+    /**
+     * A simple getter method to return the knock-out round the match is part of.
+     * @return the round, or 0 if not set.
+     */
+    public int getRound() {
+        return this.round;
+    }
+
+    /**
+     * A method to set the slot of the match in its knock-out round.
+     * @param slot the slot, from 0.
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * A simple getter method to return the slot of the match in its knock-out round.
+     * @return the slot, or -1 if not set.
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * A simple getter method to return the name of the table the match was played on.
+     * @return the table name, or {@code null} if the match has not been played.
+     */
+    public String getTable() {
+        return this.table;
+    }
+
+    /**
+     * A simple getter method to return the score of the match, once it has been played.
+     * @return the score (see {@link MatchScore}).
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * A method to set the generator random numbers are taken from when playing the match.
+     * @param random the generator, which should only be used by the thread playing the match.
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
     }
 
     /**
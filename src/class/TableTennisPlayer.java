@@ -10,13 +10,6 @@ public class TableTennisPlayer extends SportPlayer {
     private final int forehand;
     private final int backhand;
     private final int fitness;
-    /**
-     * A calculated value of skill, calculated by adding all attributes and dividing by the number of attributes.
-     * <p>
-     *     {@link TableTennisRound} uses this to weigh the chances of winning against another player.
-     * </p>
-     */
-    public float averageSkill;
 
     /**
      * Takes all the attributes of a table tennis player, other than {@code averageSkill} which is calculated after
@@ -32,7 +25,24 @@ public class TableTennisPlayer extends SportPlayer {
      * @param fitness integer for fitness
      */
     public TableTennisPlayer(String firstName, String lastName, int age, int servePower, int serveSkill, int spin, int forehand, int backhand, int fitness) {
-        super(firstName, lastName, age);
+        this(-1, firstName, lastName, age, servePower, serveSkill, spin, forehand, backhand, fitness);
+    }
+
+    /**
+     * Takes all the attributes of a table tennis player, including the id of the player in the roster they were read from.
+     * @param id integer identifying the player in the roster
+     * @param firstName string containing first name
+     * @param lastName string containing last name
+     * @param age integer for players age
+     * @param servePower integer for power in serve
+     * @param serveSkill integer for skill in serve
+     * @param spin integer for skill in spin
+     * @param forehand integer for skill in forehand
+     * @param backhand integer for skill in backhand
+     * @param fitness integer for fitness
+     */
+    public TableTennisPlayer(int id, String firstName, String lastName, int age, int servePower, int serveSkill, int spin, int forehand, int backhand, int fitness) {
+        super(id, firstName, lastName, age);
         this.servePower = servePower;
         this.serveSkill = serveSkill;
         this.spin = spin;
@@ -43,21 +53,78 @@ public class TableTennisPlayer extends SportPlayer {
     }
 
     /**
-     * Implements the abstract method from {@link Match}, using all skill attributes and dividing them by the number of
+     * Implements the abstract method from {@link SportPlayer}, using all skill attributes and dividing them by the number of
      * attributes giving the {@code averageSkill}.
+     * <p>
+     *     {@link TableTennisRound} uses this to weigh the chances of winning against another player.
+     * </p>
      */
     @Override
     protected void calculateAverageSkill() {
-        int total = this.servePower + this.serveSkill + this.spin + this.forehand + this.backhand + this.fitness;
-        this.averageSkill = (float) (total / 6);
+        this.averageSkill = calculateAverageSkill(this.servePower, this.serveSkill, this.spin, this.forehand, this.backhand, this.fitness);
+    }
+
+    /**
+     * Calculates the average skill from the skill attributes, shared with {@link PlayerStore} so players which are not
+     * stored as objects have the same skill.
+     * @param servePower integer for power in serve
+     * @param serveSkill integer for skill in serve
+     * @param spin integer for skill in spin
+     * @param forehand integer for skill in forehand
+     * @param backhand integer for skill in backhand
+     * @param fitness integer for fitness
+     * @return the average skill.
+     */
+    public static float calculateAverageSkill(int servePower, int serveSkill, int spin, int forehand, int backhand, int fitness) {
+        int total = servePower + serveSkill + spin + forehand + backhand + fitness;
+        return (float) (total / 6);
     }
 
     /**
-     * Implements the abstract method from {@link Match}, returning the {@code averageSkill}.
-     * @return the average skill for this player.
+     * A simple getter method to return the private attribute {@code servePower}.
+     * @return players serve power.
      */
-    @Override
-    public float getAverageSkill() {
-        return this.averageSkill;
+    public int getServePower() {
+        return this.servePower;
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code serveSkill}.
+     * @return players serve skill.
+     */
+    public int getServeSkill() {
+        return this.serveSkill;
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code spin}.
+     * @return players spin.
+     */
+    public int getSpin() {
+        return this.spin;
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code forehand}.
+     * @return players forehand.
+     */
+    public int getForehand() {
+        return this.forehand;
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code backhand}.
+     * @return players backhand.
+     */
+    public int getBackhand() {
+        return this.backhand;
+    }
+
+    /**
+     * A simple getter method to return the private attribute {@code fitness}.
+     * @return players fitness.
+     */
+    public int getFitness() {
+        return this.fitness;
     }
 }
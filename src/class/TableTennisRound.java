@@ -1,4 +1,5 @@
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * This class is used to hold a round between 2 players, of which there are multiple in a match. The winner is calculated,
@@ -8,22 +9,33 @@ import java.util.Random;
  *     use of static methods, and abstract classes and interfaces do not allow for static methods. Therefore, each sport type will
  *     have rounds manually implemented.
  * </p>
+ * <p>
+ *     Random numbers are taken from a {@link RandomGenerator} given by the caller, so no generator is created while a
+ *     round is played. If no generator is given, the generator of the current thread ({@link ThreadLocalRandom}) is used.
+ * </p>
  * @see Match
  * @see TableTennisTournament
  */
 public class TableTennisRound {
     /**
-     * The static method used to play a round between 2 players.
+     * The static method used to play a round between 2 players, using the random generator of the current thread.
      * @param p1 Player 1 in round
      * @param p2 Player 2 in round
      * @return The winner of this match.
      */
     public static TableTennisPlayer playRound(TableTennisPlayer p1, TableTennisPlayer p2) {
-        float p1Average = p1.getAverageSkill();
-        float p2Average = p2.getAverageSkill();
+        return playRound(p1, p2, ThreadLocalRandom.current());
+    }
 
-        float diff = p1Average - p2Average;
-        int winner = getWinner(p1Average, p2Average, diff);
+    /**
+     * The static method used to play a round between 2 players, using the given random generator.
+     * @param p1 Player 1 in round
+     * @param p2 Player 2 in round
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return The winner of this match.
+     */
+    public static TableTennisPlayer playRound(TableTennisPlayer p1, TableTennisPlayer p2, RandomGenerator random) {
+        int winner = playRound(p1.getAverageSkill(), p2.getAverageSkill(), random);
         if (winner == 1) {
             return p1;
         } else {
@@ -31,12 +43,25 @@ public class TableTennisRound {
         }
     }
 
+    /**
+     * The static method used to play a round between 2 players, given only their average skill (e.g. players in a
+     * {@link PlayerStore}).
+     * @param p1Average Player 1's average skill
+     * @param p2Average Player 2's average skill
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return The winner (1: player 1, 2: player 2)
+     */
+    public static int playRound(float p1Average, float p2Average, RandomGenerator random) {
+        float diff = p1Average - p2Average;
+        return getWinner(p1Average, p2Average, diff, random);
+    }
+
     /**
      * The private method used to calculate the winner, given 2 players and their {@code averageSkill}.
      * <p>If the difference between Player 1's and Player 2's average skill is less than 1:</p>
      * <ul>
      *     <li>The range becomes - lower bound: {@code p1Average - 1}, upper bound: {@code p2Average + 1}</li>
-     *     <li>A random integer and random float are generated ({@link Random}). Combined, this number must be in the
+     *     <li>A random integer and random float are generated (the given {@link RandomGenerator}). Combined, this number must be in the
      *     range defined above. If it is not, this step restarts - attempts are tracked, and at 10 attempts the loop
      *     is exited and a random number is generated.</li>
      *     <li>If the attemps is 10, and the random number is even then player 1 wins. Else, player 2 wins. This was introduced
@@ -46,9 +71,10 @@ public class TableTennisRound {
      * @param p1Average Player 1's average skill
      * @param p2Average Player 2's average skill
      * @param diff The difference in average skill between player 1 and player 2.
+     * @param random the generator to take random numbers from.
      * @return The winner (1: player 1, 2: player 2)
      */
-    private static int getWinner(float p1Average, float p2Average, float diff) {
+    private static int getWinner(float p1Average, float p2Average, float diff, RandomGenerator random) {
         int attempts = 0;
         if (diff == 0 || (diff < 1 && diff > 0) || (diff > -1 && diff < 0)) {
             float p1Min = (float) (p1Average - 1);
@@ -58,8 +84,8 @@ public class TableTennisRound {
             float randomNum = 0;
             while (!validRandom) {
                 attempts += 1;
-                int randomInt = new Random().nextInt(10);
-                float randomFloat = new Random().nextFloat();
+                int randomInt = random.nextInt(10);
+                float randomFloat = random.nextFloat();
                 randomNum = randomInt + randomFloat;
                 if (randomNum >= p1Min && randomNum <= p2Max) {
                     validRandom = true;
@@ -70,7 +96,8 @@ public class TableTennisRound {
             }
 
             if (attempts >= 10) {
-                int randInt = new Random().nextInt(10);
+                SimulationMetrics.fallbackCoinFlip();
+                int randInt = random.nextInt(10);
                 if ((randInt % 2) == 0) {
                     return 1;
                 } else {
@@ -93,8 +120,8 @@ public class TableTennisRound {
             float randomNum = 0;
             while (!validRandom) {
                 attempts += 1;
-                int randomInt = new Random().nextInt(10);
-                float randomFloat = new Random().nextFloat();
+                int randomInt = random.nextInt(10);
+                float randomFloat = random.nextFloat();
                 randomNum = randomInt + randomFloat;
                 if (randomNum >= p1Min && randomNum <= p2Max) {
                     validRandom = true;
@@ -105,7 +132,8 @@ public class TableTennisRound {
             }
 
             if (attempts >= 10) {
-                int randInt = new Random().nextInt(10);
+                SimulationMetrics.fallbackCoinFlip();
+                int randInt = random.nextInt(10);
                 if ((randInt % 2) == 0) {
                     return 1;
                 } else {
@@ -1,15 +1,45 @@
-import com.google.gson.internal.bind.util.ISO8601Utils;
-
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class implements the {@link Tournament} interface, defining how a table tennis tournament works.
+ * <p>
+ *     The bracket is a {@link BracketTree}, so any number of players (at least 2) can take part, with byes in the first
+ *     round if the number is not a power of 2. The winner of each match is filled into the bracket as it is played.
+ * </p>
+ * <p>
+ *     The matches are played on a {@link TablePool}, created once when the tournament is set up and used for every
+ *     knock-out round.
+ * </p>
+ * <p>
+ *     By default, each round is complete before the next begins. In dataflow mode ({@link TableTennisTournament#setDataflow(boolean)})
+ *     there are no rounds: the bracket is a set of matches which each wait on the 2 matches feeding into it, so a match is
+ *     given to the tables as soon as both of its players are known.
+ * </p>
+ * <p>
+ *     A tournament can also be set up from a {@link SimulationConfig}, which sets the tables, the match engine, where the
+ *     rounds are output and the pause between rounds, so it can be run without any user input.
+ * </p>
+ * <p>
+ *     If set in the config, a {@link TournamentCheckpoint} is written after every round (on another thread), and a
+ *     tournament can be carried on from a checkpoint with the same results it would have had.
+ * </p>
+ * <p>
+ *     The rounds, matches and winner are given to a {@link ResultSink} instead of being output directly, so they can be
+ *     written by another thread ({@link AsyncResultSink}), summarised, or not output at all.
+ * </p>
  * @see Match
- * @see TableThread
+ * @see TablePool
  */
 public class TableTennisTournament implements Tournament {
     /**
@@ -17,30 +47,67 @@ public class TableTennisTournament implements Tournament {
      */
     private final ArrayList<TableTennisPlayer> allPlayers;
     /**
-     * All the players put into a pair of 2, where they will face each other with one player winning.
+     * The bracket, holding the index in {@link TableTennisTournament#allPlayers} of the players of every match.
      */
-    private ArrayList<List<TableTennisPlayer>> playerPairings = new ArrayList<List<TableTennisPlayer>>();
+    private BracketTree bracket;
     /**
-     * The current tables being played on, which are threads.
-     * @see TableThread
+     * The tables being played on, which are kept for the whole tournament.
+     * @see TablePool
      */
-    private final ArrayList<TableThread> tables = new ArrayList<TableThread>();
+    private TablePool tables;
     /**
      * The number of tables, input by the user.
      */
     private int numTables;
     /**
-     * The tables which are needed - important when the number of tables is greater than the number of pairs.
-     */
-    private int neededTables;
-    /**
-     * How many pairs will play on each of the tables - evenly spread out across tables.
+     * The way the tables are run by the {@link TablePool}.
      */
-    private int numPairsPerTable;
+    private TablePool.Mode tableMode = TablePool.Mode.FIXED;
     /**
      * What round of the knock-out tournament are we in - not related to a {@link Match} {@link TableTennisRound}.
      */
     private int round = 1;
+    /**
+     * How long to pause between knock-out rounds, in milliseconds.
+     */
+    private long roundPause = 3000;
+    /**
+     * Whether matches are played as soon as their players are known, instead of round by round.
+     */
+    private boolean dataflow = false;
+    /**
+     * The engine deciding each match.
+     */
+    private MatchEngine engine = StandardMatchEngine.INSTANCE;
+    /**
+     * Where the rounds, matches and winner are given.
+     */
+    private ResultSink sink = new PrintResultSink(System.out);
+    /**
+     * The seed the players were selected and the matches are played with, or {@code null} for each table to use its own
+     * generator.
+     */
+    private Long seed = null;
+    /**
+     * The roster file the players were selected from, saved in the checkpoints.
+     */
+    private String rosterPath = null;
+    /**
+     * The conditions the players were selected with, or {@code null}, saved in the checkpoints.
+     */
+    private String filter = null;
+    /**
+     * Whether the best players were selected and seeded in the draw, saved in the checkpoints.
+     */
+    private boolean seeded = false;
+    /**
+     * The file a checkpoint is written to after every round, or {@code null} to not write checkpoints.
+     */
+    private String checkpointPath = null;
+    /**
+     * The player who won the tournament, once it is complete.
+     */
+    private TableTennisPlayer winner = null;
 
     /**
      * This constructor takes the all the players taking part, and calls a private function to set up the tournament.
@@ -51,208 +118,422 @@ public class TableTennisTournament implements Tournament {
         this.setupTournament();
     }
 
+    /**
+     * An alternative constructor which takes the number of tables instead of asking the user, and doesn't pause between
+     * rounds. This allows a tournament to be run without any user input (e.g. when benchmarking).
+     * @param players {@link ArrayList} of players taking part
+     * @param numTables the number of tables, which must be at least 1.
+     */
+    public TableTennisTournament(ArrayList<TableTennisPlayer> players, int numTables) {
+        this(players, numTables, TablePool.Mode.FIXED);
+    }
+
+    /**
+     * An alternative constructor which takes the number of tables and the way they are run, instead of asking the user,
+     * and doesn't pause between rounds.
+     * @param players {@link ArrayList} of players taking part
+     * @param numTables the number of tables, which must be at least 1.
+     * @param tableMode the way the tables are run.
+     */
+    public TableTennisTournament(ArrayList<TableTennisPlayer> players, int numTables, TablePool.Mode tableMode) {
+        if (numTables < 1) {
+            throw new IllegalArgumentException("Invalid number of tables, must be at least 1.");
+        }
+        this.allPlayers = players;
+        this.roundPause = 0;
+        this.numTables = numTables;
+        this.tableMode = tableMode;
+        this.drawPlayers();
+        this.createTables();
+    }
+
+    /**
+     * An alternative constructor which takes every setting from a {@link SimulationConfig}, so the tournament can be run
+     * without any user input.
+     * <p>
+     *     If the config has a seed, every match is given its own generator worked out from the seed, its round and its
+     *     slot in the round ({@link MatchStreams}), so the same matches are played every time whatever the number of
+     *     tables or the order the matches are played in.
+     * </p>
+     * <p>
+     *     If the config has a checkpoint file but no seed, a random seed is used, as the seed is needed to carry on from
+     *     a checkpoint with the same results.
+     * </p>
+     * @param players {@link ArrayList} of players taking part
+     * @param config the settings of the tournament.
+     * @throws IllegalArgumentException if the config has a checkpoint file for a dataflow tournament.
+     */
+    public TableTennisTournament(ArrayList<TableTennisPlayer> players, SimulationConfig config) {
+        if (config.isDataflow() && config.getCheckpointPath() != null) {
+            throw new IllegalArgumentException("Invalid options, a dataflow tournament has no rounds to save or carry on from.");
+        }
+        this.allPlayers = players;
+        this.numTables = config.getNumTables();
+        this.tableMode = config.getTableMode();
+        this.roundPause = config.getPacing();
+        this.dataflow = config.isDataflow();
+        this.engine = config.getEngine();
+        this.sink = config.getSink();
+        this.seed = config.getSeed();
+        this.rosterPath = config.getRosterPath();
+        this.filter = config.getFilter();
+        this.seeded = config.isSeeded();
+        this.checkpointPath = config.getCheckpointPath();
+        if (this.checkpointPath != null && this.seed == null) {
+            this.seed = new SplittableRandom().nextLong();
+        }
+        this.drawPlayers();
+        this.createTables();
+    }
+
+    /**
+     * An alternative constructor which carries on a tournament from a {@link TournamentCheckpoint}, taking every other
+     * setting from a {@link SimulationConfig}. The config must have the seed, roster, number of players and match engine
+     * from the checkpoint ({@link TournamentCheckpoint#applyTo(SimulationConfig)}), and the players must be the ones in
+     * the checkpoint, so the rest of the tournament has the same results it would have had.
+     * @param players {@link ArrayList} of players taking part
+     * @param config the settings of the tournament.
+     * @param checkpoint the checkpoint to carry on from.
+     */
+    public TableTennisTournament(ArrayList<TableTennisPlayer> players, SimulationConfig config, TournamentCheckpoint checkpoint) {
+        this(players, config);
+        if (config.getSeed() == null || !checkpoint.hasPlayers(players)) {
+            this.tables.close();
+            throw new IllegalArgumentException("Invalid players or seed, must be the ones in the checkpoint.");
+        }
+        this.round = checkpoint.getRound();
+        this.bracket.restoreMatches(checkpoint.getMatches(), 0);
+    }
+
     /**
      * This method is called in the constructor, and is used to call a number of private methods which setup
      * the tournament.
      */
     private void setupTournament() {
         this.drawPlayers(); // select the player pairings
-        this.getNumTables(); // gets user input for number of tables (to be used to create threads)
+        this.getNumTables(); // gets user input for number of tables
         this.createTables(); // create the tables
-        this.splitPairs(playerPairings); // split the pairings between tables
     }
 
     /**
-     * This method is used to draw the players, putting them into pairs.
+     * This method is used to draw the players, putting them into the bracket in the order given, so players next to each
+     * other face each other (with byes for the last players if the number of players is not a power of 2).
      */
     @Override
     public void drawPlayers() {
-        for (int i = 0; i < allPlayers.size(); i += 2) {
-            List<TableTennisPlayer> pair = allPlayers.subList(i, i+2);
-            playerPairings.add(pair);
-        }
+        this.bracket = new BracketTree(this.allPlayers.size());
     }
 
     /**
-     * This method gets the number of tables in the tournament from the user. This must be an even number,
-     * range: 2 - number of pairs (up to the max 8 tables).
+     * This method gets the number of tables in the tournament from the user. Any number of tables can be used, as the
+     * matches are shared between whichever tables are free.
      */
     private void getNumTables() {
         boolean validInput = false;
 
         while (!validInput) {
-            int maxTables = 8;
             try {
                 Scanner inputScanner = new Scanner(System.in);
-                // even because easier for logic
-                if (playerPairings.size() < maxTables) {
-                    maxTables = playerPairings.size();
-                }
-                System.out.println("Enter the number of tables to be used. (Must be even, and no greater than " + maxTables + ")");
+                System.out.println("Enter the number of tables to be used. (At least 1)");
                 this.numTables = inputScanner.nextInt();
-                this.neededTables = this.numTables;
             } catch (InputMismatchException e) {
-                System.out.println("Invalid input, please input a valid even whole number.");
+                System.out.println("Invalid input, please input a valid whole number.");
             } catch (Exception e) {
                 System.out.println("Unexpected error");
             } finally {
-                if ((this.numTables % 2) == 0 && this.numTables <= maxTables && this.numTables != 0) {
+                if (this.numTables >= 1) {
                     validInput = true;
                 } else {
-                    System.out.println("Invalid input, please input a valid even whole number.");
+                    System.out.println("Invalid input, please input a valid whole number.");
                 }
             }
         }
     }
 
     /**
-     * This loops over the number of tables input by the user, creating instances of {@link TableThread} and setting the name
-     * to the table number. These tables are saved into the class attribute {@link TableTennisTournament#tables}.
+     * A method to set whether the tournament is played in dataflow mode, where each match is played as soon as both
+     * matches feeding into it are complete, instead of waiting for the whole round to be complete.
+     * @param dataflow {@code true} to use dataflow mode.
+     */
+    public void setDataflow(boolean dataflow) {
+        this.dataflow = dataflow;
+    }
+
+    /**
+     * This creates the {@link TablePool} with the number of tables input by the user, which is used for every round and
+     * closed once the tournament is complete.
      */
     private void createTables() {
-        for (int i = 0; i < this.numTables; i++) {
-            TableThread newTable = new TableThread();
-            newTable.setName("Table " + (i+1));
-            this.tables.add(newTable);
-        }
+        this.tables = new TablePool(this.numTables, this.tableMode, this.engine, this.sink);
     }
 
     /**
-     * After the first knock-out round, the threads will have completed their jobs and therefore, be in the terminated state.
-     * This means they will need to be recreated, but this time to the number of needed tables as the number of tables input may now be
-     * greater than the number of pairs.
+     * Sets up a match of the tournament, ready to be given to the tables.
+     * @param node the match in the bracket, whose players must be known.
+     * @return the match.
      */
-    private void recreateTables() {
-        this.tables.removeAll(this.tables); // remove all tables
-        for (int i = 0; i < this.neededTables; i++) { // neededTables is used, no need to have extra tables
-            TableThread newTable = new TableThread();
-            newTable.setName("Table " + (i+1));
-            this.tables.add(newTable);
+    private TableTennisMatch newMatch(int node) {
+        int round = this.bracket.getRound(node);
+        int slot = node - this.bracket.firstMatch(round);
+        TableTennisMatch match = new TableTennisMatch(this.getPair(node));
+        match.setRound(round);
+        match.setSlot(slot);
+        match.setEngine(this.engine);
+        if (this.seed != null) {
+            match.setRandom(MatchStreams.forMatch(this.seed, round, slot));
         }
+        return match;
     }
 
     /**
-     * This method get the pairs, and splits them onto different tables ready for matches to be played,
-     * @param pairings All the players in their pairs.
+     * Puts the players of a match in the bracket into a pair.
+     * @param node the match in the bracket, whose players must be known.
+     * @return the pair of players.
      */
-    private void splitPairs(ArrayList<List<TableTennisPlayer>> pairings) {
-        int pairSize = pairings.size();
-        int numPairsPerTable = 0;
+    private List<TableTennisPlayer> getPair(int node) {
+        List<TableTennisPlayer> pair = new ArrayList<TableTennisPlayer>(2);
+        pair.add(this.allPlayers.get(this.bracket.getFirst(node)));
+        pair.add(this.allPlayers.get(this.bracket.getSecond(node)));
+        return pair;
+    }
 
-        if (this.numTables > pairSize) {
-            // this has -2 because we will never have an odd number of pairings, and therefore never need an odd number of tables
-            for (int tables = this.numTables - 2; tables > 0; tables -= 2) {
-                if (!(tables > pairSize)) {
-                    numPairsPerTable = pairSize / tables;
-                    this.neededTables = tables;
-                    break;
-                }
-            }
-        } else {
-            numPairsPerTable = pairSize / this.numTables;
-        }
+    /**
+     * Fills in the winner of a match in the bracket.
+     * @param node the match in the bracket.
+     * @param match the match, after it has been played.
+     * @return the index of the winner in {@link TableTennisTournament#allPlayers}.
+     */
+    private int recordWinner(int node, TableTennisMatch match) {
+        int first = this.bracket.getFirst(node);
+        int winner = match.getWinner() == this.allPlayers.get(first) ? first : this.bracket.getSecond(node);
+        this.bracket.setWinner(node, winner);
+        return winner;
+    }
 
-        this.numPairsPerTable = numPairsPerTable;
+    /**
+     * A simple getter method to return the winner of the tournament.
+     * @return the player who won, or {@code null} if the tournament has not been completed.
+     */
+    public TableTennisPlayer getWinner() {
+        return this.winner;
     }
 
     /**
-     * Once all setup is complete, this method can be called to start all the tables so matches can be played.
+     * Once all setup is complete, this method can be called to give the matches to the tables so they can be played.
      * This loops over until the final round (1v1) is complete, and a winner of the tournament is decided.
+     * <p>
+     *     Every match of a round is given to the {@link TablePool} at once, and played as tables become free. Once all the
+     *     matches of the round are complete, the winners have been filled into the bracket, which pairs them up (in the
+     *     order of the draw) for the next round.
+     * </p>
      */
     @Override
     public void startTournament() {
+        if (this.dataflow) {
+            this.startDataflowTournament();
+            return;
+        }
+
         boolean complete = false;
-        while (!complete) {
-            this.outputRoundInfo();
-
-            int startIndex = 0;
-            for (int i = 0; i < this.neededTables; i++) {
-                TableThread currentTable = this.tables.get(i);
-                int endIndex = (startIndex + this.numPairsPerTable);
-                List<List<TableTennisPlayer>> tablePairings = this.playerPairings.subList(startIndex, endIndex);
-                startIndex = endIndex;
-
-                currentTable.setPairings(tablePairings);
-                currentTable.start();
-            }
+        TournamentCheckpoint.Writer checkpoints = null;
+        if (this.checkpointPath != null) {
+            checkpoints = new TournamentCheckpoint.Writer(Paths.get(this.checkpointPath));
+        }
+        try {
+            while (!complete) {
+                this.outputRoundInfo();
 
-            boolean error = false;
-            for (int j = 0; j < this.neededTables; j++) {
-                try {
-                    this.tables.get(j).join();
-                } catch (InterruptedException e) {
-                    System.out.println("Unexpected error, exiting simulation.");
-                    System.out.println(e);
-                    error = true;
-                    break;
+                long roundStart = SimulationMetrics.startTimer();
+                boolean played = this.playRound();
+                SimulationMetrics.tournamentRoundPlayed(roundStart);
+                if (!played) {
+                    break; // the error was encountered
                 }
-            }
 
-            if (error) {
-                break;
-            }
+                if (this.round == this.bracket.getNumRounds()) {
+                    complete = true;
+                } else {
+                    this.round++;
+                    if (checkpoints != null) {
+                        checkpoints.submit(this.createCheckpoint()); // written while the next round is played
+                    }
+                    this.sink.flush(); // output the round before pausing
 
-            this.setPlayerPairings();
-
-            if (this.playerPairings.size() == 1 && this.playerPairings.get(0).size() == 1) {
-                complete = true;
-            } else if (this.playerPairings.get(0).size() == 1) {
-                ArrayList<List<TableTennisPlayer>> tempArr = new ArrayList<List<TableTennisPlayer>>();
-                for (int i = 0; i < this.playerPairings.size(); i += 2) {
-                    TableTennisPlayer current = this.playerPairings.get(i).get(0);
-                    TableTennisPlayer next = this.playerPairings.get(i+1).get(0);
-                    List<TableTennisPlayer> pair = new ArrayList<TableTennisPlayer>();
-                    pair.add(current);
-                    pair.add(next);
-                    tempArr.add(pair);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(this.roundPause);
+                    } catch (InterruptedException e) {
+                        System.out.println("Unexpected error: " + e);
+                    }
                 }
-                this.playerPairings = tempArr;
+            }
+        } finally {
+            this.tables.close();
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+        }
+
+        if (complete) {
+            this.winner = this.allPlayers.get(this.bracket.getWinner());
+            this.sink.tournamentWon(this.winner);
+        } // else the error was encountered
+        this.sink.flush();
+    }
+
+    /**
+     * Creates a checkpoint of the tournament before the current round is played.
+     * @return the checkpoint.
+     */
+    private TournamentCheckpoint createCheckpoint() {
+        int[] playerIds = new int[this.allPlayers.size()];
+        for (int i = 0; i < playerIds.length; i++) {
+            playerIds[i] = this.allPlayers.get(i).getId();
+        }
+        int[] matches = new int[this.bracket.getSize()];
+        this.bracket.copyMatches(matches, 0);
+        return new TournamentCheckpoint(this.seed, this.rosterPath, SimulationConfig.engineName(this.engine), this.filter,
+                this.seeded, playerIds, this.round, matches);
+    }
 
-                if (this.playerPairings.size() == 1) { // final pair left
-                    this.neededTables = 1;
-                    this.numPairsPerTable = 1;
+    /**
+     * Plays the tournament in dataflow mode, where the bracket is built as a tree of matches.
+     * <p>
+     *     The first round matches are given to the tables straight away. Every other match is given to the tables by
+     *     whichever table completes the second of the 2 matches feeding into it, once both winners have been filled into
+     *     the bracket. There is no wait between rounds, so the tables are kept busy while any match is ready to be played.
+     * </p>
+     * <p>
+     *     As the rounds overlap, each round after the first is given to the {@link ResultSink} by whichever table makes
+     *     the last of its pairings known, so some of its matches may already have been played by then.
+     * </p>
+     */
+    private void startDataflowTournament() {
+        this.outputRoundInfo();
+
+        TableTennisPlayer winner = null;
+        try {
+            int first = this.bracket.firstMatch(this.round);
+            ArrayList<CompletableFuture<Integer>> winners = new ArrayList<CompletableFuture<Integer>>();
+            for (int node = first; node < 2 * first; node++) {
+                if (node < first + this.bracket.numMatches(this.round)) {
+                    int matchNode = node;
+                    winners.add(this.tables.submit(this.newMatch(node))
+                            .thenApply(match -> this.recordWinner(matchNode, match)));
                 } else {
-                    this.splitPairs(this.playerPairings);
+                    winners.add(CompletableFuture.completedFuture(this.bracket.getPlayer(node))); // a bye
                 }
-
-                this.recreateTables();
-            } else {
-                this.splitPairs(this.playerPairings);
-                this.recreateTables();
             }
 
-            try {
-                TimeUnit.SECONDS.sleep(3);
-            } catch (InterruptedException e) {
-                System.out.println("Unexpected error: " + e);
+            while (winners.size() > 1) {
+                this.round++;
+                int round = this.round;
+                first = this.bracket.firstMatch(round);
+                AtomicInteger unknown = new AtomicInteger(this.bracket.numMatches(round)); // pairings not yet known
+                ArrayList<CompletableFuture<Integer>> nextWinners = new ArrayList<CompletableFuture<Integer>>();
+                for (int i = 0; i < winners.size(); i += 2) {
+                    int matchNode = first + i / 2;
+                    CompletableFuture<Void> players = CompletableFuture.allOf(winners.get(i), winners.get(i+1));
+                    nextWinners.add(players.thenCompose(ready -> {
+                        if (unknown.decrementAndGet() == 0) { // the last pairing of the round is now known
+                            this.sink.roundStarted(round, new RoundPairings(round));
+                        }
+                        return this.tables.submit(this.newMatch(matchNode));
+                    }).thenApply(match -> this.recordWinner(matchNode, match)));
+                }
+                winners = nextWinners;
             }
+
+            winner = this.allPlayers.get(winners.get(0).join());
+        } catch (CompletionException e) {
+            System.out.println("Unexpected error, exiting simulation.");
+            System.out.println(e.getCause());
+        } finally {
+            this.tables.close();
         }
 
-        if (complete) {
-            TableTennisPlayer winner = this.playerPairings.get(0).get(0);
-            String fullName = winner.getFirstName() + " " + winner.getLastName();
-            System.out.println("\n\nThe tournament winner is: " + fullName + "\n");
-        } // else the error was encountered
+        this.winner = winner;
+        if (winner != null) {
+            this.sink.tournamentWon(winner);
+        }
+        this.sink.flush();
     }
 
-    private void setPlayerPairings() {
-        this.playerPairings.removeAll(this.playerPairings);
-        for (int x = 0; x < this.neededTables; x++) {
-            ArrayList<List<TableTennisPlayer>> winningPairs = this.tables.get(x).getWinnerPairs();
-            for (List<TableTennisPlayer> winningPair : winningPairs) {
-                this.playerPairings.add(winningPair);
+    /**
+     * Gives every match of the current round to the tables, and waits for all the matches to be played, filling in the
+     * winners in the bracket.
+     * @return {@code true} if the round was played, or {@code false} if an error was encountered.
+     */
+    private boolean playRound() {
+        int first = this.bracket.firstMatch(this.round);
+        int numMatches = this.bracket.numMatches(this.round);
+        ArrayList<CompletableFuture<TableTennisMatch>> matches = new ArrayList<CompletableFuture<TableTennisMatch>>(numMatches);
+        for (int node = first; node < first + numMatches; node++) {
+            matches.add(this.tables.submit(this.newMatch(node)));
+        }
+
+        for (int i = 0; i < numMatches; i++) {
+            try {
+                this.recordWinner(first + i, matches.get(i).get());
+            } catch (InterruptedException | ExecutionException e) {
+                System.out.println("Unexpected error, exiting simulation.");
+                System.out.println(e);
+                return false;
             }
         }
+        return true;
     }
 
+    /**
+     * Gives the current round, and every pair of players facing each other in it, to the {@link ResultSink}.
+     */
     private void outputRoundInfo() {
-        System.out.println("\nRound " + this.round + ":");
-        for (List<TableTennisPlayer> pair : this.playerPairings) {
-            String p1FullName = pair.get(0).getFirstName() + " " + pair.get(0).getLastName();
-            String p2FullName = pair.get(1).getFirstName() + " " + pair.get(1).getLastName();
-            System.out.println(p1FullName + " vs " + p2FullName);
+        this.sink.roundStarted(this.round, new RoundPairings(this.round));
+    }
+
+    /**
+     * The pairs of players facing each other in a round (not including byes), read from the bracket as they are needed
+     * instead of being copied. The players of a round do not change once it has started, so this can be read at any time
+     * afterwards (e.g. by an {@link AsyncResultSink}).
+     */
+    private class RoundPairings extends AbstractList<List<TableTennisPlayer>> {
+        /**
+         * The first match of the round.
+         */
+        private final int first;
+        /**
+         * The number of matches in the round.
+         */
+        private final int size;
+
+        /**
+         * Creates the pairs of a round.
+         * @param round the round, from 1.
+         */
+        RoundPairings(int round) {
+            this.first = bracket.firstMatch(round);
+            this.size = bracket.numMatches(round);
+        }
+
+        /**
+         * Gets the players of a match in the round.
+         * @param index the match, from 0.
+         * @return the pair of players.
+         */
+        @Override
+        public List<TableTennisPlayer> get(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Invalid match: " + index);
+            }
+            return getPair(this.first + index);
+        }
+
+        /**
+         * A simple getter method to return the number of matches in the round.
+         * @return the number of matches.
+         */
+        @Override
+        public int size() {
+            return this.size;
         }
-        System.out.println();
-        this.round++;
     }
 }
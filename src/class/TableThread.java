@@ -1,84 +1,35 @@
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * This class represents a table tennis table, where 2 players can play a match. A number of pairs may be queued to play on a given
- * tables, to equally split all the players and speed up the match.
+ * This class represents a table tennis table, where 2 players can play a match.
  * <p>
- *     All of this is done by extending the {@link Thread} method, which will give us a {@code run()} method to override,
- *     and most importantly allow for tables matches to run concurrently.
+ *     Tables are created once by a {@link TablePool} and kept for the whole tournament, taking matches to play as they
+ *     are handed out by the pool. This is done by extending the {@link Thread} class, allowing tables to play matches
+ *     concurrently, and naming the thread after the table so match output shows where it was played.
  * </p>
+ * @see TablePool
  * @see TableTennisMatch
  */
 public class TableThread extends Thread {
     /**
-     * The pairs of players to play on this table.
-     */
-    private List<List<TableTennisPlayer>> pairings;
-    /**
-     * All the winner put back into pairs, ready for the next knock-out round.
-     */
-    private ArrayList<List<TableTennisPlayer>> winnerPairs = new ArrayList<List<TableTennisPlayer>>();
-
-    /**
-     * A constructor to create a table, without giving the pairs.
-     */
-    public TableThread() {}
-
-    /**
-     * An alternative constructor to send the players when instantiating the object.
-     * @param tablePairings the player pairs to take part on this table.
+     * The number of this table, starting from 1.
      */
-    public TableThread(List<List<TableTennisPlayer>> tablePairings) {
-        this.pairings = tablePairings;
-    }
-
-    /**
-     * A method to set the player pairings for the table.
-     * @param newPairings player pairs
-     */
-    public void setPairings(List<List<TableTennisPlayer>> newPairings) {
-        this.pairings = newPairings;
-    }
+    private final int tableNumber;
 
     /**
-     * The method called when starting a thread, containing all logic for setting up matches for a given pair and storing
-     * the result.
+     * A constructor to create a table, which will run the given worker (taking matches from the {@link TablePool}).
+     * @param worker the work this table will do once started.
+     * @param tableNumber the number of the table, used to name the thread.
      */
-    @Override
-    public void run() {
-        List<TableTennisPlayer> winningPairs = new ArrayList<TableTennisPlayer>();
-
-        boolean empty = false;
-        if (this.pairings.size() == 1) {
-            empty = true; // we're only returning 1 winner
-        }
-
-        for (List<TableTennisPlayer> pair : this.pairings) {
-            TableTennisMatch currentMatch = new TableTennisMatch(pair);
-            currentMatch.playMatch();
-            TableTennisPlayer winner = currentMatch.getWinner();
-
-            System.out.println(currentMatch.toString());
-
-            if (!empty) {
-                winningPairs = new ArrayList<TableTennisPlayer>(); // winningPairs.removeAll(winningPairs); was used, but was breaking
-                empty = true;
-                assert winningPairs != null;
-                winningPairs.add(winner);
-            } else {
-                empty = false;
-                winningPairs.add(winner);
-                this.winnerPairs.add(winningPairs);
-            }
-        }
+    public TableThread(Runnable worker, int tableNumber) {
+        super(worker, "Table " + tableNumber);
+        this.tableNumber = tableNumber;
+        this.setDaemon(true);
     }
 
     /**
-     * A simple getter method to get the winners which have been put into pairs.
-     * @return winning pairs
+     * A simple getter method to return the private attribute {@code tableNumber}.
+     * @return the table number.
      */
-    public ArrayList<List<TableTennisPlayer>> getWinnerPairs() {
-        return this.winnerPairs;
+    public int getTableNumber() {
+        return this.tableNumber;
     }
 }
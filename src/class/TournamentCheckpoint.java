@@ -0,0 +1,276 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a snapshot of a {@link TableTennisTournament} between 2 knock-out rounds, so a long tournament can be
+ * carried on from where it was if it is stopped (see {@link SimulationConfig#setCheckpointPath(String)} and
+ * {@link SimulationConfig#setResumePath(String)}).
+ * <p>
+ *     A checkpoint holds everything needed to play the rest of the tournament with the same results:
+ * </p>
+ * <ul>
+ *     <li>The settings the players were selected with (the seed, roster, number of players, filter and whether the draw
+ *     was seeded), and the id of each
+ *     player in the order of the draw, to check the same players are selected again.</li>
+ *     <li>The match engine.</li>
+ *     <li>The next round to play, and the matches of the {@link BracketTree} (the winners so far).</li>
+ * </ul>
+ * <p>
+ *     No random generator needs to be saved, as each match's generator is worked out from the seed, its round and its
+ *     slot ({@link MatchStreams}).
+ * </p>
+ * <p>
+ *     The checkpoint is written in a compact binary layout (about 8 bytes per player), to a temporary file which then
+ *     replaces the file, so there is always a whole checkpoint to carry on from. A {@link Writer} writes the
+ *     checkpoints on its own thread, so the tables are never kept waiting.
+ * </p>
+ * @see TableTennisTournament
+ */
+public class TournamentCheckpoint {
+    /**
+     * The first 4 bytes of a checkpoint ({@code "TTCP"}).
+     */
+    private static final int MAGIC = 0x54544350;
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * The seed the players were selected and the matches were played with.
+     */
+    private final long seed;
+    /**
+     * The roster file the players were selected from.
+     */
+    private final String rosterPath;
+    /**
+     * The name of the match engine ({@link SimulationConfig#engineName(MatchEngine)}).
+     */
+    private final String engineName;
+    /**
+     * The conditions the players were selected with ({@link SimulationConfig#setFilter(String)}), or {@code null}.
+     */
+    private final String filter;
+    /**
+     * Whether the best players were selected and seeded in the draw ({@link SimulationConfig#setSeeded(boolean)}).
+     */
+    private final boolean seeded;
+    /**
+     * The id of each player, in the order of the draw.
+     */
+    private final int[] playerIds;
+    /**
+     * The next round to be played, from 1.
+     */
+    private final int round;
+    /**
+     * The matches of the bracket, as copied by {@link BracketTree#copyMatches(int[], int)}.
+     */
+    private final int[] matches;
+
+    /**
+     * Creates a checkpoint.
+     * @param seed the seed the players were selected and the matches were played with.
+     * @param rosterPath the roster file the players were selected from.
+     * @param engineName the name of the match engine.
+     * @param filter the conditions the players were selected with, or {@code null}.
+     * @param seeded whether the best players were selected and seeded in the draw.
+     * @param playerIds the id of each player, in the order of the draw.
+     * @param round the next round to be played.
+     * @param matches the matches of the bracket.
+     */
+    public TournamentCheckpoint(long seed, String rosterPath, String engineName, String filter, boolean seeded, int[] playerIds,
+                                int round, int[] matches) {
+        this.seed = seed;
+        this.rosterPath = rosterPath;
+        this.engineName = engineName;
+        this.filter = filter;
+        this.seeded = seeded;
+        this.playerIds = playerIds;
+        this.round = round;
+        this.matches = matches;
+    }
+
+    /**
+     * Reads a checkpoint written by {@link TournamentCheckpoint#write(Path)}.
+     * @param file the file to read.
+     * @return the checkpoint.
+     * @throws IOException if the file could not be read, or is not a checkpoint.
+     */
+    public static TournamentCheckpoint read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException(file + " is not a tournament checkpoint.");
+            }
+            long seed = input.readLong();
+            String rosterPath = input.readUTF();
+            String engineName = input.readUTF();
+            String filter = input.readBoolean() ? input.readUTF() : null;
+            boolean seeded = input.readBoolean();
+            int round = input.readInt();
+
+            int numPlayers = input.readInt();
+            if (numPlayers < 2 || numPlayers > BracketTree.MAX_PLAYERS) {
+                throw new IOException(file + " has an invalid number of players.");
+            }
+            int[] playerIds = new int[numPlayers];
+            for (int i = 0; i < numPlayers; i++) {
+                playerIds[i] = input.readInt();
+            }
+            int[] matches = new int[Integer.highestOneBit(numPlayers - 1) << 1]; // the size of the bracket
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = input.readInt();
+            }
+            return new TournamentCheckpoint(seed, rosterPath, engineName, filter, seeded, playerIds, round, matches);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file, which then replaces the file.
+     * @param file the file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(this.seed);
+                output.writeUTF(this.rosterPath);
+                output.writeUTF(this.engineName);
+                output.writeBoolean(this.filter != null);
+                if (this.filter != null) {
+                    output.writeUTF(this.filter);
+                }
+                output.writeBoolean(this.seeded);
+                output.writeInt(this.round);
+                output.writeInt(this.playerIds.length);
+                for (int id : this.playerIds) {
+                    output.writeInt(id);
+                }
+                for (int match : this.matches) {
+                    output.writeInt(match);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Sets the seed, roster, number of players, match engine, filter and seeding of a config to the ones in the
+     * checkpoint, so the same players are selected and the rest of the matches are played in the same way.
+     * @param config the config.
+     * @throws IllegalArgumentException if the engine is unknown.
+     */
+    public void applyTo(SimulationConfig config) {
+        config.setSeed(this.seed);
+        config.setRosterPath(this.rosterPath);
+        config.setNumPlayers(this.playerIds.length);
+        config.setEngine(SimulationConfig.parseEngine(this.engineName));
+        config.setFilter(this.filter);
+        config.setSeeded(this.seeded);
+    }
+
+    /**
+     * Checks the players selected to carry on the tournament are the players in the checkpoint, in the same order.
+     * @param players the players selected.
+     * @return {@code true} if every player has the same id as in the checkpoint.
+     */
+    public boolean hasPlayers(List<TableTennisPlayer> players) {
+        if (players.size() != this.playerIds.length) {
+            return false;
+        }
+        for (int i = 0; i < this.playerIds.length; i++) {
+            if (players.get(i).getId() != this.playerIds[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A simple getter method to return the next round to be played.
+     * @return the round, from 1.
+     */
+    public int getRound() {
+        return this.round;
+    }
+
+    /**
+     * A simple getter method to return the matches of the bracket.
+     * @return the matches, as copied by {@link BracketTree#copyMatches(int[], int)}.
+     */
+    public int[] getMatches() {
+        return this.matches;
+    }
+
+    /**
+     * This class writes checkpoints to a file on its own thread, one at a time in the order they are given, so the
+     * tournament can carry on while a checkpoint is written. An error writing a checkpoint is output, but does not stop
+     * the tournament.
+     */
+    public static class Writer implements AutoCloseable {
+        /**
+         * The file the checkpoints are written to.
+         */
+        private final Path file;
+        /**
+         * The thread writing the checkpoints.
+         */
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CheckpointWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        /**
+         * Creates a writer.
+         * @param file the file the checkpoints are written to.
+         */
+        public Writer(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Gives a checkpoint to be written, once any given before it have been written.
+         * @param checkpoint the checkpoint.
+         */
+        public void submit(TournamentCheckpoint checkpoint) {
+            this.executor.execute(() -> {
+                try {
+                    checkpoint.write(this.file);
+                } catch (IOException e) {
+                    System.out.println("Unexpected error:\n" + e);
+                }
+            });
+        }
+
+        /**
+         * Waits for every checkpoint given to be written, and stops the thread.
+         */
+        @Override
+        public void close() {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                System.out.println("Unexpected error: " + e);
+            }
+        }
+    }
+}
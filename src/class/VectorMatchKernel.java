@@ -0,0 +1,52 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class plays the rounds of a chunk of matches for {@link BatchMatchEvaluator} using the Vector API
+ * ({@code jdk.incubator.vector}), deciding as many matches at once as there are {@code int} lanes in the CPU's
+ * preferred vector size (8 with AVX2, 16 with AVX-512).
+ * <p>
+ *     Each lane holds a match, and every round is played in all lanes at once with a compare and 2 masked adds, exactly
+ *     as {@link BatchMatchEvaluator} plays a single match. The matches left over once the rest fill whole vectors are
+ *     played by {@link BatchMatchEvaluator} one at a time.
+ * </p>
+ * <p>
+ *     The module is still incubating, so this class can only be loaded when the JVM is started with
+ *     {@code --add-modules jdk.incubator.vector}. It is only used once {@link BatchMatchEvaluator#isVectorAvailable()}
+ *     has checked this.
+ * </p>
+ * @see BatchMatchEvaluator
+ */
+public class VectorMatchKernel {
+    /**
+     * The vector shape used, the largest the CPU supports well.
+     */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Plays the rounds of the matches in a chunk, a vector of matches at a time.
+     * @param thresholds the threshold of each match in the chunk.
+     * @param randoms the random number for each round of each match, {@code [round * CHUNK + match]}.
+     * @param scores the array to store the scores in.
+     * @param start where the chunk starts in the scores.
+     * @param size the number of matches in the chunk.
+     */
+    public static void playRounds(int[] thresholds, int[] randoms, int[] scores, int start, int size) {
+        int bound = SPECIES.loopBound(size);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector threshold = IntVector.fromArray(SPECIES, thresholds, i);
+            IntVector p1Wins = IntVector.zero(SPECIES);
+            IntVector p2Wins = IntVector.zero(SPECIES);
+            for (int round = 0; round < BatchMatchEvaluator.MAX_ROUNDS; round++) {
+                VectorMask<Integer> open = p1Wins.max(p2Wins).lt(MatchScore.ROUNDS_TO_WIN);
+                VectorMask<Integer> won = IntVector.fromArray(SPECIES, randoms, round * BatchMatchEvaluator.CHUNK + i).lt(threshold);
+                p1Wins = p1Wins.add(1, open.and(won));
+                p2Wins = p2Wins.add(1, open.andNot(won));
+            }
+            p1Wins.lanewise(VectorOperators.LSHL, 8).or(p2Wins).intoArray(scores, start + i); // MatchScore.of
+        }
+        BatchMatchEvaluator.playRounds(thresholds, randoms, scores, start, bound, size);
+    }
+}
@@ -0,0 +1,35 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * {@code MatchEngine} is an interface used to define the different ways a table tennis match can be decided. This allows
+ * the logic of a match to be changed, without changing the tournaments, tables or simulations which play matches.
+ * <p>
+ *     A match can be played between 2 {@link TableTennisPlayer} objects, or between 2 players in a {@link PlayerStore}
+ *     (given by their position in the store). Either way the result is the score of the match, packed into an
+ *     {@code int} by {@link MatchScore}.
+ * </p>
+ * @see StandardMatchEngine
+ * @see FastMatchEngine
+ * @see RallyMatchEngine
+ * @see TableTennisMatch
+ */
+public interface MatchEngine {
+    /**
+     * Plays a match between 2 players.
+     * @param p1 Player 1 in the match
+     * @param p2 Player 2 in the match
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return the score of the match (see {@link MatchScore}).
+     */
+    int playMatch(TableTennisPlayer p1, TableTennisPlayer p2, RandomGenerator random);
+
+    /**
+     * Plays a match between 2 players in a {@link PlayerStore}.
+     * @param store the store containing the players.
+     * @param p1 Player 1's position in the store
+     * @param p2 Player 2's position in the store
+     * @param random the generator to take random numbers from, which should only be used by the current thread.
+     * @return the score of the match (see {@link MatchScore}).
+     */
+    int playMatch(PlayerStore store, int p1, int p2, RandomGenerator random);
+}
@@ -0,0 +1,72 @@
+import java.util.List;
+
+/**
+ * {@code ResultSink} is an interface used to define where the events of a tournament go once they have happened, such as
+ * the console, a file, or nowhere. This allows the output of a tournament to be changed without changing the tournament
+ * or its tables.
+ * <p>
+ *     Matches are given to the sink by the table which played them, so {@link ResultSink#matchPlayed(TableTennisMatch)}
+ *     can be called by many threads at once. An implementation may hold on to events and only output them when
+ *     {@link ResultSink#flush()} is called, so a tournament flushes its sink once it is complete.
+ * </p>
+ * @see PrintResultSink
+ * @see AsyncResultSink
+ * @see QuietResultSink
+ * @see SummaryResultSink
+ */
+public interface ResultSink extends AutoCloseable {
+    /**
+     * Called when a knock-out round is about to be played.
+     * <p>
+     *     In dataflow mode the rounds overlap, so this is called by the table which makes the last pairing of the round
+     *     known, and some matches of the round may already have been given to
+     *     {@link ResultSink#matchPlayed(TableTennisMatch)}.
+     * </p>
+     * @param round the round, from 1.
+     * @param pairings the pairs of players facing each other in the round, which will not be changed.
+     */
+    void roundStarted(int round, List<List<TableTennisPlayer>> pairings);
+
+    /**
+     * Called by a table once it has played a match.
+     * @param match the match, after it has been played.
+     */
+    void matchPlayed(TableTennisMatch match);
+
+    /**
+     * Called once the final has been played.
+     * @param winner the player who won the tournament.
+     */
+    void tournamentWon(TableTennisPlayer winner);
+
+    /**
+     * Called once every match of a group stage has been played, before the knock-out stage ({@link GroupStageTournament}).
+     * Does nothing unless the sink outputs the groups.
+     * @param standings the players of each group, from first place to last, which will not be changed.
+     */
+    default void groupsComplete(List<List<TableTennisPlayer>> standings) {
+    }
+
+    /**
+     * Called when a player is given a bye for a round, which counts as a win, after the pairings of the round
+     * ({@link SwissTournament}). Does nothing unless the sink outputs the byes.
+     * @param round the round, from 1.
+     * @param player the player given the bye.
+     */
+    default void byeGiven(int round, TableTennisPlayer player) {
+    }
+
+    /**
+     * Outputs any events the sink is holding on to, returning once they have been output.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Flushes the sink and stops anything it was using (e.g. a thread). The sink should not be used once closed.
+     */
+    @Override
+    default void close() {
+        this.flush();
+    }
+}
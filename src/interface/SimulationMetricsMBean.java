@@ -0,0 +1,109 @@
+/**
+ * {@code SimulationMetricsMBean} is the management interface of {@link SimulationMetrics}, used to read the metrics of a
+ * running simulation over JMX (e.g. using {@code jconsole}). Times are given in microseconds for matches and milliseconds
+ * for rounds.
+ * @see SimulationMetrics
+ */
+public interface SimulationMetricsMBean {
+    /**
+     * Gets whether metrics are being recorded.
+     * @return {@code true} if metrics are being recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops recording metrics.
+     * @param enabled {@code true} to record metrics.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets the number of matches played on tables.
+     * @return the number of matches.
+     */
+    long getMatchesPlayed();
+
+    /**
+     * Gets the number of matches played on tables each second, since the metrics were reset.
+     * @return the matches per second.
+     */
+    double getMatchesPerSecond();
+
+    /**
+     * Gets the number of matches played on each table, and the number each second, since the metrics were reset.
+     * @return a line for each table.
+     */
+    String[] getTableMatchesPerSecond();
+
+    /**
+     * Gets the mean time taken to play a match, from the matches timed.
+     * @return the mean in microseconds.
+     */
+    double getMatchLatencyMeanMicros();
+
+    /**
+     * Gets the time which half of matches took no longer than.
+     * @return the median in microseconds, accurate to within a factor of 2.
+     */
+    double getMatchLatencyP50Micros();
+
+    /**
+     * Gets the time which 99% of matches took no longer than.
+     * @return the 99th percentile in microseconds, accurate to within a factor of 2.
+     */
+    double getMatchLatencyP99Micros();
+
+    /**
+     * Gets the longest time taken to play a match.
+     * @return the longest time in microseconds.
+     */
+    double getMatchLatencyMaxMicros();
+
+    /**
+     * Gets the number of rounds ({@link TableTennisRound}) played, by every match played round by round.
+     * @return the number of rounds.
+     */
+    long getRoundsPlayed();
+
+    /**
+     * Gets the number of rounds decided by a coin flip, after 10 attempts at a valid random number.
+     * @return the number of coin flips.
+     */
+    long getFallbackCoinFlips();
+
+    /**
+     * Gets the share of rounds decided by a coin flip.
+     * @return the share, from 0 to 1.
+     */
+    double getFallbackRate();
+
+    /**
+     * Gets the number of rounds of a tournament (knock-out rounds, group matchdays and Swiss rounds) which have been
+     * timed.
+     * @return the number of tournament rounds.
+     */
+    long getTournamentRoundsTimed();
+
+    /**
+     * Gets the mean time taken to play every match of a tournament round.
+     * @return the mean in milliseconds.
+     */
+    double getTournamentRoundMeanMillis();
+
+    /**
+     * Gets the longest time taken to play every match of a tournament round.
+     * @return the longest time in milliseconds.
+     */
+    double getTournamentRoundMaxMillis();
+
+    /**
+     * Gets every metric as text, the same as the periodic snapshot.
+     * @return the snapshot.
+     */
+    String snapshot();
+
+    /**
+     * Sets every metric back to 0.
+     */
+    void reset();
+}